@@ -0,0 +1,61 @@
+package App;
+
+import Controlador.ControladorUNO;
+import NIO.PartidaRemotaNIO;
+import ar.edu.unlu.rmimvc.RMIMVCException;
+import ar.edu.unlu.rmimvc.cliente.Cliente;
+import ar.edu.unlu.rmimvc.observer.IObservableRemoto;
+
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+
+/**
+ * Conecta el controlador con el servidor según las propiedades del cliente (lo comparten
+ * {@link Main} y {@link MainConsola}).
+ * <ul>
+ *   <li>{@code -Duno.transporte=nio}: una sola conexión saliente por NIO en lugar de RMI.</li>
+ *   <li>{@code -Duno.entrega=polling}: los eventos se piden al servidor por long-poll. El controlador
+ *       no se exporta ni se registra como callback, así que el cliente no abre ningún puerto y
+ *       el servidor nunca tiene que conectarse hacia él (sirve detrás de NAT).</li>
+ * </ul>
+ * Sin propiedades: RMI con callbacks, como siempre (exporta el controlador en hostCliente:portCliente).
+ */
+final class ConexionCliente {
+
+    static final String PROPIEDAD_TRANSPORTE = "uno.transporte";
+    static final String PROPIEDAD_ENTREGA = "uno.entrega";
+
+    private ConexionCliente() {
+    }
+
+    static void conectar(ControladorUNO controlador, String hostCliente, int portCliente,
+                         String hostServidor, int portServidor) throws RemoteException, RMIMVCException {
+        boolean nio = "nio".equals(System.getProperty(PROPIEDAD_TRANSPORTE));
+        boolean polling = "polling".equals(System.getProperty(PROPIEDAD_ENTREGA));
+
+        if (nio) {
+            int puertoNio = Integer.getInteger("uno.nio.puerto", 1100);
+            if (polling) {
+                controlador.setModeloRemoto(new PartidaRemotaNIO(hostServidor, puertoNio,
+                        ControladorUNO.TIMEOUT_RESPUESTA_MS));
+            } else {
+                PartidaRemotaNIO.iniciar(hostServidor, puertoNio, ControladorUNO.TIMEOUT_RESPUESTA_MS, controlador);
+            }
+        } else if (polling) {
+            // Lo mismo que Cliente.iniciar, pero sin exportar el controlador ni suscribirlo
+            try {
+                controlador.setModeloRemoto((IObservableRemoto)
+                        LocateRegistry.getRegistry(hostServidor, portServidor).lookup("MVCRMI/Modelo"));
+            } catch (NotBoundException e) {
+                throw new RMIMVCException("No se encontró el modelo en el registro remoto.");
+            }
+        } else {
+            new Cliente(hostCliente, portCliente, hostServidor, portServidor).iniciar(controlador);
+        }
+
+        if (polling) {
+            controlador.iniciarModoPolling();
+        }
+    }
+}
@@ -39,16 +39,20 @@ public class Main extends Application {
         String hostServidor = "127.0.0.1";
         int portServidor = 1099; // Puerto por defecto del registro RMI.
 
+        // Timeout corto para las respuestas RMI: los comandos se reintentan de forma segura
+        // (el servidor los deduplica por sesión), así que no hace falta esperar minutos.
+        System.setProperty("sun.rmi.transport.tcp.responseTimeout",
+                String.valueOf(ControladorUNO.TIMEOUT_RESPUESTA_MS));
+
+        // Medición de tráfico (-Duno.medicion) y red simulada (-Duno.red=latencia=50,jitter=10); antes de conectar
+        RMI.FabricaSocketsRMI.instalarSiCorresponde();
+
         try {
             // 3. Conexión RMI.
-            // Instanciamos el Cliente de la librería RMIMVC que se encarga de la red.
-            ar.edu.unlu.rmimvc.cliente.Cliente cliente =
-                    new ar.edu.unlu.rmimvc.cliente.Cliente(hostCliente, portCliente, hostServidor, portServidor);
-
-            // Iniciamos la conexión:
-            // Esto busca el Modelo remoto (IPartidaRemota) en el servidor y
-            // se lo inyecta al controlador mediante setModeloRemoto().
-            cliente.iniciar(controlador);
+            // Busca el Modelo remoto (IPartidaRemota) en el servidor y se lo inyecta al controlador
+            // mediante setModeloRemoto(). Opcionales: -Duno.transporte=nio (una sola conexión saliente)
+            // y -Duno.entrega=polling (long-poll, sin exportar el controlador: funciona detrás de NAT).
+            ConexionCliente.conectar(controlador, hostCliente, portCliente, hostServidor, portServidor);
 
             System.out.println("✔ Cliente RMI iniciado y controlador ligado al modelo remoto.");
         } catch (Exception e) {
@@ -1,8 +1,8 @@
 package App;
 
 import Controlador.ControladorUNO;
+import RMI.FabricaSocketsRMI;
 import Vista.VistaConsola;
-import ar.edu.unlu.rmimvc.cliente.Cliente;
 import javafx.application.Application;
 import javafx.stage.Stage;
 
@@ -21,8 +21,16 @@ public class MainConsola extends Application {
             String hostServidor = "127.0.0.1";
             int portServidor = 1099;
 
-            Cliente cliente = new Cliente(hostCliente, portCliente, hostServidor, portServidor);
-            cliente.iniciar(controlador);
+            // Timeout corto: los comandos se reintentan de forma segura
+            System.setProperty("sun.rmi.transport.tcp.responseTimeout",
+                    String.valueOf(ControladorUNO.TIMEOUT_RESPUESTA_MS));
+
+            // Medición de tráfico (-Duno.medicion) y red simulada (-Duno.red)
+            FabricaSocketsRMI.instalarSiCorresponde();
+
+            // Opcionales: -Duno.transporte=nio (una sola conexión saliente, sin puerto local)
+            // y -Duno.entrega=polling (long-poll, sin exportar el controlador)
+            ConexionCliente.conectar(controlador, hostCliente, portCliente, hostServidor, portServidor);
 
             System.out.println("✔ Consola conectada al servidor RMI.");
 
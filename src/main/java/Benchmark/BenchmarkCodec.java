@@ -0,0 +1,105 @@
+package Benchmark;
+
+import Modelo.Carta;
+import Modelo.Color;
+import Modelo.Evento;
+import Modelo.Jugador;
+import Modelo.Numero;
+import Modelo.TipoEvento;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark del formato de red: bytes y nanosegundos por objeto con el codec compacto
+ * ({@link Evento} / {@link Jugador} Externalizable) contra la serialización estándar
+ * de Java que se usaba antes (tipo como String, mano como ArrayList de Carta).
+ * <p>
+ * Cada objeto se escribe en un ObjectOutputStream nuevo, igual que en una llamada RMI,
+ * así los descriptores de clase se cuentan en cada envío.
+ * <p>
+ * Uso: java -cp target/classes:libs/LibreriaRMIMVC.jar Benchmark.BenchmarkCodec
+ */
+public class BenchmarkCodec {
+
+    private static final int CALENTAMIENTO = 20_000;
+    private static final int ITERACIONES = 100_000;
+
+    // Forma en la que viajaban los eventos antes del codec
+    private static class EventoLegado implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final String tipo;
+        final Object datos;
+        final long secuencia;
+
+        EventoLegado(String tipo, Object datos, long secuencia) {
+            this.tipo = tipo;
+            this.datos = datos;
+            this.secuencia = secuencia;
+        }
+    }
+
+    // Forma en la que viajaban los jugadores antes del codec
+    private static class JugadorLegado implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final String nombre;
+        final List<Carta> cartas;
+
+        JugadorLegado(String nombre, List<Carta> cartas) {
+            this.nombre = nombre;
+            this.cartas = new ArrayList<>(cartas);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Carta carta = Carta.de(Color.ROJO, Numero.SIETE);
+        List<Carta> mano = List.of(
+                Carta.de(Color.ROJO, Numero.SIETE), Carta.de(Color.AZUL, Numero.MASDOS),
+                Carta.de(Color.VERDE, Numero.CERO), Carta.de(Color.AMARILLO, Numero.SALTARSE),
+                Carta.de(Color.SIN_COLOR, Numero.MASCUATRO), Carta.de(Color.ROJO, Numero.NUEVE),
+                Carta.de(Color.AZUL, Numero.CAMBIOSENTIDO));
+        Jugador jugador = new Jugador("Jugador1");
+        mano.forEach(jugador::tomarCarta);
+
+        System.out.printf("%-28s %10s %12s%n", "Objeto", "bytes", "ns/ida+vuelta");
+        medir("JUGAR_CARTA legado", new EventoLegado("JUGAR_CARTA", carta, 42));
+        medir("JUGAR_CARTA compacto", new Evento(TipoEvento.JUGAR_CARTA, carta, 42));
+        medir("CAMBIO_TURNO legado", new EventoLegado("CAMBIO_TURNO", "Jugador1", 43));
+        medir("CAMBIO_TURNO compacto", new Evento(TipoEvento.CAMBIO_TURNO, "Jugador1", 43));
+        medir("CAMBIO_COLOR legado", new EventoLegado("CAMBIO_COLOR", Color.VERDE, 44));
+        medir("CAMBIO_COLOR compacto", new Evento(TipoEvento.CAMBIO_COLOR, Color.VERDE, 44));
+        medir("Jugador (7 cartas) legado", new JugadorLegado("Jugador1", mano));
+        medir("Jugador (7 cartas) compacto", jugador);
+    }
+
+    private static void medir(String nombre, Object objeto) throws Exception {
+        int bytes = serializar(objeto).length;
+
+        for (int i = 0; i < CALENTAMIENTO; i++) {
+            idaYVuelta(objeto);
+        }
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ITERACIONES; i++) {
+            idaYVuelta(objeto);
+        }
+        long nsPorObjeto = (System.nanoTime() - inicio) / ITERACIONES;
+
+        System.out.printf("%-28s %10d %12d%n", nombre, bytes, nsPorObjeto);
+    }
+
+    private static Object idaYVuelta(Object objeto) throws Exception {
+        byte[] datos = serializar(objeto);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(datos))) {
+            return in.readObject();
+        }
+    }
+
+    private static byte[] serializar(Object objeto) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(objeto);
+        }
+        return buffer.toByteArray();
+    }
+}
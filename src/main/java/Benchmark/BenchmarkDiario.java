@@ -0,0 +1,171 @@
+package Benchmark;
+
+import Modelo.Color;
+import Modelo.DiarioPartidas;
+import Modelo.MotivoRechazo;
+import Modelo.MotorUNO;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark del {@link DiarioPartidas}: muchas mesas jugando a la vez con un bot al azar, cada una
+ * en su hilo y con su propio monitor (como la Partida), anotando cada comando aceptado.
+ * <p>
+ * Compara jugadas por segundo sin diario y con diario, y cuánto tarda en promedio la anotación
+ * dentro del comando (lo que la mesa paga; el disco lo paga el hilo escritor). Al final muestra
+ * los segmentos y bytes que quedaron. Usa un directorio temporal que se borra al terminar.
+ * <p>
+ * Uso: java -cp target/classes:libs/LibreriaRMIMVC.jar Benchmark.BenchmarkDiario [ms por medición]
+ */
+public class BenchmarkDiario {
+
+    private static final Color[] COLORES = {Color.ROJO, Color.AZUL, Color.VERDE, Color.AMARILLO};
+    private static final int[] MESAS = {1, 4, 16, 64};
+    private static final int JUGADORES = 4;
+    private static final int MAX_JUGADAS = 2_000; // Corta partidas que no terminan nunca
+
+    private static volatile boolean corriendo;
+
+    public static void main(String[] args) throws Exception {
+        long ms = args.length > 0 ? Long.parseLong(args[0]) : 1_000;
+        Path directorio = Files.createTempDirectory("uno-diario-bench");
+        DiarioPartidas diario = new DiarioPartidas(directorio, 10, 8 * 1024 * 1024, 60_000);
+
+        medir(null, 4, ms / 2); // Calentamiento
+        medir(diario, 4, ms / 2);
+
+        System.out.printf("%-8s %16s %16s %14s %14s%n", "mesas", "jugadas/s sin", "jugadas/s con",
+                "ns/jugada sin", "ns anotar");
+        for (int mesas : MESAS) {
+            double[] sin = medir(null, mesas, ms);
+            double[] con = medir(diario, mesas, ms);
+            System.out.printf("%-8d %16.0f %16.0f %14.0f %14.0f%n", mesas, sin[0], con[0], sin[1], con[2]);
+        }
+        diario.cerrar();
+
+        long bytes = 0;
+        int segmentos = 0;
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            for (Path p : (Iterable<Path>) archivos::iterator) {
+                bytes += Files.size(p);
+                segmentos++;
+            }
+        }
+        System.out.printf("Diario: %d segmentos, %.1f MB%n", segmentos, bytes / 1e6);
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    // {jugadas por segundo, ns por jugada (de cada hilo), ns anotando por jugada} con 'mesas' hilos
+    private static double[] medir(DiarioPartidas diario, int mesas, long ms) throws InterruptedException {
+        LongAdder jugadas = new LongAdder();
+        LongAdder nsAnotando = new LongAdder();
+        LongAdder nsTotales = new LongAdder();
+        CountDownLatch listos = new CountDownLatch(mesas);
+        CountDownLatch largada = new CountDownLatch(1);
+        Thread[] hilos = new Thread[mesas];
+        for (int m = 0; m < mesas; m++) {
+            long semilla = m;
+            hilos[m] = new Thread(() -> {
+                Mesa mesa = new Mesa(diario, semilla);
+                listos.countDown();
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long inicio = System.nanoTime();
+                while (corriendo) {
+                    mesa.jugarTurno();
+                }
+                nsTotales.add(System.nanoTime() - inicio);
+                jugadas.add(mesa.jugadas);
+                nsAnotando.add(mesa.nsAnotando);
+            });
+            hilos[m].start();
+        }
+        listos.await();
+        corriendo = true;
+        long inicio = System.nanoTime();
+        largada.countDown();
+        Thread.sleep(ms);
+        corriendo = false;
+        for (Thread t : hilos) {
+            t.join();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        long total = Math.max(1, jugadas.sum());
+        return new double[]{total / segundos, (double) nsTotales.sum() / total, (double) nsAnotando.sum() / total};
+    }
+
+    // Una mesa con su motor y su bot; los comandos van bajo su monitor, como en la Partida
+    private static final class Mesa {
+        private final DiarioPartidas diario;
+        private final int numero;
+        private final MotorUNO motor;
+        private final SplittableRandom azar;
+        private final BitSet jugables = new BitSet();
+        private final List<String> nombres = List.of("ana", "beto", "carla", "dani");
+        private long jugadas;
+        private long nsAnotando;
+        private int jugadasPartida;
+
+        Mesa(DiarioPartidas diario, long semilla) {
+            this.diario = diario;
+            this.motor = new MotorUNO(10, semilla);
+            this.azar = new SplittableRandom(semilla);
+            this.numero = diario == null ? 0 : diario.abrirMesa(semilla);
+            empezar();
+        }
+
+        private void empezar() {
+            motor.iniciar(JUGADORES);
+            jugadasPartida = 0;
+            if (diario != null) diario.anotarInicio(numero, nombres, motor);
+        }
+
+        // Bot simple: tira la primera carta jugable; si no tiene, roba y juega o pasa
+        synchronized void jugarTurno() {
+            if (!motor.isEnCurso() || jugadasPartida++ > MAX_JUGADAS) {
+                empezar();
+            }
+            int turno = motor.getTurno();
+            motor.calcularJugables(turno, jugables);
+            if (jugables.isEmpty()) {
+                comando(motor.robar(), DiarioPartidas.Registro.ROBAR, turno, -1, null);
+                motor.calcularJugables(turno, jugables);
+                if (jugables.isEmpty()) {
+                    comando(motor.pasarTurno(), DiarioPartidas.Registro.PASAR, turno, -1, null);
+                    return;
+                }
+            }
+            int indice = jugables.nextSetBit(0);
+            if (comando(motor.jugarCarta(indice), DiarioPartidas.Registro.JUGAR_CARTA, turno, indice, null)
+                    && motor.isEsperandoColor()) {
+                Color color = COLORES[azar.nextInt(COLORES.length)];
+                comando(motor.cambiarColor(color), DiarioPartidas.Registro.CAMBIAR_COLOR, turno, -1, color);
+            }
+        }
+
+        private boolean comando(MotivoRechazo motivo, DiarioPartidas.Registro tipo, int jugador, int indice,
+                                Color color) {
+            if (motivo != null) return false;
+            jugadas++;
+            if (diario != null) {
+                long inicio = System.nanoTime();
+                diario.anotarComando(numero, tipo, jugador, indice, color, motor);
+                nsAnotando += System.nanoTime() - inicio;
+            }
+            return true;
+        }
+    }
+}
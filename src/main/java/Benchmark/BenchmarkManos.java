@@ -0,0 +1,115 @@
+package Benchmark;
+
+import Modelo.Carta;
+import Modelo.Color;
+import Modelo.MotorUNO;
+import Modelo.Numero;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Benchmark de las consultas de reglas sobre la mano, con manos de 7, 30 y 100 cartas.
+ * Compara las manos del {@link MotorUNO} (histograma por cara + totales por color y valor)
+ * con la forma anterior: un ArrayList de cartas recorrido en cada pregunta,
+ * con los mismos métodos synchronized que tenía el Jugador original.
+ * <ul>
+ *   <li>tieneDelColor: la pregunta de la regla del +4.</li>
+ *   <li>jugables: la máscara de cartas que se pueden tirar (la que viaja con cada mano).</li>
+ * </ul>
+ * Uso: java -cp target/classes:libs/LibreriaRMIMVC.jar Benchmark.BenchmarkManos
+ */
+public class BenchmarkManos {
+
+    private static final int CALENTAMIENTO = 200_000;
+    private static final int ITERACIONES = 2_000_000;
+
+    // Para que el JIT no descarte los resultados
+    private static long sumidero;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-16s %12s %12s%n", "cartas", "operación", "ArrayList", "motor");
+        for (int tamanio : new int[]{7, 30, 100}) {
+            MotorUNO motor = manoDe(tamanio);
+            ManoLegada legado = new ManoLegada(cartasDe(motor));
+            Carta tope = Carta.porOrdinal(motor.getTope());
+            Color color = motor.getColor();
+            BitSet jugables = new BitSet();
+
+            double colorLegado = medir(() -> sumidero += legado.tieneDelColor(Color.AMARILLO) ? 1 : 0);
+            double colorMotor = medir(() -> sumidero += motor.tieneDelColor(0, Color.AMARILLO.ordinal()) ? 1 : 0);
+            System.out.printf("%-8d %-16s %9.1f ns %9.1f ns%n", tamanio, "tieneDelColor", colorLegado, colorMotor);
+
+            double jugablesLegado = medir(() -> {
+                legado.calcularJugables(tope, color, jugables);
+                sumidero += jugables.cardinality();
+            });
+            double jugablesMotor = medir(() -> {
+                motor.calcularJugables(0, jugables);
+                sumidero += jugables.cardinality();
+            });
+            System.out.printf("%-8d %-16s %9.1f ns %9.1f ns%n", tamanio, "jugables", jugablesLegado, jugablesMotor);
+        }
+        if (sumidero == 42) System.out.println();
+    }
+
+    // Mesa de un solo jugador que roba y pasa hasta tener 'tamanio' cartas (siempre es su turno)
+    private static MotorUNO manoDe(int tamanio) {
+        MotorUNO motor = new MotorUNO(1, tamanio);
+        motor.iniciar(1, tamanio);
+        while (motor.cantidadCartas(0) < tamanio) {
+            motor.robar();
+            motor.pasarTurno();
+        }
+        return motor;
+    }
+
+    private static List<Carta> cartasDe(MotorUNO motor) {
+        List<Carta> cartas = new ArrayList<>();
+        for (int cara = 0; cara < Carta.CANTIDAD_CARAS; cara++) {
+            for (int c = motor.copiasDe(0, cara); c > 0; c--) {
+                cartas.add(Carta.porOrdinal(cara));
+            }
+        }
+        return cartas;
+    }
+
+    // La mano como estaba antes: ArrayList + métodos synchronized, cada regla recorre la lista
+    private static class ManoLegada {
+        private final List<Carta> cartas;
+
+        ManoLegada(List<Carta> cartas) {
+            this.cartas = new ArrayList<>(cartas);
+        }
+
+        synchronized boolean tieneDelColor(Color color) {
+            for (Carta carta : cartas) {
+                if (carta.getColor() == color) return true;
+            }
+            return false;
+        }
+
+        synchronized void calcularJugables(Carta tope, Color color, BitSet destino) {
+            destino.clear();
+            for (int i = 0; i < cartas.size(); i++) {
+                Carta carta = cartas.get(i);
+                boolean jugable;
+                if (carta.getValor() == Numero.MASCUATRO) {
+                    jugable = !tieneDelColor(color);
+                } else {
+                    jugable = carta.getValor() == Numero.CAMBIOCOLOR
+                            || carta.getColor() == color || carta.getValor() == tope.getValor();
+                }
+                if (jugable) destino.set(i);
+            }
+        }
+    }
+
+    private static double medir(Runnable operacion) {
+        for (int i = 0; i < CALENTAMIENTO; i++) operacion.run();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < ITERACIONES; i++) operacion.run();
+        return (System.nanoTime() - inicio) / (double) ITERACIONES;
+    }
+}
@@ -0,0 +1,88 @@
+package Benchmark;
+
+import Modelo.Color;
+import Modelo.MotorUNO;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmark del {@link MotorUNO} pensando en bots y simulaciones:
+ * <ul>
+ *   <li>copiar: cuánto cuesta duplicar una mesa en juego (punto de partida de cada simulación).</li>
+ *   <li>partidas simuladas: copiar la mesa y jugarla hasta el final con un bot al azar.</li>
+ * </ul>
+ * Todo sale de semillas fijas: dos corridas (en cualquier máquina) simulan las mismas partidas.
+ * Uso: java -cp target/classes:libs/LibreriaRMIMVC.jar Benchmark.BenchmarkMotor
+ */
+public class BenchmarkMotor {
+
+    private static final Color[] COLORES = {Color.ROJO, Color.AZUL, Color.VERDE, Color.AMARILLO};
+    private static final int COPIAS = 2_000_000;
+    private static final int SIMULACIONES = 200_000;
+    private static final int MAX_JUGADAS = 2_000; // Corta partidas que no terminan nunca
+
+    // Para que el JIT no descarte los resultados
+    private static long sumidero;
+
+    public static void main(String[] args) {
+        System.out.printf("%-10s %14s %18s %14s%n", "jugadores", "copiar", "simulaciones/s", "jugadas/sim");
+        for (int jugadores : new int[]{2, 4, 10}) {
+            MotorUNO mesa = new MotorUNO(10, jugadores);
+            mesa.iniciar(jugadores);
+
+            medirCopias(mesa, COPIAS / 10); // Calentamiento
+            double nsCopia = medirCopias(mesa, COPIAS);
+
+            SplittableRandom azar = new SplittableRandom(42);
+            simular(mesa, SIMULACIONES / 10, azar); // Calentamiento
+            long inicio = System.nanoTime();
+            long jugadas = simular(mesa, SIMULACIONES, azar);
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            System.out.printf("%-10d %11.1f ns %18.0f %14.1f%n", jugadores, nsCopia,
+                    SIMULACIONES / segundos, (double) jugadas / SIMULACIONES);
+        }
+        if (sumidero == 42) System.out.println();
+    }
+
+    private static double medirCopias(MotorUNO mesa, int veces) {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < veces; i++) {
+            sumidero += mesa.copiar().getTurno();
+        }
+        return (System.nanoTime() - inicio) / (double) veces;
+    }
+
+    // Juega 'veces' partidas desde copias de la mesa; devuelve el total de jugadas
+    private static long simular(MotorUNO mesa, int veces, SplittableRandom azar) {
+        BitSet jugables = new BitSet();
+        long jugadas = 0;
+        for (int i = 0; i < veces; i++) {
+            MotorUNO sim = mesa.copiar(azar.nextLong()); // El bot no conoce el orden del mazo
+            for (int n = 0; n < MAX_JUGADAS && sim.isEnCurso(); n++, jugadas++) {
+                jugarTurno(sim, jugables, azar);
+            }
+            sumidero += sim.getGanador();
+        }
+        return jugadas;
+    }
+
+    // Bot simple: tira la primera carta jugable; si no tiene, roba y juega o pasa
+    private static void jugarTurno(MotorUNO sim, BitSet jugables, SplittableRandom azar) {
+        int turno = sim.getTurno();
+        sim.calcularJugables(turno, jugables);
+        if (jugables.isEmpty()) {
+            sim.robar();
+            sim.calcularJugables(turno, jugables);
+            if (jugables.isEmpty()) {
+                sim.pasarTurno();
+                return;
+            }
+        }
+        int indice = jugables.nextSetBit(0);
+        if (sim.jugarCarta(indice) == null && sim.isEsperandoColor()) {
+            sim.cambiarColor(COLORES[azar.nextInt(COLORES.length)]);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package Benchmark;
+
+import Modelo.SerializadorRanking;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark de contención del ranking: muchas mesas terminando a la vez ({@code registrarVictoria})
+ * y sus clientes pidiendo el top ({@code getTop5}), desde 1 hasta 2× los núcleos en hilos.
+ * <p>
+ * Cada hilo hace operaciones al azar con una proporción fija de victorias (el resto son pedidos
+ * del top) sobre {@value #JUGADORES} jugadores. Se compara contra lo mismo con todas las
+ * operaciones pasando por un único monitor, que es como estaba el ranking antes.
+ * Usa un directorio temporal que se borra al terminar.
+ * <p>
+ * Uso: java -cp target/classes:libs/LibreriaRMIMVC.jar Benchmark.BenchmarkRanking [ms por medición]
+ */
+public class BenchmarkRanking {
+
+    private static final int JUGADORES = 10_000;
+    private static final int[] PORCENTAJES_VICTORIAS = {1, 10, 50};
+
+    private static final Object MONITOR = new Object();
+    private static volatile boolean corriendo;
+    private static long sumidero;
+
+    public static void main(String[] args) throws Exception {
+        long ms = args.length > 0 ? Long.parseLong(args[0]) : 1_000;
+        int maxHilos = Runtime.getRuntime().availableProcessors() * 2;
+
+        Path directorio = Files.createTempDirectory("uno-ranking-bench");
+        SerializadorRanking ranking = new SerializadorRanking(directorio, 20, 1024);
+        String[] nombres = new String[JUGADORES];
+        for (int i = 0; i < JUGADORES; i++) {
+            nombres[i] = "jugador" + i;
+        }
+        medir(ranking, nombres, 1, 10, false, ms); // Calentamiento
+
+        System.out.printf("%-10s %-8s %18s %18s%n", "victorias", "hilos", "ops/s un monitor", "ops/s actual");
+        for (int porcentaje : PORCENTAJES_VICTORIAS) {
+            for (int hilos = 1; hilos <= maxHilos; hilos *= 2) {
+                double conMonitor = medir(ranking, nombres, hilos, porcentaje, true, ms);
+                double actual = medir(ranking, nombres, hilos, porcentaje, false, ms);
+                System.out.printf("%-10s %-8d %18.0f %18.0f%n", porcentaje + "%", hilos, conMonitor, actual);
+            }
+        }
+
+        ranking.cerrar();
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+        if (sumidero == 42) System.out.println();
+    }
+
+    // Operaciones por segundo de 'hilos' hilos durante 'ms' milisegundos
+    private static double medir(SerializadorRanking ranking, String[] nombres, int hilos, int porcentaje,
+                                boolean unMonitor, long ms) throws InterruptedException, IOException {
+        LongAdder operaciones = new LongAdder();
+        CountDownLatch listos = new CountDownLatch(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        Thread[] trabajadores = new Thread[hilos];
+        for (int h = 0; h < hilos; h++) {
+            SplittableRandom azar = new SplittableRandom(h);
+            trabajadores[h] = new Thread(() -> {
+                listos.countDown();
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long hechas = 0;
+                while (corriendo) {
+                    boolean victoria = azar.nextInt(100) < porcentaje;
+                    String nombre = nombres[azar.nextInt(nombres.length)];
+                    if (unMonitor) {
+                        synchronized (MONITOR) {
+                            operar(ranking, victoria, nombre);
+                        }
+                    } else {
+                        operar(ranking, victoria, nombre);
+                    }
+                    hechas++;
+                }
+                operaciones.add(hechas);
+            });
+            trabajadores[h].start();
+        }
+        listos.await();
+        corriendo = true;
+        long inicio = System.nanoTime();
+        largada.countDown();
+        Thread.sleep(ms);
+        corriendo = false;
+        for (Thread t : trabajadores) {
+            t.join();
+        }
+        return operaciones.sum() / ((System.nanoTime() - inicio) / 1e9);
+    }
+
+    private static void operar(SerializadorRanking ranking, boolean victoria, String nombre) {
+        if (victoria) {
+            ranking.registrarVictoria(nombre);
+        } else {
+            sumidero += ranking.getTop5().size();
+        }
+    }
+}
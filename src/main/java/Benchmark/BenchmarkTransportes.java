@@ -0,0 +1,137 @@
+package Benchmark;
+
+import EnProceso.PartidaEnProceso;
+import Modelo.*;
+import ar.edu.unlu.rmimvc.observer.IObservadorRemoto;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmark de transportes: juega las mismas partidas entre bots por tres caminos y mide
+ * jugadas por segundo.
+ * <ul>
+ *   <li>En proceso, llamada directa ({@link PartidaEnProceso} sin copia).</li>
+ *   <li>En proceso con copia al enviar (aislamiento como por la red, sin sockets).</li>
+ *   <li>RMI por loopback (stub + serialización + TCP, todo en esta JVM).</li>
+ * </ul>
+ * Los bots juegan la primera carta jugable; si no tienen, roban y pasan. Las tres mesas usan
+ * la misma semilla, así cada camino juega exactamente las mismas partidas en cada corrida.
+ * Las victorias de los bots van a un ranking en un directorio temporal (que se borra al final) y el
+ * diario de partidas queda apagado: no toca los archivos de un servidor del mismo directorio.
+ * <p>
+ * Uso: java -cp target/classes:libs/LibreriaRMIMVC.jar Benchmark.BenchmarkTransportes [partidas]
+ */
+public class BenchmarkTransportes {
+
+    private static final String[] BOTS = {"bot1", "bot2", "bot3"};
+    private static final long SEMILLA = 2024;
+
+    public static void main(String[] args) throws Exception {
+        int partidas = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+
+        // Nada de lo que juegan los bots tiene que quedar en el ranking ni en el diario reales
+        System.setProperty(DiarioPartidas.PROPIEDAD_ACTIVO, "false");
+        Path directorio = Files.createTempDirectory("uno-benchmark");
+        SerializadorRanking ranking = new SerializadorRanking(directorio, 20, 1024);
+        try {
+            medir("En proceso (directo)", partidas,
+                    new PartidaEnProceso(new Partida(SEMILLA, ranking), false), null);
+            medir("En proceso (copia)", partidas,
+                    new PartidaEnProceso(new Partida(SEMILLA, ranking), true), null);
+
+            Partida real = new Partida(SEMILLA, ranking);
+            IPartidaRemota stub = (IPartidaRemota) UnicastRemoteObject.exportObject(real, 0);
+            medir("RMI loopback", partidas, stub, real);
+            UnicastRemoteObject.unexportObject(real, true);
+        } finally {
+            ranking.cerrar();
+            borrar(directorio);
+        }
+
+        System.exit(0); // Cierra los hilos de RMI
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            for (Path archivo : archivos.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(archivo);
+            }
+        }
+    }
+
+    private static void medir(String nombre, int partidas, IPartidaRemota partida, Partida exportada)
+            throws RemoteException {
+        AtomicLong eventos = new AtomicLong();
+        IObservadorRemoto contador = (observable, evento) -> eventos.incrementAndGet();
+        if (exportada != null) {
+            // Por RMI el observador también tiene que ser un objeto remoto (callback real)
+            contador = (IObservadorRemoto) UnicastRemoteObject.exportObject(contador, 0);
+        }
+        partida.agregarObservador(contador);
+
+        List<String> tokens = new ArrayList<>();
+        for (String bot : BOTS) {
+            tokens.add(partida.registrarJugador(bot).getToken());
+        }
+        long[] secuencias = new long[BOTS.length];
+
+        long jugadas = 0;
+        long inicio = System.nanoTime();
+        for (int p = 0; p < partidas; p++) {
+            ResultadoComando r = p == 0
+                    ? partida.iniciarJuego(tokens.get(0), ++secuencias[0])
+                    : partida.reiniciarPartida(tokens.get(0), ++secuencias[0]);
+            if (!r.isOk()) {
+                throw new IllegalStateException("No se pudo iniciar: " + r.getMensaje());
+            }
+            jugadas += jugarHastaElFinal(partida, tokens, secuencias);
+        }
+        long nanos = System.nanoTime() - inicio;
+
+        System.out.printf("%-22s %6d jugadas en %7.1f ms -> %,12.0f jugadas/s (%d eventos)%n",
+                nombre, jugadas, nanos / 1e6, jugadas * 1e9 / nanos, eventos.get());
+    }
+
+    private static long jugarHastaElFinal(IPartidaRemota partida, List<String> tokens, long[] secuencias)
+            throws RemoteException {
+        long jugadas = 0;
+        while (partida.isPartidaEnCurso()) {
+            String nombre = partida.getJugadorActual().getNombre();
+            int i = indiceDe(nombre);
+            String token = tokens.get(i);
+
+            ManoJugador mano = partida.obtenerMano(nombre);
+            int elegida = -1;
+            for (int c = 0; c < mano.getCartas().size() && elegida < 0; c++) {
+                if (mano.esJugable(c)) elegida = c;
+            }
+
+            if (elegida < 0) {
+                partida.robarCartaDelMazo(token, ++secuencias[i]);
+                partida.pasarTurno(token, ++secuencias[i]);
+            } else if (mano.getCartas().get(elegida).getColor() == Color.SIN_COLOR) {
+                partida.jugarComodin(token, ++secuencias[i], elegida, Color.ROJO);
+            } else {
+                partida.jugarCarta(token, ++secuencias[i], elegida);
+            }
+            jugadas++;
+        }
+        return jugadas;
+    }
+
+    private static int indiceDe(String nombre) {
+        for (int i = 0; i < BOTS.length; i++) {
+            if (BOTS[i].equals(nombre)) return i;
+        }
+        throw new IllegalStateException("Jugador desconocido: " + nombre);
+    }
+}
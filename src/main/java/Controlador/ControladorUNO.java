@@ -1,6 +1,7 @@
 package Controlador;
 
 import Modelo.*;
+import RMI.MedidorRed;
 import Vista.VistaEsperaJavaFX;
 import ar.edu.unlu.rmimvc.cliente.IControladorRemoto;
 import ar.edu.unlu.rmimvc.observer.IObservableRemoto;
@@ -18,8 +19,9 @@ import java.util.List;
  * <p>
  * Sus responsabilidades son:
  * 1. Recibir las acciones de la vista (Jugar, Robar, etc.).
- * 2. Validar localmente la identidad (Turno) antes de llamar al servidor.
- * 3. Enviar la orden al servidor vía RMI.
+ * 2. Enviar la orden al servidor vía RMI, con la sesión y un número de secuencia
+ *    (el servidor valida el turno y deduplica los reintentos).
+ * 3. Reintentar los comandos ante cortes de red sin riesgo de aplicarlos dos veces.
  * 4. Recibir actualizaciones del servidor (Patrón Observer Distribuido) y refrescar la vista local.
  */
 public class ControladorUNO implements IControladorRemoto {
@@ -37,9 +39,44 @@ public class ControladorUNO implements IControladorRemoto {
     // Sirve para validar si es "mi turno" antes de enviar comandos.
     private String nombreLocal;
 
+    // Token que entrega el servidor al registrarse. Permite recuperar el asiento
+    // si se corta la conexión (ver reconectar()).
+    private String tokenSesion;
+
+    // Número de secuencia del último comando enviado con esta sesión.
+    // Los reintentos reusan el mismo número para que el servidor los reconozca.
+    private long secuenciaComandos = 0;
+    private static final int MAX_INTENTOS = 3;
+    private static final long ESPERA_ENTRE_INTENTOS_MS = 200;
+
+    // Timeout de respuesta para las llamadas RMI del cliente. Puede ser corto porque
+    // los comandos se reintentan sin riesgo (ver enviarComando).
+    public static final long TIMEOUT_RESPUESTA_MS = 5_000;
+
     // Referencia específica a la vista de espera para poder cerrarla cuando inicie el juego.
     private VistaEsperaJavaFX vistaEspera;
 
+    // Secuencia del último evento procesado (la asigna el servidor a cada Evento).
+    private volatile long ultimaSecuencia = 0;
+
+    // Huella de la mesa según el último evento recibido (ver DigestoMesa)
+    private volatile long digestoServidor = 0;
+
+    // Última foto de la mesa (la que vino al reconectar o la que se pidió con obtenerEstadoMesa).
+    // Mientras su huella coincida con la del último evento, las vistas se redibujan desde acá
+    // en lugar de hacer una llamada remota por dato (ver mesa() y los getters de abajo).
+    private volatile EstadoMesa mesaLocal;
+
+    // Top del ranking que llegó con el último FIN_PARTIDA (null = todavía no terminó ninguna)
+    private volatile List<String> topFinPartida;
+
+    // Entrega alternativa por long-poll: un hilo pide los eventos al servidor
+    // por la conexión saliente en lugar de esperar los callbacks.
+    // Tiene que ser menor que TIMEOUT_RESPUESTA_MS o el long-poll se cortaría por timeout.
+    private static final long TIMEOUT_POLLING_MS = 4_000;
+    private volatile boolean modoPolling = false;
+    private Thread hiloPolling;
+
 
     // ============  MVC local (Gestión de Vistas) ============
 
@@ -84,7 +121,8 @@ public class ControladorUNO implements IControladorRemoto {
      */
     @Override
     public <T extends IObservableRemoto> void setModeloRemoto(T modeloRemoto) throws RemoteException {
-        this.partida = (IPartidaRemota) modeloRemoto; // cast seguro a nuestra interfaz
+        // cast seguro a nuestra interfaz; con -Duno.medicion se mide cada llamada
+        this.partida = MedidorRed.envolver((IPartidaRemota) modeloRemoto);
     }
 
     /**
@@ -96,13 +134,36 @@ public class ControladorUNO implements IControladorRemoto {
      */
     @Override
     public void actualizar(IObservableRemoto observable, Object evento) throws RemoteException {
+        // El transporte NIO recupera la sesión solo al reabrir la conexión y nos pasa lo que se perdió
+        if (evento instanceof ResultadoReconexion r) {
+            aplicarReconexion(r);
+            return;
+        }
+        // En modo polling los eventos llegan por obtenerEventos(); ignoramos el callback
+        // para no procesar dos veces lo mismo.
+        if (modoPolling) return;
+        procesarEvento(evento);
+    }
+
+    /**
+     * Despacha un evento del servidor (llegue por callback o por long-poll).
+     */
+    private void procesarEvento(Object evento) {
 
         // Verificamos si lo que llega es un evento estructurado de nuestra lógica
         if (evento instanceof Evento e) {
 
+            if (e.getSecuencia() > 0) {
+                // Ya lo procesamos (puede pasar al cambiar de modo de entrega)
+                if (e.getSecuencia() <= ultimaSecuencia) return;
+                ultimaSecuencia = e.getSecuencia();
+                digestoServidor = e.getDigesto();
+                resincronizarSiDifiere();
+            }
+
             switch (e.getTipo()) {
 
-                case "JUGADOR_REGISTRADO":
+                case JUGADOR_REGISTRADO:
                     // Actualizamos la lista de nombres en la sala de espera
                     if (vistaEspera != null) {
                         vistaEspera.agregarJugador((String) e.getDatos());
@@ -113,7 +174,7 @@ public class ControladorUNO implements IControladorRemoto {
                     notificarMensaje("Lobby", "El jugador " + e.getDatos() + " se ha unido a la sala.");
                     break;
 
-                case "INICIO_PARTIDA":
+                case INICIO_PARTIDA:
                     // Cerramos la sala de espera y forzamos a la vista principal a abrirse/actualizarse
                     if (vistaEspera != null) {
                         vistaEspera.cerrar();
@@ -122,7 +183,7 @@ public class ControladorUNO implements IControladorRemoto {
                     //notificarVistas(); --->Lo eliminamos para evitar un doble print, solo lo va a imprimir despues del CAMBIO_TURNO
                     break;
 
-                case "CAMBIO_COLOR":
+                case CAMBIO_COLOR:
                     // CORRECCIÓN 1: No actualizamos la vista completa.
                     // El evento CAMBIO_TURNO viene inmediatamente después y traerá el color nuevo.
                     // Opcional: Mandar mensajito de texto si querés.
@@ -134,7 +195,7 @@ public class ControladorUNO implements IControladorRemoto {
 //                    Carta c = (Carta) e.getDatos();
 //                    notificarMensaje("Juego", "Se jugó: " + c);
 //                    break;
-                case "JUGAR_CARTA":
+                case JUGAR_CARTA:
                     // CORRECCIÓN 2: Este evento suele venir junto con CAMBIO_TURNO.
                     // Si actualizamos acá, vemos la carta nueva.
                     // Si actualizamos en CAMBIO_TURNO, vemos el jugador nuevo.
@@ -145,12 +206,12 @@ public class ControladorUNO implements IControladorRemoto {
                     //notificarMensaje("Juego", "Se jugó: " + c);
                     break;
 
-                case "CAMBIO_TURNO":
+                case CAMBIO_TURNO:
                     // Este es el evento más importante. SIEMPRE actualizamos aquí.
                     notificarVistas();
                     break;
 
-                case "UNO_GRITADO":
+                case UNO_GRITADO:
                     // Caso especial: Solo mostramos mensaje, NO actualizamos la mesa completa todavía
                     // (para evitar parpadeos, ya que enseguida llega el evento de carta jugada)
                     String nombreJugador = (String) e.getDatos();
@@ -158,12 +219,14 @@ public class ControladorUNO implements IControladorRemoto {
                     // Nota: Aquí intencionalmente no llamamos a notificarVistas()
                     break;
 
-                case "FIN_PARTIDA":
-                    String ganador = (String) e.getDatos();
+                case FIN_PARTIDA:
+                    ResultadoPartida resultado = (ResultadoPartida) e.getDatos();
+                    String ganador = resultado.getGanador();
+                    topFinPartida = resultado.getTop(); // Antes del mensaje: la vista lo muestra ahí
                     notificarMensaje("FIN DEL JUEGO", "¡Ha ganado " + ganador + "!");
                     notificarVistas(); // Mostramos la mesa final
                     break;
-                case "JUGADOR_DESCONECTADO":
+                case JUGADOR_DESCONECTADO:
                     String seFue = (String) e.getDatos();
                     notificarMensaje("Información", "El jugador " + seFue + " se ha desconectado.");
                     break;
@@ -185,45 +248,123 @@ public class ControladorUNO implements IControladorRemoto {
         }
     }
 
-    // ============ SEGURIDAD (El Portero) ============
+    // ============ Entrega por Long-Poll ============
 
     /**
-     * Validación Local de Identidad.
-     * Compara el nombre de este cliente con el jugador que tiene el turno en el servidor.
-     * Evita enviar peticiones innecesarias si no es el momento de actuar.
-     *
-     * @return true si es mi turno, false si es el de otro.
+     * Cambia la entrega de eventos a long-poll: un hilo propio le pide al servidor
+     * los eventos posteriores al último visto, en lotes, usando solo conexiones salientes.
+     * Útil cuando el servidor no puede abrir conexiones hacia el cliente (NAT).
      */
-    private boolean esMiTurno() {
-        try {
-            if (partida == null || nombreLocal == null) return false;
-            Jugador actual = partida.getJugadorActual(); // Llamada RMI
-            return actual.getNombre().equals(this.nombreLocal);
-        } catch (RemoteException e) {
-            e.printStackTrace();
-            return false;
+    public synchronized void iniciarModoPolling() {
+        if (modoPolling) return;
+        modoPolling = true;
+        hiloPolling = new Thread(this::cicloPolling, "uno-polling");
+        hiloPolling.setDaemon(true);
+        hiloPolling.start();
+    }
+
+    /**
+     * Vuelve a la entrega por callbacks.
+     */
+    public synchronized void detenerModoPolling() {
+        modoPolling = false;
+        if (hiloPolling != null) {
+            hiloPolling.interrupt();
+            hiloPolling = null;
+        }
+    }
+
+    private void cicloPolling() {
+        while (modoPolling) {
+            try {
+                LoteEventos lote = partida.obtenerEventos(ultimaSecuencia, TIMEOUT_POLLING_MS);
+                for (Evento e : lote.getEventos()) {
+                    procesarEvento(e);
+                }
+                // Si se pisaron eventos en el buffer, no sabemos qué nos perdimos: redibujamos todo
+                if (lote.isHuboPerdida()) {
+                    notificarVistas();
+                }
+            } catch (RemoteException e) {
+                // Corte de red: esperamos un poco y recuperamos el asiento con la sesión
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                reconectar();
+            }
         }
     }
 
+    // ============ ENVÍO DE COMANDOS (Reintentos seguros) ============
+
+    /**
+     * Un comando remoto que recibe el número de secuencia asignado.
+     * El mismo número se reusa en todos los reintentos de ese comando.
+     */
+    private interface Comando {
+        ResultadoComando enviar(long secuencia) throws RemoteException;
+    }
+
+    /**
+     * Envía un comando con un número de secuencia nuevo y lo reintenta ante fallas de red.
+     * <p>
+     * Es seguro reintentar porque el servidor deduplica por (sesión, secuencia): si el primer
+     * intento sí se aplicó y lo que se perdió fue la respuesta, el reintento devuelve el
+     * resultado guardado en lugar de ejecutar la jugada otra vez.
+     * <p>
+     * El turno lo valida el servidor con la sesión (rechazo NO_ES_TU_TURNO), así que ya no
+     * hace falta preguntar antes "¿es mi turno?" con otra llamada remota.
+     */
+    private ResultadoComando enviarComando(Comando comando) throws RemoteException {
+        long secuencia = ++secuenciaComandos;
+        RemoteException ultimoError = null;
+        for (int intento = 0; intento < MAX_INTENTOS; intento++) {
+            try {
+                return comando.enviar(secuencia);
+            } catch (RemoteException e) {
+                ultimoError = e;
+                try {
+                    Thread.sleep(ESPERA_ENTRE_INTENTOS_MS * (intento + 1));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        throw ultimoError;
+    }
+
     // ============ API usada por las Vistas (Interacción Usuario -> Servidor) ============
 
     /**
      * Intenta jugar una carta seleccionada por el índice en la mano.
      */
     public void jugarCarta(int indiceCarta) {
-        // 1. Barrera de Seguridad: ¿Es mi turno?
-        if (!esMiTurno()) {
-            notificarMensaje("Error", "No es tu turno. Esperá a que te toque.");
-            return;
+        try {
+            // 1. Llamada al Servidor (valida turno y reglas)
+            ResultadoComando r = enviarComando(seq -> partida.jugarCarta(tokenSesion, seq, indiceCarta));
+            // 2. Manejo de Rechazos del Negocio (ej: No es tu turno, Color incorrecto)
+            if (!r.isOk()) {
+                notificarMensaje("Jugada inválida", r.getMensaje());
+            }
+        } catch (RemoteException e) {
+            notificarMensaje("Error", "Sin conexión con el servidor.");
         }
+    }
 
+    /**
+     * Tira un comodín (+4 o Cambio Color) con el color ya elegido, en una sola llamada al servidor.
+     */
+    public void jugarComodin(int indiceCarta, Color nuevoColor) {
         try {
-            // 2. Llamada al Servidor
-            partida.jugarCarta(indiceCarta);
-        } catch (Exception e) {
-            // 3. Manejo de Errores del Negocio (ej: Color incorrecto, Carta inválida)
-            // Convertimos la excepción técnica en un mensaje amigable para el usuario.
-            notificarMensaje("Jugada inválida", e.getMessage());
+            ResultadoComando r = enviarComando(seq -> partida.jugarComodin(tokenSesion, seq, indiceCarta, nuevoColor));
+            if (!r.isOk()) {
+                notificarMensaje("Jugada inválida", r.getMensaje());
+            }
+        } catch (RemoteException e) {
+            notificarMensaje("Error", "Sin conexión con el servidor.");
         }
     }
 
@@ -231,15 +372,13 @@ public class ControladorUNO implements IControladorRemoto {
      * Intenta robar una carta del mazo.
      */
     public void robarCarta() {
-        if (!esMiTurno()) {
-            notificarMensaje("Error", "No podés robar si no es tu turno.");
-            return;
-        }
-
         try {
-            partida.robarCartaDelMazo();
-        } catch (Exception e) {
-            notificarMensaje("Aviso", e.getMessage()); // Ej: "Ya robaste en este turno"
+            ResultadoComando r = enviarComando(seq -> partida.robarCartaDelMazo(tokenSesion, seq));
+            if (!r.isOk()) {
+                notificarMensaje("Aviso", r.getMensaje()); // Ej: "Ya robaste en este turno"
+            }
+        } catch (RemoteException e) {
+            notificarMensaje("Error", "Sin conexión con el servidor.");
         }
     }
 
@@ -247,14 +386,12 @@ public class ControladorUNO implements IControladorRemoto {
      * Envía la elección de color tras jugar un comodín (+4 o Cambio Color).
      */
     public void manejarCambioDeColor(Color nuevoColor) {
-        if (!esMiTurno()) return;
-
         try {
-            if (nuevoColor == Color.SIN_COLOR) {
-                throw new IllegalArgumentException("El color no puede ser SIN_COLOR.");
+            ResultadoComando r = enviarComando(seq -> partida.cambiarColorActual(tokenSesion, seq, nuevoColor));
+            if (!r.isOk()) {
+                notificarMensaje("Aviso", r.getMensaje());
             }
-            partida.cambiarColorActual(nuevoColor);
-        } catch (Exception e) {
+        } catch (RemoteException e) {
             e.printStackTrace();
         }
     }
@@ -263,29 +400,100 @@ public class ControladorUNO implements IControladorRemoto {
      * Pasa el turno al siguiente jugador (solo permitido si ya se robó/jugó).
      */
     public void pasarTurno() {
-        if (!esMiTurno()) {
-            notificarMensaje("Error", "No es tu turno.");
-            return;
-        }
-
         try {
-            partida.pasarTurno();
-        } catch (Exception e) {
-            notificarMensaje("Aviso", e.getMessage()); // Ej: "Debés robar antes de pasar"
+            ResultadoComando r = enviarComando(seq -> partida.pasarTurno(tokenSesion, seq));
+            if (!r.isOk()) {
+                notificarMensaje("Aviso", r.getMensaje()); // Ej: "Debés robar antes de pasar"
+            }
+        } catch (RemoteException e) {
+            notificarMensaje("Error", "Sin conexión con el servidor.");
         }
     }
 
     /**
      * Registra al jugador en el servidor para entrar a la sala de espera.
+     *
+     * @return El resultado del servidor: si fue rechazado (sala llena, partida en curso), la vista
+     * muestra {@link ResultadoRegistro#getMensaje()} y se queda en el ingreso.
      */
-    public void registrarJugador(String nombreJugador) {
+    public ResultadoRegistro registrarJugador(String nombreJugador) {
         try {
-            partida.registrarJugador(nombreJugador);
+            ResultadoRegistro r = partida.registrarJugador(nombreJugador);
+            if (r.isOk()) {
+                tokenSesion = r.getToken();
+            }
+            return r;
         } catch (RemoteException e) {
             throw new RuntimeException("Error de conexión al registrar jugador", e);
         }
     }
 
+    /**
+     * Recupera el asiento tras un corte de red, en un solo viaje al servidor.
+     * Procesa solo los eventos perdidos o, si quedamos muy atrás, redibuja desde la foto de la mesa.
+     *
+     * @return true si el servidor aceptó la sesión.
+     */
+    public boolean reconectar() {
+        if (tokenSesion == null) return false;
+        try {
+            // En modo polling no re-registramos el callback: los eventos llegan por obtenerEventos()
+            return aplicarReconexion(partida.reconectar(tokenSesion, ultimaSecuencia, modoPolling ? null : this));
+        } catch (RemoteException e) {
+            return false;
+        }
+    }
+
+    private boolean aplicarReconexion(ResultadoReconexion r) {
+        if (!r.isAceptada()) {
+            tokenSesion = null;
+            return false;
+        }
+        nombreLocal = r.getNombreJugador();
+
+        EstadoMesa foto = r.getFoto();
+        if (foto != null) {
+            // Las vistas se redibujan con lo que vino en la foto, sin volver a preguntar
+            ultimaSecuencia = foto.getSecuencia();
+            digestoServidor = foto.getDigesto();
+            mesaLocal = foto;
+            notificarVistas();
+        } else {
+            for (Evento e : r.getEventosPerdidos()) {
+                procesarEvento(e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compara la huella de la foto local ({@link DigestoMesa#calcular(EstadoMesa)}) con la del
+     * último evento. Si difieren, la foto quedó vieja y se descarta: la próxima vista que se
+     * redibuje pide una nueva (un solo viaje). Si coinciden, se sigue usando sin ir al servidor.
+     */
+    private void resincronizarSiDifiere() {
+        EstadoMesa mesa = mesaLocal;
+        if (mesa != null && DigestoMesa.calcular(mesa) != digestoServidor) {
+            mesaLocal = null;
+        }
+    }
+
+    /**
+     * La foto vigente de la mesa, pidiéndola al servidor si no hay (null si todavía no estamos sentados).
+     */
+    private EstadoMesa mesa() {
+        EstadoMesa mesa = mesaLocal;
+        if (mesa == null && nombreLocal != null) {
+            try {
+                mesa = partida.obtenerEstadoMesa(nombreLocal);
+            } catch (RemoteException e) {
+                throw new RuntimeException(e);
+            }
+            mesaLocal = mesa;
+        }
+        return mesa;
+    }
+
     public void setNombreLocal(String nombre) {
         this.nombreLocal = nombre;
     }
@@ -299,7 +507,11 @@ public class ControladorUNO implements IControladorRemoto {
      */
     public void solicitarInicioPartida() {
         try {
-            partida.iniciarJuego();
+            ResultadoComando r = enviarComando(seq -> partida.iniciarJuego(tokenSesion, seq));
+            // Si ya está en curso es un doble click (o lo inició otro): no es un error
+            if (!r.isOk() && r.getMotivo() != MotivoRechazo.PARTIDA_EN_CURSO) {
+                notificarMensaje("Aviso", r.getMensaje());
+            }
         } catch (RemoteException e) {
             e.printStackTrace();
         }
@@ -311,15 +523,18 @@ public class ControladorUNO implements IControladorRemoto {
 
     public void solicitarReiniciarPartida() {
         try {
-            partida.reiniciarPartida();
-        } catch (Exception e) {
-            // CORRECCIÓN: Si el error es porque ya arrancó, lo ignoramos (es éxito para nosotros)
-            if (e.getMessage() != null && e.getMessage().contains("curso")) {
+            ResultadoComando r = enviarComando(seq -> partida.reiniciarPartida(tokenSesion, seq));
+            if (r.isOk()) return;
+
+            // CORRECCIÓN: Si el rechazo es porque ya arrancó, lo ignoramos (es éxito para nosotros)
+            if (r.getMotivo() == MotivoRechazo.PARTIDA_EN_CURSO) {
                 // No hacemos nada, esperamos el evento INICIO_PARTIDA que debe estar por llegar
                 System.out.println("La partida ya fue reiniciada por otro jugador.");
             } else {
-                notificarMensaje("Error", "No se pudo reiniciar: " + e.getMessage());
+                notificarMensaje("Error", "No se pudo reiniciar: " + r.getMensaje());
             }
+        } catch (RemoteException e) {
+            notificarMensaje("Error", "No se pudo reiniciar: " + e.getMessage());
         }
     }
 
@@ -340,9 +555,15 @@ public class ControladorUNO implements IControladorRemoto {
 
     // ============ Getters (Consultas al Servidor) ============
     // Estos métodos son invocados por la Vista para redibujarse.
-    // Cada uno realiza una llamada a través de la red (RMI).
+    // Contestan desde la foto de la mesa (ver mesa()): un redibujo cuesta a lo sumo un viaje,
+    // y ninguno si la huella no cambió. Sin foto, cada uno hace su llamada por la red (RMI).
 
     public Jugador obtenerJugadorActual() {
+        EstadoMesa mesa = mesa();
+        // Sin partida en curso la foto no tiene turno: ese caso lo contesta el servidor
+        if (mesa != null && mesa.getJugadorActual() != null) {
+            return new Jugador(mesa.getJugadorActual());
+        }
         try {
             return partida.getJugadorActual();
         } catch (RemoteException e) {
@@ -351,6 +572,10 @@ public class ControladorUNO implements IControladorRemoto {
     }
 
     public Carta obtenerUltimaCartaJugadas() {
+        EstadoMesa mesa = mesa();
+        if (mesa != null) {
+            return mesa.getUltimaCarta();
+        }
         try {
             return partida.getUltimaCartaJugadas();
         } catch (RemoteException e) {
@@ -359,6 +584,10 @@ public class ControladorUNO implements IControladorRemoto {
     }
 
     public Color obtenerColorActual() {
+        EstadoMesa mesa = mesa();
+        if (mesa != null) {
+            return mesa.getColorActual();
+        }
         try {
             return partida.getColorActual();
         } catch (RemoteException e) {
@@ -367,6 +596,10 @@ public class ControladorUNO implements IControladorRemoto {
     }
 
     public boolean isEstadoEsperandoColor() {
+        EstadoMesa mesa = mesa();
+        if (mesa != null) {
+            return mesa.isEsperandoColor();
+        }
         try {
             return partida.isEstadoEsperandoColor();
         } catch (RemoteException e) {
@@ -375,6 +608,10 @@ public class ControladorUNO implements IControladorRemoto {
     }
 
     public boolean isPartidaEnCurso() {
+        EstadoMesa mesa = mesa();
+        if (mesa != null) {
+            return mesa.isPartidaEnCurso();
+        }
         try {
             return partida.isPartidaEnCurso();
         } catch (RemoteException e) {
@@ -391,6 +628,16 @@ public class ControladorUNO implements IControladorRemoto {
     }
 
     public Jugador getJugadorLocal() {
+        EstadoMesa mesa = mesa();
+        if (mesa != null) {
+            // La foto trae nuestra mano: armamos el Jugador sin pedir la lista entera
+            if (!mesa.getNombresJugadores().contains(nombreLocal)) return null;
+            Jugador local = new Jugador(nombreLocal);
+            for (Carta c : mesa.getManoPropia()) {
+                local.tomarCarta(c);
+            }
+            return local;
+        }
         try {
             // Buscamos nuestro objeto Jugador en la lista del servidor usando el nombre local
             for (Jugador j : partida.getJugadores()) {
@@ -403,6 +650,22 @@ public class ControladorUNO implements IControladorRemoto {
             throw new RuntimeException(e);
         }
     }
+    /**
+     * Mi mano junto con las cartas que el servidor considera jugables en este momento.
+     * Permite que la vista deshabilite las cartas ilegales sin probar con el servidor.
+     */
+    public ManoJugador getManoLocal() {
+        EstadoMesa mesa = mesa();
+        if (mesa != null) {
+            return mesa.getManoConJugables();
+        }
+        try {
+            return partida.obtenerMano(nombreLocal);
+        } catch (RemoteException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     //Metodo para obtener el Top 5 gaandores
     public List<String> getRankingTop5() {
         try {
@@ -412,6 +675,42 @@ public class ControladorUNO implements IControladorRemoto {
         }
     }
 
+    // Un tramo de la tabla completa (para recorrerla de a páginas)
+    public List<String> getRankingPagina(int desde, int cantidad) {
+        try {
+            return partida.obtenerRankingPagina(desde, cantidad);
+        } catch (RemoteException e) {
+            return List.of("Error al obtener ranking");
+        }
+    }
+
+    /**
+     * Top 5 que vino con el fin de la última partida (ya incluye al ganador): no va al servidor.
+     * Si todavía no terminó ninguna partida, lo pide.
+     */
+    public List<String> getRankingFinPartida() {
+        List<String> top = topFinPartida;
+        return top != null ? top : getRankingTop5();
+    }
+
+    // Top 5 de hoy, de esta semana o histórico
+    public List<String> getRankingTop5(VentanaRanking ventana) {
+        try {
+            return partida.obtenerRankingVentana(ventana);
+        } catch (RemoteException e) {
+            return List.of("Error al obtener ranking");
+        }
+    }
+
+    // Puesto de este jugador en el ranking (0 si nunca ganó o si falla la consulta)
+    public int getMiPosicionRanking() {
+        try {
+            return nombreLocal == null ? 0 : partida.obtenerPosicionRanking(nombreLocal);
+        } catch (RemoteException e) {
+            return 0;
+        }
+    }
+
     /**
      * Obtiene solo los nombres de los jugadores conectados.
      * Ideal para la Sala de Espera (evita acoplar la Vista con el Modelo).
@@ -0,0 +1,228 @@
+package EnProceso;
+
+import Modelo.*;
+import ar.edu.unlu.rmimvc.cliente.IControladorRemoto;
+import ar.edu.unlu.rmimvc.observer.IObservadorRemoto;
+
+import java.io.*;
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Transporte "en el mismo proceso": implementa {@link IPartidaRemota} llamando directamente
+ * a una {@link Partida} de la misma JVM, sin registry, stubs, sockets ni serialización.
+ * <p>
+ * Pensado para bots, simulaciones y pruebas: el {@code ControladorUNO} se usa tal cual,
+ * pero cada jugada cuesta una llamada a método en lugar de un viaje por RMI.
+ * <p>
+ * Con {@code copiarAlEnviar = true} cada argumento, resultado y evento se copia (serializando
+ * y deserializando), así ni el cliente ni el servidor comparten objetos mutables: se comporta
+ * igual que por la red, pero sigue sin sockets. Sin copia se entregan las mismas instancias.
+ */
+public class PartidaEnProceso implements IPartidaRemota {
+
+    private final Partida partida;
+    private final boolean copiarAlEnviar;
+
+    // Observador del cliente → envoltorio que se registró en la Partida (solo en modo copia)
+    private final Map<IObservadorRemoto, IObservadorRemoto> envoltorios = new ConcurrentHashMap<>();
+
+    public PartidaEnProceso(Partida partida, boolean copiarAlEnviar) {
+        this.partida = partida;
+        this.copiarAlEnviar = copiarAlEnviar;
+    }
+
+    /**
+     * Equivalente en proceso de {@code Cliente.iniciar(controlador)}: le inyecta el modelo
+     * al controlador y lo suscribe a los eventos de la Partida.
+     */
+    public static PartidaEnProceso iniciar(Partida partida, boolean copiarAlEnviar,
+                                           IControladorRemoto controlador) throws RemoteException {
+        PartidaEnProceso enProceso = new PartidaEnProceso(partida, copiarAlEnviar);
+        controlador.setModeloRemoto(enProceso);
+        enProceso.agregarObservador(controlador);
+        return enProceso;
+    }
+
+    // ============ Copia (aislamiento opcional) ============
+
+    /**
+     * Copia profunda por serialización, la misma que haría RMI al mandar el objeto.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T enviar(T objeto) {
+        if (!copiarAlEnviar || objeto == null || objeto instanceof String
+                || objeto instanceof Enum<?> || objeto instanceof Number || objeto instanceof Boolean) {
+            return objeto; // Inmutables: copiarlos no aísla nada
+        }
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+            try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+                out.writeObject(objeto);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+                return (T) in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("No se pudo copiar " + objeto.getClass().getSimpleName(), e);
+        }
+    }
+
+    private IObservadorRemoto envolver(IObservadorRemoto observador) {
+        if (!copiarAlEnviar || observador == null) {
+            return observador;
+        }
+        // El observable que ve el cliente es este transporte, no la Partida real
+        return envoltorios.computeIfAbsent(observador,
+                o -> (observable, evento) -> o.actualizar(this, enviar(evento)));
+    }
+
+    // ============ IObservableRemoto ============
+
+    @Override
+    public void agregarObservador(IObservadorRemoto observador) throws RemoteException {
+        partida.agregarObservador(envolver(observador));
+    }
+
+    @Override
+    public void removerObservador(IObservadorRemoto observador) throws RemoteException {
+        IObservadorRemoto registrado = copiarAlEnviar ? envoltorios.remove(observador) : observador;
+        if (registrado != null) {
+            partida.removerObservador(registrado);
+        }
+    }
+
+    @Override
+    public void notificarObservadores(Object arg) throws RemoteException {
+        partida.notificarObservadores(enviar(arg));
+    }
+
+    @Override
+    public void notificarObservadores() throws RemoteException {
+        partida.notificarObservadores();
+    }
+
+    // ============ IPartidaRemota ============
+
+    @Override
+    public ResultadoComando iniciarPartida(List<String> nombresJugadores) throws RemoteException {
+        return enviar(partida.iniciarPartida(enviar(nombresJugadores)));
+    }
+
+    @Override
+    public ResultadoComando jugarCarta(String token, long secuencia, int indiceCarta) throws RemoteException {
+        return enviar(partida.jugarCarta(token, secuencia, indiceCarta));
+    }
+
+    @Override
+    public ResultadoComando robarCartaDelMazo(String token, long secuencia) throws RemoteException {
+        return enviar(partida.robarCartaDelMazo(token, secuencia));
+    }
+
+    @Override
+    public ResultadoComando cambiarColorActual(String token, long secuencia, Color nuevoColor) throws RemoteException {
+        return enviar(partida.cambiarColorActual(token, secuencia, nuevoColor));
+    }
+
+    @Override
+    public ResultadoComando jugarComodin(String token, long secuencia, int indiceCarta, Color nuevoColor) throws RemoteException {
+        return enviar(partida.jugarComodin(token, secuencia, indiceCarta, nuevoColor));
+    }
+
+    @Override
+    public Jugador getJugadorActual() throws RemoteException {
+        return enviar(partida.getJugadorActual());
+    }
+
+    @Override
+    public Carta getUltimaCartaJugadas() throws RemoteException {
+        return enviar(partida.getUltimaCartaJugadas());
+    }
+
+    @Override
+    public Color getColorActual() throws RemoteException {
+        return partida.getColorActual();
+    }
+
+    @Override
+    public boolean isPartidaEnCurso() throws RemoteException {
+        return partida.isPartidaEnCurso();
+    }
+
+    @Override
+    public List<Jugador> getJugadores() throws RemoteException {
+        return enviar(partida.getJugadores());
+    }
+
+    @Override
+    public ManoJugador obtenerMano(String nombreJugador) throws RemoteException {
+        return enviar(partida.obtenerMano(nombreJugador));
+    }
+
+    @Override
+    public boolean isEstadoEsperandoColor() throws RemoteException {
+        return partida.isEstadoEsperandoColor();
+    }
+
+    @Override
+    public ResultadoRegistro registrarJugador(String nombre) throws RemoteException {
+        return enviar(partida.registrarJugador(nombre));
+    }
+
+    @Override
+    public ResultadoComando iniciarJuego(String token, long secuencia) throws RemoteException {
+        return enviar(partida.iniciarJuego(token, secuencia));
+    }
+
+    @Override
+    public ResultadoComando pasarTurno(String token, long secuencia) throws RemoteException {
+        return enviar(partida.pasarTurno(token, secuencia));
+    }
+
+    @Override
+    public ResultadoComando reiniciarPartida(String token, long secuencia) throws RemoteException {
+        return enviar(partida.reiniciarPartida(token, secuencia));
+    }
+
+    @Override
+    public void desconectar(String nombreJugador) throws RemoteException {
+        partida.desconectar(nombreJugador);
+    }
+
+    @Override
+    public List<String> obtenerRanking() throws RemoteException {
+        return enviar(partida.obtenerRanking());
+    }
+
+    @Override
+    public List<String> obtenerRankingPagina(int desde, int cantidad) throws RemoteException {
+        return enviar(partida.obtenerRankingPagina(desde, cantidad));
+    }
+
+    @Override
+    public int obtenerPosicionRanking(String nombreJugador) throws RemoteException {
+        return partida.obtenerPosicionRanking(nombreJugador);
+    }
+
+    @Override
+    public List<String> obtenerRankingVentana(VentanaRanking ventana) throws RemoteException {
+        return enviar(partida.obtenerRankingVentana(ventana));
+    }
+
+    @Override
+    public LoteEventos obtenerEventos(long desdeSecuencia, long timeoutMs) throws RemoteException {
+        return enviar(partida.obtenerEventos(desdeSecuencia, timeoutMs));
+    }
+
+    @Override
+    public ResultadoReconexion reconectar(String token, long ultimaSecuencia, IObservadorRemoto observador) throws RemoteException {
+        return enviar(partida.reconectar(token, ultimaSecuencia, envolver(observador)));
+    }
+
+    @Override
+    public EstadoMesa obtenerEstadoMesa(String nombreJugador) throws RemoteException {
+        return enviar(partida.obtenerEstadoMesa(nombreJugador));
+    }
+}
@@ -0,0 +1,76 @@
+package Modelo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffer circular acotado con los últimos eventos de una mesa.
+ * <p>
+ * Cada evento recibe un número de secuencia creciente (empezando en 1).
+ * Los clientes que no pueden (o no quieren) exportar un endpoint RMI para recibir
+ * callbacks piden "todo lo posterior a la secuencia N" y, si no hay nada nuevo,
+ * la llamada espera hasta que llegue algo o venza el timeout (long-poll).
+ * <p>
+ * Tiene su propio monitor: la espera NO toma el lock de {@link Partida},
+ * así un cliente esperando eventos no bloquea las jugadas del resto.
+ */
+class BufferEventos {
+
+    static final int CAPACIDAD_POR_DEFECTO = 256;
+
+    private final Evento[] eventos;
+    private long ultimaSecuencia = 0; // Secuencia del último evento agregado
+
+    BufferEventos() {
+        this(CAPACIDAD_POR_DEFECTO);
+    }
+
+    BufferEventos(int capacidad) {
+        this.eventos = new Evento[capacidad];
+    }
+
+    /**
+     * Secuencia el evento, lo guarda pisando el más viejo si el buffer está lleno
+     * y despierta a los clientes que estaban esperando.
+     *
+     * @param digesto Huella de la mesa después del evento (viaja con él).
+     * @return El evento con su número de secuencia asignado.
+     */
+    synchronized Evento agregar(Evento evento, long digesto) {
+        long secuencia = ++ultimaSecuencia;
+        Evento secuenciado = new Evento(evento.getTipo(), evento.getDatos(), secuencia, digesto);
+        eventos[(int) (secuencia % eventos.length)] = secuenciado;
+        notifyAll();
+        return secuenciado;
+    }
+
+    /**
+     * Devuelve los eventos con secuencia mayor a {@code desde}.
+     * Si no hay ninguno, espera hasta {@code timeoutMs} milisegundos a que llegue alguno.
+     */
+    synchronized LoteEventos obtenerDesde(long desde, long timeoutMs) throws InterruptedException {
+        long limite = System.currentTimeMillis() + Math.max(0, timeoutMs);
+        while (ultimaSecuencia <= desde) {
+            long restante = limite - System.currentTimeMillis();
+            if (restante <= 0) {
+                return new LoteEventos(List.of(), ultimaSecuencia, false);
+            }
+            wait(restante);
+        }
+
+        // El más viejo que todavía está en el buffer
+        long primeraDisponible = Math.max(1, ultimaSecuencia - eventos.length + 1);
+        boolean huboPerdida = desde + 1 < primeraDisponible;
+        long inicio = Math.max(desde + 1, primeraDisponible);
+
+        List<Evento> resultado = new ArrayList<>((int) (ultimaSecuencia - inicio + 1));
+        for (long s = inicio; s <= ultimaSecuencia; s++) {
+            resultado.add(eventos[(int) (s % eventos.length)]);
+        }
+        return new LoteEventos(resultado, ultimaSecuencia, huboPerdida);
+    }
+
+    synchronized long getUltimaSecuencia() {
+        return ultimaSecuencia;
+    }
+}
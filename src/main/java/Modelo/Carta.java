@@ -1,39 +1,120 @@
 package Modelo;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
-import java.util.Objects;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
-public class Carta implements Serializable {
+/**
+ * Una cara de carta del UNO (ej: "ROJO SIETE").
+ * <p>
+ * Es inmutable y hay UNA sola instancia por cara: las 54 caras distintas se crean al cargar
+ * la clase y todos los mazos y partidas comparten esas mismas instancias (patrón flyweight).
+ * Por eso se obtienen con {@link #de(Color, Numero)} en lugar de un constructor,
+ * se comparan por identidad y no hace falta sincronizar nada.
+ * <p>
+ * Al deserializar (RMI, ranking, etc.) {@link #readResolve()} devuelve la instancia canónica,
+ * así una carta que llega por la red también es == a la local.
+ */
+public final class Carta implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    // 4 colores x 13 valores (0-9, +2, saltar, reversa) + 2 comodines
+    public static final int CANTIDAD_CARAS = 54;
+
+    private static final int VALORES_CON_COLOR = Numero.CAMBIOSENTIDO.ordinal() + 1;
+    private static final int VALORES_POR_COLOR = Numero.values().length;
+
+    // Por ordinal de cara (0..53) y por (color, valor) para buscar sin calcular
+    private static final Carta[] CARAS = new Carta[CANTIDAD_CARAS];
+    private static final Carta[] POR_COLOR_Y_VALOR = new Carta[Color.values().length * VALORES_POR_COLOR];
+
+    static {
+        int ordinal = 0;
+        for (Color color : Color.values()) {
+            if (color == Color.SIN_COLOR) continue;
+            for (int v = 0; v < VALORES_CON_COLOR; v++) {
+                registrar(new Carta(color, Numero.getNumero(v), ordinal++));
+            }
+        }
+        registrar(new Carta(Color.SIN_COLOR, Numero.CAMBIOCOLOR, ordinal++));
+        registrar(new Carta(Color.SIN_COLOR, Numero.MASCUATRO, ordinal));
+    }
+
+    private static void registrar(Carta carta) {
+        CARAS[carta.ordinal] = carta;
+        POR_COLOR_Y_VALOR[carta.color.ordinal() * VALORES_POR_COLOR + carta.valor.ordinal()] = carta;
+    }
+
     private final Color color;
     private final Numero valor;
 
-    public Carta(Color color, Numero valor) {
+    // Precalculados: son la clave de las tablas indexadas por cara (histogramas, conteos, etc.)
+    private final transient int ordinal;
+    private final transient int hash;
+    private final transient String texto;
+
+    private Carta(Color color, Numero valor, int ordinal) {
         this.color = color;
         this.valor = valor;
+        this.ordinal = ordinal;
+        this.hash = ordinal * 0x9E3779B1; // Dispersa bien los 54 valores
+        this.texto = color + " " + valor;
     }
 
-    public synchronized Color getColor() { return color; }
-    public synchronized Numero getValor() { return valor; }
-    @Override
-    public synchronized String toString() {
-        return color + " " + valor;
+    /**
+     * Devuelve la instancia canónica de esa cara.
+     *
+     * @throws IllegalArgumentException si la combinación no existe en el mazo (ej: ROJO MASCUATRO).
+     */
+    public static Carta de(Color color, Numero valor) {
+        Carta carta = POR_COLOR_Y_VALOR[color.ordinal() * VALORES_POR_COLOR + valor.ordinal()];
+        if (carta == null) {
+            throw new IllegalArgumentException("No existe la carta " + color + " " + valor);
+        }
+        return carta;
     }
 
+    public static Carta porOrdinal(int ordinal) {
+        return CARAS[ordinal];
+    }
 
+    /**
+     * Las 54 caras en orden de ordinal.
+     */
+    public static List<Carta> caras() {
+        return Collections.unmodifiableList(Arrays.asList(CARAS));
+    }
+
+    public Color getColor() { return color; }
+    public Numero getValor() { return valor; }
+
+    /**
+     * Número de cara entre 0 y {@link #CANTIDAD_CARAS} - 1, estable entre partidas.
+     */
+    public int getOrdinal() { return ordinal; }
+
+    @Override
+    public String toString() {
+        return texto;
+    }
+
+    // Hay una sola instancia por cara: igualdad = identidad
     @Override
     public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Carta carta = (Carta) o;
-        return color == carta.color && valor == carta.valor;
+        return this == o;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(color, valor);
+        return hash;
     }
-}
-
 
+    /**
+     * Reemplaza la copia recién deserializada por la instancia canónica.
+     */
+    private Object readResolve() throws ObjectStreamException {
+        return de(color, valor);
+    }
+}
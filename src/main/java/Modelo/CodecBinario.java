@@ -0,0 +1,357 @@
+package Modelo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Codificación binaria compacta de los objetos que viajan por la red.
+ * <p>
+ * - Una carta ocupa un solo byte (su ordinal de cara, ver {@link Carta#getOrdinal()}).
+ * - Una mano es un largo (short) seguido de un byte por carta.
+ * - Los datos de un Evento llevan un byte de etiqueta con el tipo y luego el valor
+ *   (el fin de partida: ganador + top del ranking como textos).
+ * - La foto de la mesa ({@link EstadoMesa}) y la reconexión tienen su propio formato, sin
+ *   pasar por la serialización de Java (son las respuestas más grandes del transporte NIO).
+ * <p>
+ * Lo usan los writeExternal/readExternal de {@link Evento}, {@link Jugador} y
+ * {@link ManoJugador}, y los transportes que arman sus propios mensajes (NIO).
+ * Trabaja sobre DataOutput/DataInput, así sirve tanto dentro de la serialización
+ * de Java como sobre un buffer propio.
+ */
+public final class CodecBinario {
+
+    private static final Color[] COLORES = Color.values();
+
+    // Etiquetas para el Object de Evento.getDatos()
+    private static final byte DATO_NULO = 0;
+    private static final byte DATO_TEXTO = 1;
+    private static final byte DATO_CARTA = 2;
+    private static final byte DATO_COLOR = 3;
+    private static final byte DATO_OBJETO = 4; // Cualquier otra cosa: serialización estándar
+    private static final byte DATO_RESULTADO = 5;
+
+    private CodecBinario() {
+    }
+
+    // ============ Cartas y manos ============
+
+    public static byte codificarCarta(Carta carta) {
+        return (byte) carta.getOrdinal();
+    }
+
+    public static Carta decodificarCarta(byte codigo) {
+        return Carta.porOrdinal(codigo); // Instancia canónica: no se crea nada
+    }
+
+    public static void escribirCartas(DataOutput out, List<Carta> cartas) throws IOException {
+        byte[] codigos = new byte[cartas.size()];
+        for (int i = 0; i < codigos.length; i++) {
+            codigos[i] = codificarCarta(cartas.get(i));
+        }
+        out.writeShort(codigos.length);
+        out.write(codigos);
+    }
+
+    public static List<Carta> leerCartas(DataInput in) throws IOException {
+        byte[] codigos = new byte[in.readUnsignedShort()];
+        in.readFully(codigos);
+        List<Carta> cartas = new ArrayList<>(codigos.length);
+        for (byte codigo : codigos) {
+            cartas.add(decodificarCarta(codigo));
+        }
+        return cartas;
+    }
+
+    // Carta que puede faltar (ej: descarte vacío). -1 = null.
+    public static void escribirCartaOpcional(DataOutput out, Carta carta) throws IOException {
+        out.writeByte(carta == null ? -1 : codificarCarta(carta));
+    }
+
+    public static Carta leerCartaOpcional(DataInput in) throws IOException {
+        byte codigo = in.readByte();
+        return codigo < 0 ? null : decodificarCarta(codigo);
+    }
+
+    // ============ Textos ============
+
+    public static void escribirTextoOpcional(DataOutput out, String texto) throws IOException {
+        out.writeBoolean(texto != null);
+        if (texto != null) {
+            out.writeUTF(texto);
+        }
+    }
+
+    public static String leerTextoOpcional(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    public static void escribirTextos(DataOutput out, List<String> textos) throws IOException {
+        out.writeShort(textos.size());
+        for (String texto : textos) {
+            out.writeUTF(texto);
+        }
+    }
+
+    public static List<String> leerTextos(DataInput in) throws IOException {
+        int cantidad = in.readUnsignedShort();
+        List<String> textos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            textos.add(in.readUTF());
+        }
+        return textos;
+    }
+
+    // Color que puede faltar. -1 = null.
+    public static void escribirColorOpcional(DataOutput out, Color color) throws IOException {
+        out.writeByte(color == null ? -1 : color.ordinal());
+    }
+
+    public static Color leerColorOpcional(DataInput in) throws IOException {
+        byte ordinal = in.readByte();
+        return ordinal < 0 ? null : COLORES[ordinal];
+    }
+
+    // ============ Eventos ============
+
+    public static void escribirEvento(DataOutput out, Evento evento) throws IOException {
+        out.writeByte(evento.getTipo().ordinal());
+        out.writeLong(evento.getSecuencia());
+        out.writeLong(evento.getDigesto());
+        escribirDatos(out, evento.getDatos());
+    }
+
+    public static Evento leerEvento(DataInput in) throws IOException {
+        TipoEvento tipo = TipoEvento.getTipo(in.readUnsignedByte());
+        long secuencia = in.readLong();
+        long digesto = in.readLong();
+        return new Evento(tipo, leerDatos(in), secuencia, digesto);
+    }
+
+    public static void escribirLote(DataOutput out, LoteEventos lote) throws IOException {
+        out.writeLong(lote.getUltimaSecuencia());
+        out.writeBoolean(lote.isHuboPerdida());
+        out.writeShort(lote.getEventos().size());
+        for (Evento evento : lote.getEventos()) {
+            escribirEvento(out, evento);
+        }
+    }
+
+    public static LoteEventos leerLote(DataInput in) throws IOException {
+        long ultimaSecuencia = in.readLong();
+        boolean huboPerdida = in.readBoolean();
+        int cantidad = in.readUnsignedShort();
+        List<Evento> eventos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            eventos.add(leerEvento(in));
+        }
+        return new LoteEventos(eventos, ultimaSecuencia, huboPerdida);
+    }
+
+    public static void escribirDatos(DataOutput out, Object datos) throws IOException {
+        if (datos == null) {
+            out.writeByte(DATO_NULO);
+        } else if (datos instanceof String texto) {
+            out.writeByte(DATO_TEXTO);
+            out.writeUTF(texto);
+        } else if (datos instanceof Carta carta) {
+            out.writeByte(DATO_CARTA);
+            out.writeByte(codificarCarta(carta));
+        } else if (datos instanceof Color color) {
+            out.writeByte(DATO_COLOR);
+            out.writeByte(color.ordinal());
+        } else if (datos instanceof ResultadoPartida resultado) {
+            out.writeByte(DATO_RESULTADO);
+            out.writeUTF(resultado.getGanador());
+            escribirTextos(out, resultado.getTop());
+        } else {
+            out.writeByte(DATO_OBJETO);
+            escribirObjeto(out, datos);
+        }
+    }
+
+    public static Object leerDatos(DataInput in) throws IOException {
+        byte etiqueta = in.readByte();
+        return switch (etiqueta) {
+            case DATO_NULO -> null;
+            case DATO_TEXTO -> in.readUTF();
+            case DATO_CARTA -> decodificarCarta(in.readByte());
+            case DATO_COLOR -> COLORES[in.readByte()];
+            case DATO_RESULTADO -> new ResultadoPartida(in.readUTF(), leerTextos(in));
+            case DATO_OBJETO -> leerObjeto(in);
+            default -> throw new IOException("Etiqueta de datos desconocida: " + etiqueta);
+        };
+    }
+
+    // ============ Jugadores, manos y resultados ============
+
+    public static void escribirJugador(DataOutput out, Jugador jugador) throws IOException {
+        out.writeUTF(jugador.getNombre());
+        escribirCartas(out, jugador.getCartas());
+    }
+
+    public static Jugador leerJugador(DataInput in) throws IOException {
+        Jugador jugador = new Jugador(in.readUTF());
+        for (Carta carta : leerCartas(in)) {
+            jugador.tomarCarta(carta);
+        }
+        return jugador;
+    }
+
+    public static void escribirMano(DataOutput out, ManoJugador mano) throws IOException {
+        escribirCartas(out, mano.getCartas());
+        long[] palabras = mano.getJugables().toLongArray();
+        out.writeByte(palabras.length);
+        for (long palabra : palabras) {
+            out.writeLong(palabra);
+        }
+    }
+
+    public static ManoJugador leerMano(DataInput in) throws IOException {
+        List<Carta> cartas = leerCartas(in);
+        long[] palabras = new long[in.readUnsignedByte()];
+        for (int i = 0; i < palabras.length; i++) {
+            palabras[i] = in.readLong();
+        }
+        return new ManoJugador(cartas, BitSet.valueOf(palabras));
+    }
+
+    public static void escribirResultado(DataOutput out, ResultadoComando resultado) throws IOException {
+        out.writeByte(resultado.getCodigo());
+        out.writeLong(resultado.getVersion());
+    }
+
+    public static ResultadoComando leerResultado(DataInput in) throws IOException {
+        byte codigo = in.readByte();
+        return ResultadoComando.desdeCodigo(codigo, in.readLong());
+    }
+
+    public static void escribirRegistro(DataOutput out, ResultadoRegistro resultado) throws IOException {
+        out.writeByte(resultado.getCodigo());
+        escribirTextoOpcional(out, resultado.getToken());
+    }
+
+    public static ResultadoRegistro leerRegistro(DataInput in) throws IOException {
+        byte codigo = in.readByte();
+        return ResultadoRegistro.desdeCodigo(codigo, leerTextoOpcional(in));
+    }
+
+    // ============ Reconexión y fotos de la mesa ============
+
+    // Banderas de EstadoMesa, en un solo byte
+    private static final int MESA_EN_CURSO = 1;
+    private static final int MESA_ESPERANDO_COLOR = 2;
+    private static final int MESA_DIRECCION_NORMAL = 4;
+
+    /**
+     * Foto de la mesa (o un byte en cero si es null): banderas, color, tope, jugador actual,
+     * nombres con sus cantidades de cartas, la mano propia con su máscara, secuencia y digesto.
+     */
+    public static void escribirEstadoMesaOpcional(DataOutput out, EstadoMesa mesa) throws IOException {
+        out.writeBoolean(mesa != null);
+        if (mesa == null) return;
+        out.writeByte((mesa.isPartidaEnCurso() ? MESA_EN_CURSO : 0)
+                | (mesa.isEsperandoColor() ? MESA_ESPERANDO_COLOR : 0)
+                | (mesa.isDireccionNormal() ? MESA_DIRECCION_NORMAL : 0));
+        escribirColorOpcional(out, mesa.getColorActual());
+        escribirCartaOpcional(out, mesa.getUltimaCarta());
+        escribirTextoOpcional(out, mesa.getJugadorActual());
+        escribirTextos(out, mesa.getNombresJugadores());
+        int[] cantidades = mesa.getCantidadCartas();
+        out.writeShort(cantidades.length);
+        for (int cantidad : cantidades) {
+            out.writeShort(cantidad);
+        }
+        escribirMano(out, mesa.getManoConJugables());
+        out.writeLong(mesa.getSecuencia());
+        out.writeLong(mesa.getDigesto());
+    }
+
+    public static EstadoMesa leerEstadoMesaOpcional(DataInput in) throws IOException {
+        if (!in.readBoolean()) return null;
+        int banderas = in.readUnsignedByte();
+        Color color = leerColorOpcional(in);
+        Carta ultima = leerCartaOpcional(in);
+        String actual = leerTextoOpcional(in);
+        List<String> nombres = leerTextos(in);
+        int[] cantidades = new int[in.readUnsignedShort()];
+        for (int i = 0; i < cantidades.length; i++) {
+            cantidades[i] = in.readUnsignedShort();
+        }
+        ManoJugador mano = leerMano(in);
+        long secuencia = in.readLong();
+        long digesto = in.readLong();
+        return new EstadoMesa((banderas & MESA_EN_CURSO) != 0, (banderas & MESA_ESPERANDO_COLOR) != 0,
+                color, ultima, actual, nombres, cantidades, mano.getCartas(), mano.getJugables(), secuencia,
+                (banderas & MESA_DIRECCION_NORMAL) != 0, digesto);
+    }
+
+    /**
+     * Reconexión: si fue aceptada, el nombre, los eventos perdidos y la foto (opcional).
+     */
+    public static void escribirReconexion(DataOutput out, ResultadoReconexion resultado) throws IOException {
+        out.writeBoolean(resultado.isAceptada());
+        if (!resultado.isAceptada()) return;
+        out.writeUTF(resultado.getNombreJugador());
+        List<Evento> eventos = resultado.getEventosPerdidos();
+        out.writeShort(eventos.size());
+        for (Evento evento : eventos) {
+            escribirEvento(out, evento);
+        }
+        escribirEstadoMesaOpcional(out, resultado.getFoto());
+    }
+
+    public static ResultadoReconexion leerReconexion(DataInput in) throws IOException {
+        if (!in.readBoolean()) return ResultadoReconexion.rechazada();
+        String nombre = in.readUTF();
+        int cantidad = in.readUnsignedShort();
+        List<Evento> eventos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            eventos.add(leerEvento(in));
+        }
+        EstadoMesa foto = leerEstadoMesaOpcional(in);
+        return foto != null
+                ? ResultadoReconexion.conFoto(nombre, foto)
+                : ResultadoReconexion.conEventos(nombre, eventos);
+    }
+
+    // ============ Respaldo: serialización estándar ============
+    // Para objetos poco frecuentes (payloads raros) que no justifican un formato propio.
+
+    public static void escribirObjeto(DataOutput out, Object objeto) throws IOException {
+        if (out instanceof ObjectOutput objectOut) {
+            objectOut.writeObject(objeto);
+            return;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(buffer)) {
+            oos.writeObject(objeto);
+        }
+        out.writeInt(buffer.size());
+        out.write(buffer.toByteArray());
+    }
+
+    public static Object leerObjeto(DataInput in) throws IOException {
+        try {
+            if (in instanceof ObjectInput objectIn) {
+                return objectIn.readObject();
+            }
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                return ois.readObject();
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Clase desconocida en los datos recibidos", e);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package Modelo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Diario de partidas: cada comando aceptado en cada mesa, con los efectos que produjo, en un
+ * log binario compacto de solo agregado (event sourcing). Con el registro de inicio (semilla de
+ * la partida + jugadores) y los comandos que siguen, {@link MotorUNO} repite la partida entera.
+ * <p>
+ * Archivos: segmentos {@code diario/diario_uno.<n>.seg}. Cada arranque del servidor empieza un
+ * segmento nuevo y se pasa al siguiente cuando el actual supera {@code uno.diario.segmentoMB}
+ * o tiene más de {@code uno.diario.segmentoMin} minutos. Cabecera del segmento:
+ * {@code [int magia "UNOD"][int versión][long instante de apertura]}. Registro:
+ * {@code [int crc32][short largo total][byte tipo (Registro)][int mesa][long instante ms][datos]}.
+ * <ul>
+ *   <li>MESA: {@code [long semilla de la mesa]}. Las mesas se numeran desde 1 en cada arranque:
+ *       un MESA con un número ya visto es una mesa nueva.</li>
+ *   <li>INICIO: {@code [long semilla de la partida][byte n][n × UTF nombre][efectos]}. Los nombres
+ *       van completos ({@code [short largo][UTF-8]}, hasta {@value #MAX_NOMBRE} bytes).</li>
+ *   <li>JUGADOR / DESCONEXION: {@code [UTF nombre][byte terminó la partida]}.</li>
+ *   <li>Comandos (JUGAR_CARTA, JUGAR_COMODIN, CAMBIAR_COLOR, ROBAR, PASAR):
+ *       {@code [byte jugador][byte índice o -1][byte color o -1][efectos]}.</li>
+ *   <li>Efectos: {@code [byte n][n × (byte TipoEvento, byte dato)]}, el registro del motor tal cual.</li>
+ * </ul>
+ * Un registro cortado o con CRC inválido marca el final útil del segmento (se cayó escribiendo).
+ * <p>
+ * Sin latencia para los comandos: la mesa solo copia unos bytes en un buffer en memoria, bajo
+ * un monitor propio y corto. Un hilo escritor cambia ese buffer por otro vacío cada
+ * {@code uno.diario.intervaloMs}, completa los CRC y lo escribe entero con un solo fsync.
+ * Si el disco no da abasto el buffer crece hasta {@value #MAX_BUFFER} bytes y recién ahí
+ * las mesas esperan. Con {@code -Duno.diario=false} no se escribe nada.
+ */
+public final class DiarioPartidas {
+
+    // Tipo de registro (viaja como un byte, su ordinal)
+    public enum Registro {
+        MESA, INICIO, JUGADOR, DESCONEXION, JUGAR_CARTA, JUGAR_COMODIN, CAMBIAR_COLOR, ROBAR, PASAR
+    }
+
+    public static final String PROPIEDAD_ACTIVO = "uno.diario";
+    public static final String PROPIEDAD_DIRECTORIO = "uno.diario.directorio";
+    public static final String PROPIEDAD_INTERVALO = "uno.diario.intervaloMs";
+    public static final String PROPIEDAD_SEGMENTO_MB = "uno.diario.segmentoMB";
+    public static final String PROPIEDAD_SEGMENTO_MIN = "uno.diario.segmentoMin";
+
+    // Tope de un nombre en UTF-8: con el máximo de jugadores, un INICIO sigue entrando en el largo del registro
+    public static final int MAX_NOMBRE = 1024;
+
+    private static final int MAGIA = 0x554E4F44; // "UNOD"
+    private static final int VERSION = 1;
+    private static final int CABECERA_SEGMENTO = 16;
+    private static final int CABECERA_REGISTRO = 4 + 2 + 1 + 4 + 8;
+    private static final int BUFFER_INICIAL = 256 * 1024;
+    private static final int MAX_BUFFER = 64 * 1024 * 1024;
+    private static final Pattern ARCHIVO_SEGMENTO = Pattern.compile("diario_uno\\.(\\d+)\\.seg");
+
+    // Diarios abiertos con compartido(), por directorio (y cuántas mesas usan cada uno)
+    private static final Map<Path, DiarioPartidas> COMPARTIDOS = new HashMap<>();
+    private static final DiarioPartidas DESACTIVADO = new DiarioPartidas();
+    private int usuarios;
+
+    private final Path directorio;
+    private final long intervaloMs;
+    private final long tamanioSegmento;
+    private final long duracionSegmentoMs;
+
+    // Protegidos por el monitor de este objeto
+    private ByteBuffer activo;   // Donde anotan las mesas
+    private ByteBuffer reserva;  // El otro buffer (null mientras el escritor lo está bajando)
+    private int mesas;
+    private boolean cerrando;
+
+    // Solo los toca el escritor
+    private FileChannel segmento;
+    private long numeroSegmento;
+    private long aperturaSegmento;
+    private final CRC32 crc = new CRC32();
+    private final Thread escritor;
+
+    // Diario que no anota nada
+    private DiarioPartidas() {
+        directorio = null;
+        intervaloMs = 0;
+        tamanioSegmento = 0;
+        duracionSegmentoMs = 0;
+        escritor = null;
+    }
+
+    /**
+     * @param directorio        Dónde van los segmentos (se crea si no existe).
+     * @param intervaloMs       Cada cuánto el escritor baja lo anotado (una escritura + un fsync).
+     * @param tamanioSegmento   Bytes a partir de los cuales se pasa a un segmento nuevo.
+     * @param duracionSegmentoMs Antigüedad a partir de la cual se pasa a un segmento nuevo.
+     */
+    public DiarioPartidas(Path directorio, long intervaloMs, long tamanioSegmento, long duracionSegmentoMs) {
+        this.directorio = directorio.toAbsolutePath();
+        this.intervaloMs = Math.max(1, intervaloMs);
+        this.tamanioSegmento = tamanioSegmento;
+        this.duracionSegmentoMs = duracionSegmentoMs;
+        this.activo = ByteBuffer.allocate(BUFFER_INICIAL);
+        this.reserva = ByteBuffer.allocate(BUFFER_INICIAL);
+        try {
+            Files.createDirectories(this.directorio);
+            abrirSegmento();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el diario en " + this.directorio, e);
+        }
+        escritor = new Thread(this::escribirEnSegundoPlano, "uno-diario-escritor");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * El diario de este proceso, compartido por todas las mesas (configurado con las propiedades
+     * {@code uno.diario.*}). Cada mesa que lo pide tiene que llamar a {@link #cerrar()}.
+     */
+    public static DiarioPartidas compartido() {
+        if (!Boolean.parseBoolean(System.getProperty(PROPIEDAD_ACTIVO, "true"))) {
+            return DESACTIVADO;
+        }
+        Path directorio = Paths.get(System.getProperty(PROPIEDAD_DIRECTORIO, "diario")).toAbsolutePath();
+        synchronized (COMPARTIDOS) {
+            DiarioPartidas diario = COMPARTIDOS.computeIfAbsent(directorio, d -> new DiarioPartidas(d,
+                    Long.getLong(PROPIEDAD_INTERVALO, 10),
+                    Long.getLong(PROPIEDAD_SEGMENTO_MB, 64) * 1024 * 1024,
+                    Long.getLong(PROPIEDAD_SEGMENTO_MIN, 60) * 60_000));
+            diario.usuarios++;
+            return diario;
+        }
+    }
+
+    //-------------------------------------------------------------------------
+    // ANOTAR (desde las mesas, con su lock tomado)
+    //-------------------------------------------------------------------------
+
+    /**
+     * Da de alta una mesa y devuelve su número (para el resto de sus registros).
+     */
+    public synchronized int abrirMesa(long semillaMesa) {
+        if (escritor == null) return 0;
+        int mesa = ++mesas;
+        int inicio = empezar(Registro.MESA, mesa, 8);
+        if (inicio >= 0) {
+            activo.putLong(semillaMesa);
+            terminar(inicio);
+        }
+        return mesa;
+    }
+
+    /**
+     * Partida nueva: su semilla, los jugadores en orden de asiento y lo que produjo el reparto.
+     */
+    public synchronized void anotarInicio(int mesa, List<String> nombres, MotorUNO motor) {
+        if (escritor == null) return;
+        byte[][] bytes = new byte[nombres.size()][];
+        int largo = 8 + 1 + 1 + 2 * MotorUNO.MAX_EFECTOS;
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = nombreEnBytes(nombres.get(i));
+            largo += 2 + bytes[i].length;
+        }
+        int inicio = empezar(Registro.INICIO, mesa, largo);
+        if (inicio < 0) return;
+        activo.putLong(motor.getSemillaPartida());
+        activo.put((byte) bytes.length);
+        for (byte[] nombre : bytes) {
+            activo.putShort((short) nombre.length).put(nombre);
+        }
+        escribirEfectos(motor);
+        terminar(inicio);
+    }
+
+    /**
+     * Alguien entró a la sala (JUGADOR) o se fue (DESCONEXION, y si eso terminó la partida).
+     */
+    public synchronized void anotarJugador(int mesa, Registro tipo, String nombre, boolean terminoPartida) {
+        if (escritor == null) return;
+        byte[] bytes = nombreEnBytes(nombre);
+        int inicio = empezar(tipo, mesa, 2 + bytes.length + 1);
+        if (inicio < 0) return;
+        activo.putShort((short) bytes.length).put(bytes);
+        activo.put((byte) (terminoPartida ? 1 : 0));
+        terminar(inicio);
+    }
+
+    /**
+     * Comando aceptado por el motor, con el registro de efectos que dejó.
+     *
+     * @param indice Índice de carta en la mano, o -1 si el comando no lleva.
+     * @param color  Color elegido, o null si el comando no lleva.
+     */
+    public synchronized void anotarComando(int mesa, Registro tipo, int jugador, int indice, Color color,
+                                           MotorUNO motor) {
+        if (escritor == null) return;
+        int inicio = empezar(tipo, mesa, 3 + 1 + 2 * MotorUNO.MAX_EFECTOS);
+        if (inicio < 0) return;
+        activo.put((byte) jugador);
+        activo.put((byte) indice);
+        activo.put((byte) (color == null ? -1 : color.ordinal()));
+        escribirEfectos(motor);
+        terminar(inicio);
+    }
+
+    private void escribirEfectos(MotorUNO motor) {
+        int cantidad = motor.getCantidadEfectos();
+        activo.put((byte) cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            activo.put((byte) motor.getEfectoTipo(i).ordinal());
+            activo.put((byte) motor.getEfectoDato(i));
+        }
+    }
+
+    // Cabecera con el CRC y el largo en cero (el largo se completa al terminar, el CRC el escritor).
+    // Devuelve -1 si no hubo lugar (interrumpieron la espera): quien llama no anota este registro.
+    private int empezar(Registro tipo, int mesa, int maxDatos) {
+        if (!asegurarLugar(CABECERA_REGISTRO + maxDatos)) return -1;
+        int inicio = activo.position();
+        activo.putInt(0);
+        activo.putShort((short) 0);
+        activo.put((byte) tipo.ordinal());
+        activo.putInt(mesa);
+        activo.putLong(System.currentTimeMillis());
+        return inicio;
+    }
+
+    private void terminar(int inicio) {
+        activo.putShort(inicio + 4, (short) (activo.position() - inicio));
+        if (activo.position() >= activo.capacity() / 2) {
+            notifyAll(); // Medio buffer lleno: que el escritor no espere al intervalo
+        }
+    }
+
+    // Si no entra: agranda el buffer y, si ya está en el máximo, espera a que el escritor lo vacíe.
+    // False si interrumpieron la espera sin que se hiciera lugar.
+    private boolean asegurarLugar(int largo) {
+        while (activo.remaining() < largo) {
+            if (activo.capacity() < MAX_BUFFER) {
+                ByteBuffer mayor = ByteBuffer.allocate(activo.capacity() * 2);
+                activo.flip();
+                mayor.put(activo);
+                activo = mayor;
+            } else {
+                notifyAll();
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false; // La mesa sigue; se pierde solo este registro
+                }
+            }
+        }
+        return true;
+    }
+
+    // El nombre completo (el recorte a 51 bytes es del ranking, no de acá); la Partida ya rechazó los
+    // de más de MAX_NOMBRE, el chequeo es por si llega uno de otro lado: el registro no puede desbordar
+    private static byte[] nombreEnBytes(String nombre) {
+        byte[] bytes = nombre.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NOMBRE) {
+            throw new IllegalArgumentException("Nombre de más de " + MAX_NOMBRE + " bytes para el diario");
+        }
+        return bytes;
+    }
+
+    //-------------------------------------------------------------------------
+    // ESCRITOR
+    //-------------------------------------------------------------------------
+
+    /**
+     * Baja lo anotado y cierra el segmento. Cuando lo usan varias mesas, se cierra con la última.
+     */
+    public void cerrar() {
+        if (escritor == null) return;
+        synchronized (COMPARTIDOS) {
+            if (usuarios > 1) {
+                usuarios--;
+                return;
+            }
+            usuarios = 0;
+            COMPARTIDOS.remove(directorio, this);
+        }
+        synchronized (this) {
+            cerrando = true;
+            notifyAll();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void escribirEnSegundoPlano() {
+        while (true) {
+            ByteBuffer lleno;
+            synchronized (this) {
+                try {
+                    while (activo.position() == 0 && !cerrando) {
+                        wait();
+                    }
+                    if (!cerrando && activo.position() < activo.capacity() / 2) {
+                        wait(intervaloMs); // Ventana para juntar más registros en la misma escritura
+                    }
+                } catch (InterruptedException e) {
+                    cerrando = true;
+                }
+                if (activo.position() == 0 && cerrando) break;
+                lleno = activo;
+                activo = reserva;
+                reserva = null;
+                notifyAll(); // Por si alguna mesa esperaba lugar
+            }
+            try {
+                lleno.flip();
+                completarCrc(lleno);
+                if (hayQueRotar(lleno.remaining())) {
+                    segmento.close();
+                    abrirSegmento();
+                }
+                while (lleno.hasRemaining()) {
+                    segmento.write(lleno);
+                }
+                segmento.force(false);
+            } catch (IOException e) {
+                System.err.println("Error al escribir el diario: " + e.getMessage());
+            }
+            lleno.clear();
+            synchronized (this) {
+                reserva = lleno.capacity() > BUFFER_INICIAL * 4 ? ByteBuffer.allocate(BUFFER_INICIAL) : lleno;
+            }
+        }
+        try {
+            segmento.close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar el diario: " + e.getMessage());
+        }
+    }
+
+    private void completarCrc(ByteBuffer registros) {
+        byte[] arreglo = registros.array();
+        int i = registros.position();
+        while (i < registros.limit()) {
+            int largo = registros.getShort(i + 4) & 0xFFFF;
+            crc.reset();
+            crc.update(arreglo, i + 4, largo - 4);
+            registros.putInt(i, (int) crc.getValue());
+            i += largo;
+        }
+    }
+
+    private boolean hayQueRotar(int aEscribir) throws IOException {
+        long tamanio = segmento.size();
+        if (tamanio <= CABECERA_SEGMENTO) return false; // Recién abierto: lo que venga va acá
+        return tamanio + aEscribir > tamanioSegmento
+                || System.currentTimeMillis() - aperturaSegmento > duracionSegmentoMs;
+    }
+
+    // Segmento nuevo con el número siguiente al mayor que haya (otro proceso podría ganarle: prueba el que sigue)
+    private void abrirSegmento() throws IOException {
+        if (numeroSegmento == 0) {
+            try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, "diario_uno.*.seg")) {
+                for (Path archivo : archivos) {
+                    Matcher m = ARCHIVO_SEGMENTO.matcher(archivo.getFileName().toString());
+                    if (m.matches()) numeroSegmento = Math.max(numeroSegmento, Long.parseLong(m.group(1)));
+                }
+            }
+        }
+        while (true) {
+            numeroSegmento++;
+            Path archivo = directorio.resolve(String.format("diario_uno.%06d.seg", numeroSegmento));
+            try {
+                segmento = FileChannel.open(archivo, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                break;
+            } catch (FileAlreadyExistsException e) {
+                // Siguiente número
+            }
+        }
+        aperturaSegmento = System.currentTimeMillis();
+        ByteBuffer cabecera = ByteBuffer.allocate(CABECERA_SEGMENTO);
+        cabecera.putInt(MAGIA).putInt(VERSION).putLong(aperturaSegmento).flip();
+        while (cabecera.hasRemaining()) {
+            segmento.write(cabecera);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package Modelo;
+
+/**
+ * Huella de 64 bits del estado público de la mesa: cantidad de cartas de cada jugador,
+ * carta del descarte, color actual, turno y sentido de juego.
+ * <p>
+ * Es un hash tipo Zobrist: cada componente tiene una clave aleatoria fija y la huella es el
+ * XOR de las claves del estado actual. Cuando algo cambia, se "saca" la clave vieja y se
+ * "pone" la nueva con dos XOR, sin recorrer las manos.
+ * <p>
+ * El servidor la manda en cada {@link Evento}. El cliente calcula la misma huella sobre su foto
+ * de la mesa con {@link #calcular(EstadoMesa)} y solo si no coincide pide una foto nueva
+ * (en lugar de volver a pedir todo con cada evento). Solo cubre lo que todos los clientes ven:
+ * de las manos ajenas solo se conoce la cantidad, así que eso es lo que entra.
+ */
+public final class DigestoMesa {
+
+    // Dominios separados para que, ej, el jugador 3 no choque con el color 3
+    private static final long CANTIDAD = 1L << 56;
+    private static final long TOPE = 2L << 56;
+    private static final long COLOR = 3L << 56;
+    private static final long TURNO = 4L << 56;
+    private static final long SENTIDO = 5L << 56;
+
+    // Componentes con los que se calculó la huella actual (lado servidor)
+    private int[] cantidades = new int[0];
+    private Carta tope;
+    private Color color;
+    private int turno = -1;
+    private boolean sentidoNormal = true;
+    private long valor = calcular(new int[0], null, null, -1, true);
+
+    /**
+     * Actualiza la huella comparando con los componentes anteriores: solo los que cambiaron
+     * cuestan un par de XOR. Lo llama la Partida después de cada comando, con el estado del motor.
+     */
+    long actualizar(MotorUNO motor) {
+        int cantidadJugadores = motor.getCantidadJugadores();
+        int tope = motor.getTope();
+        Carta nuevoTope = tope < 0 ? null : Carta.porOrdinal(tope);
+        Color nuevoColor = motor.getColor();
+        int nuevoTurno = motor.isEnCurso() ? motor.getTurno() : -1;
+        boolean nuevoSentidoNormal = motor.isDireccionNormal();
+
+        if (cantidadJugadores != cantidades.length) {
+            // Entró o salió alguien: se reacomodan los índices, recalculamos entero
+            cantidades = new int[cantidadJugadores];
+            for (int i = 0; i < cantidades.length; i++) {
+                cantidades[i] = motor.cantidadCartas(i);
+            }
+            this.tope = nuevoTope;
+            color = nuevoColor;
+            turno = nuevoTurno;
+            sentidoNormal = nuevoSentidoNormal;
+            valor = calcular(cantidades, this.tope, color, turno, sentidoNormal);
+            return valor;
+        }
+
+        for (int i = 0; i < cantidades.length; i++) {
+            int cantidad = motor.cantidadCartas(i);
+            if (cantidad != cantidades[i]) {
+                valor ^= claveCantidad(i, cantidades[i]) ^ claveCantidad(i, cantidad);
+                cantidades[i] = cantidad;
+            }
+        }
+        if (nuevoTope != this.tope) {
+            valor ^= claveTope(this.tope) ^ claveTope(nuevoTope);
+            this.tope = nuevoTope;
+        }
+        if (nuevoColor != color) {
+            valor ^= claveColor(color) ^ claveColor(nuevoColor);
+            color = nuevoColor;
+        }
+        if (nuevoTurno != turno) {
+            valor ^= claveTurno(turno) ^ claveTurno(nuevoTurno);
+            turno = nuevoTurno;
+        }
+        if (nuevoSentidoNormal != sentidoNormal) {
+            valor ^= claveSentido(sentidoNormal) ^ claveSentido(nuevoSentidoNormal);
+            sentidoNormal = nuevoSentidoNormal;
+        }
+        return valor;
+    }
+
+    long getValor() {
+        return valor;
+    }
+
+    // ============ Cálculo completo ============
+
+    private static long calcular(int[] cantidades, Carta tope, Color color, int turno, boolean sentidoNormal) {
+        long h = claveTope(tope) ^ claveColor(color) ^ claveTurno(turno) ^ claveSentido(sentidoNormal);
+        for (int i = 0; i < cantidades.length; i++) {
+            h ^= claveCantidad(i, cantidades[i]);
+        }
+        return h;
+    }
+
+    /**
+     * Huella de una foto de la mesa (lado cliente), para comparar con la que trae cada evento.
+     */
+    public static long calcular(EstadoMesa estado) {
+        int turno = estado.getJugadorActual() == null ? -1
+                : estado.getNombresJugadores().indexOf(estado.getJugadorActual());
+        return calcular(estado.getCantidadCartas(), estado.getUltimaCarta(), estado.getColorActual(),
+                turno, estado.isDireccionNormal());
+    }
+
+    // ============ Claves ============
+
+    private static long claveCantidad(int jugador, int cantidad) {
+        return mezclar(CANTIDAD | ((long) jugador << 20) | cantidad);
+    }
+
+    private static long claveTope(Carta carta) {
+        return carta == null ? 0 : mezclar(TOPE | carta.getOrdinal());
+    }
+
+    private static long claveColor(Color color) {
+        return color == null ? 0 : mezclar(COLOR | color.ordinal());
+    }
+
+    private static long claveTurno(int turno) {
+        return turno < 0 ? 0 : mezclar(TURNO | turno);
+    }
+
+    private static long claveSentido(boolean normal) {
+        return normal ? 0 : mezclar(SENTIDO);
+    }
+
+    /**
+     * SplitMix64: convierte un número en 64 bits bien mezclados. Es determinista,
+     * así cliente y servidor obtienen las mismas claves sin compartir tablas.
+     */
+    static long mezclar(long x) {
+        x += 0x9E3779B97F4A7C15L;
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
@@ -0,0 +1,63 @@
+package Modelo;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Foto compacta de la mesa desde el punto de vista de un jugador.
+ * <p>
+ * Se envía al reconectar cuando el cliente quedó tan atrás que los eventos
+ * que se perdió ya no están en el historial: en lugar de reproducirlos,
+ * se le manda el estado actual de una sola vez.
+ * <p>
+ * Trae todo lo que necesita una vista para redibujarse (mano propia con su máscara de
+ * jugables incluida), así el cliente no tiene que volver a preguntar dato por dato.
+ */
+public class EstadoMesa implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean partidaEnCurso;
+    private final boolean esperandoColor;
+    private final Color colorActual;
+    private final Carta ultimaCarta;
+    private final String jugadorActual;
+    private final List<String> nombresJugadores;
+    private final int[] cantidadCartas;    // Mismo orden que nombresJugadores
+    private final List<Carta> manoPropia;  // Solo la mano del que pidió la foto
+    private final BitSet jugables;         // Cartas de manoPropia que puede tirar ahora (ver ManoJugador)
+    private final long secuencia;          // Último evento incluido en esta foto
+    private final boolean direccionNormal;
+    private final long digesto;            // Huella de la mesa en esta foto (ver DigestoMesa)
+
+    public EstadoMesa(boolean partidaEnCurso, boolean esperandoColor, Color colorActual,
+                      Carta ultimaCarta, String jugadorActual, List<String> nombresJugadores,
+                      int[] cantidadCartas, List<Carta> manoPropia, BitSet jugables, long secuencia,
+                      boolean direccionNormal, long digesto) {
+        this.partidaEnCurso = partidaEnCurso;
+        this.esperandoColor = esperandoColor;
+        this.colorActual = colorActual;
+        this.ultimaCarta = ultimaCarta;
+        this.jugadorActual = jugadorActual;
+        this.nombresJugadores = nombresJugadores;
+        this.cantidadCartas = cantidadCartas;
+        this.manoPropia = manoPropia;
+        this.jugables = jugables;
+        this.secuencia = secuencia;
+        this.direccionNormal = direccionNormal;
+        this.digesto = digesto;
+    }
+
+    public boolean isPartidaEnCurso() { return partidaEnCurso; }
+    public boolean isEsperandoColor() { return esperandoColor; }
+    public Color getColorActual() { return colorActual; }
+    public Carta getUltimaCarta() { return ultimaCarta; }
+    public String getJugadorActual() { return jugadorActual; }
+    public List<String> getNombresJugadores() { return nombresJugadores; }
+    public int[] getCantidadCartas() { return cantidadCartas; }
+    public List<Carta> getManoPropia() { return manoPropia; }
+    public ManoJugador getManoConJugables() { return new ManoJugador(manoPropia, jugables); }
+    public long getSecuencia() { return secuencia; }
+    public boolean isDireccionNormal() { return direccionNormal; }
+    public long getDigesto() { return digesto; }
+}
@@ -1,19 +1,64 @@
 package Modelo;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
-public class Evento implements Serializable {
+/**
+ * Notificación que el servidor envía a los clientes cuando cambia la mesa.
+ * <p>
+ * Se serializa con {@link CodecBinario}: el tipo viaja como 1 byte (ordinal de
+ * {@link TipoEvento}) y los datos llevan una etiqueta de 1 byte + el valor.
+ */
+public class Evento implements Externalizable {
     private static final long serialVersionUID = 1L;
 
-    private final String tipo;
-    private final Object datos;
+    private TipoEvento tipo;
+    private Object datos;
 
-    public Evento(String tipo, Object datos) {
+    // Número de orden asignado por el BufferEventos de la mesa (0 = sin secuenciar).
+    // Permite a los clientes pedir "todo lo posterior a X" y detectar huecos.
+    private long secuencia;
+
+    // Huella de la mesa justo después de este evento (ver DigestoMesa). 0 = sin huella.
+    private long digesto;
+
+    // Requerido por Externalizable
+    public Evento() {
+    }
+
+    public Evento(TipoEvento tipo, Object datos) {
+        this(tipo, datos, 0);
+    }
+
+    public Evento(TipoEvento tipo, Object datos, long secuencia) {
+        this(tipo, datos, secuencia, 0);
+    }
+
+    public Evento(TipoEvento tipo, Object datos, long secuencia, long digesto) {
         this.tipo = tipo;
         this.datos = datos;
+        this.secuencia = secuencia;
+        this.digesto = digesto;
     }
 
-    public String getTipo() { return tipo; }
+    public TipoEvento getTipo() { return tipo; }
     public Object getDatos() { return datos; }
-}
+    public long getSecuencia() { return secuencia; }
+    public long getDigesto() { return digesto; }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        CodecBinario.escribirEvento(out, this);
+    }
 
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        Evento leido = CodecBinario.leerEvento(in);
+        tipo = leido.tipo;
+        secuencia = leido.secuencia;
+        digesto = leido.digesto;
+        datos = leido.datos;
+    }
+}
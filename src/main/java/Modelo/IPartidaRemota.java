@@ -1,34 +1,67 @@
 package Modelo;
 
 import ar.edu.unlu.rmimvc.observer.IObservableRemoto;
+import ar.edu.unlu.rmimvc.observer.IObservadorRemoto;
 import java.rmi.RemoteException;
 import java.util.List;
 
+/**
+ * Operaciones remotas de la mesa.
+ * Los comandos devuelven un {@link ResultadoComando}: los rechazos de reglas no viajan como excepciones.
+ * <p>
+ * Los comandos de juego llevan el token de sesión y un número de secuencia por sesión:
+ * el servidor descarta los reintentos de comandos ya aplicados y devuelve el resultado guardado.
+ */
 public interface IPartidaRemota extends IObservableRemoto {
-    void iniciarPartida(List<String> nombresJugadores) throws RemoteException;
-    void jugarCarta(int indiceCarta) throws RemoteException;
-    Carta robarCartaDelMazo() throws RemoteException;
-    void cambiarColorActual(Color nuevoColor) throws RemoteException;
+    ResultadoComando iniciarPartida(List<String> nombresJugadores) throws RemoteException;
+    ResultadoComando jugarCarta(String token, long secuencia, int indiceCarta) throws RemoteException;
+    ResultadoComando robarCartaDelMazo(String token, long secuencia) throws RemoteException;
+    ResultadoComando cambiarColorActual(String token, long secuencia, Color nuevoColor) throws RemoteException;
+    // Tira un comodín y elige el color en la misma llamada (sin pasar por ESPERANDO_COLOR)
+    ResultadoComando jugarComodin(String token, long secuencia, int indiceCarta, Color nuevoColor) throws RemoteException;
 
     Jugador getJugadorActual() throws RemoteException;
     Carta getUltimaCartaJugadas() throws RemoteException;
     Color getColorActual() throws RemoteException;
     boolean isPartidaEnCurso() throws RemoteException;
     List<Jugador> getJugadores() throws RemoteException;
+    // Mano del jugador + máscara de cartas que puede jugar ahora (vacía si no es su turno)
+    ManoJugador obtenerMano(String nombreJugador) throws RemoteException;
 
     boolean isEstadoEsperandoColor() throws RemoteException;
-    void registrarJugador(String nombre) throws RemoteException;
-    void iniciarJuego() throws RemoteException;
+    // Devuelve el token de sesión, o el motivo del rechazo (partida empezada, sala llena)
+    ResultadoRegistro registrarJugador(String nombre) throws RemoteException;
+    ResultadoComando iniciarJuego(String token, long secuencia) throws RemoteException;
 
 
-    void pasarTurno() throws RemoteException;
+    ResultadoComando pasarTurno(String token, long secuencia) throws RemoteException;
 
     // En Modelo/IPartidaRemota.java ---> Lo usamos para poder reiniciar la partida y jugar otra con los mismo jugadores
-    void reiniciarPartida() throws RemoteException;
+    ResultadoComando reiniciarPartida(String token, long secuencia) throws RemoteException;
     // Metodo para permitir cerrar la partida desde cualquier ventana y avisar al servidor
     void desconectar(String nombreJugador) throws RemoteException;
 
     // Implemencation de la persistencai
     List<String> obtenerRanking() throws RemoteException;
+
+    // Tabla completa de a tramos ("12. ana - 3 Victorias"), desde la fila 'desde' (0 = primera)
+    List<String> obtenerRankingPagina(int desde, int cantidad) throws RemoteException;
+
+    // Puesto del jugador en el ranking (1 = primero, empatados comparten), 0 si nunca ganó
+    int obtenerPosicionRanking(String nombreJugador) throws RemoteException;
+
+    // Top 5 de una ventana de tiempo (hoy, esta semana o histórico), mismo formato que obtenerRanking
+    List<String> obtenerRankingVentana(VentanaRanking ventana) throws RemoteException;
+
+    // Entrega de eventos por long-poll (alternativa a los callbacks de IControladorRemoto).
+    // Devuelve los eventos con secuencia > desdeSecuencia, esperando hasta timeoutMs si no hay.
+    LoteEventos obtenerEventos(long desdeSecuencia, long timeoutMs) throws RemoteException;
+
+    // Recupera el asiento de una sesión cortada: eventos perdidos o foto de la mesa, en un solo viaje
+    ResultadoReconexion reconectar(String token, long ultimaSecuencia, IObservadorRemoto observador) throws RemoteException;
+
+    // Foto de la mesa vista por ese jugador (null si no está sentado). El cliente la pide solo
+    // cuando la huella de un evento no coincide con la de la foto que ya tiene (ver DigestoMesa)
+    EstadoMesa obtenerEstadoMesa(String nombreJugador) throws RemoteException;
 }
 
@@ -1,70 +1,159 @@
 package Modelo;
 
-import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * Representa a un jugador en la partida de UNO.
  * Contiene su nombre y las cartas que tiene en la mano.
- * La lógica de validación de jugadas se maneja en la clase Partida.
+ * La lógica de validación de jugadas se maneja en {@link MotorUNO}: el Jugador es la vista de
+ * una mano que viaja a los clientes.
+ * <p>
+ * En la red viaja en formato compacto: el nombre y la mano como un byte por carta
+ * (ver {@link CodecBinario}), sin descriptores de ArrayList ni de Carta.
+ * <p>
+ * Solo se sincronizan los cambios y la serialización (RMI serializa la respuesta después de
+ * que la Partida soltó su lock). Las consultas no: en el servidor se hacen bajo el lock de la
+ * {@link Partida}, que es el mismo que protege los cambios, y en el cliente hay un solo hilo.
  */
-public class Jugador implements Serializable {
+public class Jugador implements Externalizable {
     private static final long serialVersionUID = 1L;
 
-    private final String nombre;
-    private final List<Carta> cartas;
+    private String nombre;
+
+    // La mano es un histograma por cara: cuántas copias de cada una de las 54 cartas tiene
+    // (mismo formato que las manos del MotorUNO, que es donde se aplican las reglas)
+    private final int[] porCara = new int[Carta.CANTIDAD_CARAS];
+    private int total;
+
+    // Vista de la mano como lista (ordenada por cara: agrupa por color). No copia nada.
+    private final List<Carta> vistaCartas = new VistaMano();
+
+    // Requerido por Externalizable
+    public Jugador() {
+    }
 
     public Jugador(String nombre) {
         this.nombre = nombre;
-        this.cartas = new ArrayList<>();
     }
 
-    public synchronized String getNombre() {
+    public String getNombre() {
         return nombre;
     }
 
 
     /**
-     * Devuelve una copia inmodificable de la mano del jugador.
+     * Devuelve una vista inmodificable de la mano del jugador, ordenada por color y valor.
+     * Los índices de esta lista son los que usan los clientes para elegir carta.
      */
-    public synchronized List<Carta> getCartas() {
-        return Collections.unmodifiableList(cartas);
+    public List<Carta> getCartas() {
+        return vistaCartas;
     }
 
     /**
-     * Agrega una carta a la mano del jugador.
+     * La carta en la posición {@code indice} de {@link #getCartas()}.
+     * Recorre a lo sumo las 54 caras, sin importar cuántas cartas tenga la mano.
      */
-    public synchronized void tomarCarta(Carta carta) {
-        cartas.add(carta);
+    public Carta cartaEn(int indice) {
+        if (indice < 0 || indice >= total) {
+            throw new IndexOutOfBoundsException(indice);
+        }
+        for (int cara = 0; cara < porCara.length; cara++) {
+            indice -= porCara[cara];
+            if (indice < 0) {
+                return Carta.porOrdinal(cara);
+            }
+        }
+        throw new IllegalStateException("Histograma de la mano inconsistente");
     }
 
     /**
-     * Elimina una carta de la mano del jugador.
-     * Lanza excepción si el jugador no tiene la carta.
+     * Agrega una carta a la mano del jugador.
      */
-    public synchronized void jugarCarta(Carta carta) {
-        if (!cartas.remove(carta)) {
-            throw new IllegalArgumentException("La carta no está en la mano del jugador: " + carta);
-        }
+    public synchronized void tomarCarta(Carta carta) {
+        porCara[carta.getOrdinal()]++;
+        total++;
     }
 
     /**
      * Indica si al jugador aún le quedan cartas en la mano.
      */
-    public synchronized boolean tieneCartas() {
-        return !cartas.isEmpty();
+    public boolean tieneCartas() {
+        return total > 0;
     }
 
     /**
      * Devuelve el número de cartas que le quedan al jugador.
      */
-    public synchronized int cantidadCartas() {
-        return cartas.size();
+    public int cantidadCartas() {
+        return total;
     }
 
     public synchronized void vaciarMano() {
-        cartas.clear();
+        Arrays.fill(porCara, 0);
+        total = 0;
+    }
+
+    @Override
+    public synchronized void writeExternal(ObjectOutput out) throws IOException {
+        CodecBinario.escribirJugador(out, this);
+    }
+
+    @Override
+    public synchronized void readExternal(ObjectInput in) throws IOException {
+        nombre = in.readUTF();
+        vaciarMano();
+        for (Carta carta : CodecBinario.leerCartas(in)) {
+            tomarCarta(carta);
+        }
+    }
+
+    /**
+     * Lista de solo lectura respaldada por el histograma.
+     * Iterarla es O(54 + cartas); el acceso por índice va por {@link #cartaEn(int)}.
+     */
+    private class VistaMano extends AbstractList<Carta> {
+        @Override
+        public Carta get(int indice) {
+            return cartaEn(indice);
+        }
+
+        @Override
+        public int size() {
+            return cantidadCartas();
+        }
+
+        @Override
+        public Iterator<Carta> iterator() {
+            return new Iterator<>() {
+                private int cara = 0;
+                private int copiasRestantes = 0;
+                private int entregadas = 0;
+                private final int tamanio = cantidadCartas();
+
+                @Override
+                public boolean hasNext() {
+                    return entregadas < tamanio;
+                }
+
+                @Override
+                public Carta next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    while (copiasRestantes == 0) {
+                        copiasRestantes = porCara[cara++];
+                    }
+                    copiasRestantes--;
+                    entregadas++;
+                    return Carta.porOrdinal(cara - 1);
+                }
+            };
+        }
     }
 }
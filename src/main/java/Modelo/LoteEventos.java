@@ -0,0 +1,31 @@
+package Modelo;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Respuesta de {@link IPartidaRemota#obtenerEventos(long, long)}.
+ * <p>
+ * Agrupa todos los eventos posteriores a la secuencia pedida, para que el cliente
+ * los consuma de una sola vez en lugar de recibir un callback por cada uno.
+ */
+public class LoteEventos implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Evento> eventos;
+    private final long ultimaSecuencia;
+
+    // true si el cliente pidió una secuencia que ya fue pisada en el buffer circular:
+    // hubo eventos que se perdieron y conviene refrescar el estado completo.
+    private final boolean huboPerdida;
+
+    public LoteEventos(List<Evento> eventos, long ultimaSecuencia, boolean huboPerdida) {
+        this.eventos = eventos;
+        this.ultimaSecuencia = ultimaSecuencia;
+        this.huboPerdida = huboPerdida;
+    }
+
+    public List<Evento> getEventos() { return eventos; }
+    public long getUltimaSecuencia() { return ultimaSecuencia; }
+    public boolean isHuboPerdida() { return huboPerdida; }
+}
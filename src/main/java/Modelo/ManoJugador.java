@@ -0,0 +1,60 @@
+package Modelo;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * La mano de un jugador junto con la máscara de cartas que puede jugar ahora mismo.
+ * <p>
+ * La máscara la calcula el servidor con las mismas reglas que valida {@code jugarCarta}
+ * (color actual, última carta y restricción del +4), así la vista habilita solo las
+ * cartas legales y no se gastan viajes en jugadas que el servidor va a rechazar.
+ * Si no es el turno del jugador, la máscara está vacía.
+ * <p>
+ * En la red: la mano como un byte por carta y la máscara como sus palabras de 64 bits.
+ */
+public class ManoJugador implements Externalizable {
+    private static final long serialVersionUID = 1L;
+
+    private List<Carta> cartas;
+    private BitSet jugables; // bit i encendido = la carta i se puede jugar
+
+    // Requerido por Externalizable
+    public ManoJugador() {
+    }
+
+    public ManoJugador(List<Carta> cartas, BitSet jugables) {
+        this.cartas = cartas;
+        this.jugables = jugables;
+    }
+
+    public List<Carta> getCartas() { return cartas; }
+
+    public boolean esJugable(int indice) {
+        return jugables.get(indice);
+    }
+
+    public boolean hayJugables() {
+        return !jugables.isEmpty();
+    }
+
+    BitSet getJugables() {
+        return jugables;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        CodecBinario.escribirMano(out, this);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        ManoJugador leida = CodecBinario.leerMano(in);
+        cartas = leida.cartas;
+        jugables = leida.jugables;
+    }
+}
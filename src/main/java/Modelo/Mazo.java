@@ -1,101 +1,217 @@
 package Modelo;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
 import java.util.List;
-import java.util.Stack;
-import java.util.Random;
 
-// Representa un mazo de cartas
+/**
+ * Mazo de robo + pila de descarte de una mesa.
+ * <p>
+ * Las cartas se guardan como ordinales de cara ({@link Carta#getOrdinal()}) en dos arreglos
+ * primitivos de tamaño fijo (108, el mazo completo), cada uno con su contador:
+ * robar es leer la posición {@code cantidadMazo - 1} y bajar el contador, descartar es
+ * escribir y subirlo. Barajar es Fisher–Yates en el lugar con un generador propio de la mesa
+ * (no el Random global compartido de Collections.shuffle).
+ * <p>
+ * El generador es SplitMix64 sobre un {@code long} de estado, arrancado desde una semilla
+ * por partida ({@link #reiniciar(long)}). Con la misma semilla (y las mismas jugadas) salen
+ * el mismo reparto y los mismos rebarajes de {@code reponerMazo}, en cualquier JVM o máquina:
+ * así se puede volver a jugar una partida de un reporte de error o fijar la carga de un benchmark.
+ * <p>
+ * Ni preparar una partida, ni robar, ni reciclar el descarte crean objetos: las cartas son
+ * las instancias canónicas de {@link Carta}.
+ * <p>
+ * No es thread-safe por sí mismo: es parte del estado de un {@link MotorUNO}, que la
+ * {@link Partida} usa siempre bajo su lock.
+ */
 class Mazo {
-    private final Stack<Carta> mazo;
-    private final List<Carta> descartes;
 
-    public Mazo() {
-        this.mazo = new Stack<>();
-        this.descartes = new ArrayList<>();
-        inicializarMazo();
+    public static final int CARTAS_POR_MAZO = 108;
+
+    // El orden de un mazo recién armado (sin barajar); se copia en cada reinicio
+    private static final byte[] MAZO_ORDENADO = armarMazoOrdenado();
+
+    // Incremento de SplitMix64 (impar, "razón áurea")
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final byte[] mazo = new byte[CARTAS_POR_MAZO];
+    private int cantidadMazo;     // Se roba desde mazo[cantidadMazo - 1]
+
+    private final byte[] descartes = new byte[CARTAS_POR_MAZO];
+    private int cantidadDescartes; // La de arriba es descartes[cantidadDescartes - 1]
+
+    private long estadoAzar; // Estado del generador (avanza GAMMA por número sacado)
+
+    Mazo(long semilla) {
+        reiniciar(semilla);
+    }
+
+    /**
+     * Copia independiente (para simulaciones): mismos arreglos y el generador en el mismo punto,
+     * así la copia roba y rebaraja exactamente lo mismo que el original.
+     */
+    Mazo(Mazo otro) {
+        this.estadoAzar = otro.estadoAzar;
+        System.arraycopy(otro.mazo, 0, mazo, 0, otro.cantidadMazo);
+        this.cantidadMazo = otro.cantidadMazo;
+        System.arraycopy(otro.descartes, 0, descartes, 0, otro.cantidadDescartes);
+        this.cantidadDescartes = otro.cantidadDescartes;
     }
 
-    private synchronized void inicializarMazo() {
+    private static byte[] armarMazoOrdenado() {
+        byte[] ordenado = new byte[CARTAS_POR_MAZO];
+        int n = 0;
         for (Color color : Color.values()) {
             if (color == Color.SIN_COLOR) continue; // Excluir el color especial para cartas Wild
 
             // Cartas numéricas (0 al 9, donde el 1 al 9 aparecen dos veces)
             for (int i = 0; i <= 9; i++) {
-                mazo.add(new Carta(color, Numero.getNumero(i)));
-                if (i > 0) mazo.add(new Carta(color, Numero.getNumero(i))); // Duplicar del 1 al 9
+                ordenado[n++] = (byte) Carta.de(color, Numero.getNumero(i)).getOrdinal();
+                if (i > 0) ordenado[n++] = (byte) Carta.de(color, Numero.getNumero(i)).getOrdinal();
             }
 
             // Cartas especiales de cada color
             for (int i = 0; i < 2; i++) {
-                mazo.add(new Carta(color, Numero.SALTARSE));
-                mazo.add(new Carta(color, Numero.CAMBIOSENTIDO));
-                mazo.add(new Carta(color, Numero.MASDOS));
+                ordenado[n++] = (byte) Carta.de(color, Numero.SALTARSE).getOrdinal();
+                ordenado[n++] = (byte) Carta.de(color, Numero.CAMBIOSENTIDO).getOrdinal();
+                ordenado[n++] = (byte) Carta.de(color, Numero.MASDOS).getOrdinal();
             }
         }
 
         // Cartas Wild (sin color)
         for (int i = 0; i < 4; i++) {
-            mazo.add(new Carta(Color.SIN_COLOR, Numero.CAMBIOCOLOR));
-            mazo.add(new Carta(Color.SIN_COLOR, Numero.MASCUATRO));
+            ordenado[n++] = (byte) Carta.de(Color.SIN_COLOR, Numero.CAMBIOCOLOR).getOrdinal();
+            ordenado[n++] = (byte) Carta.de(Color.SIN_COLOR, Numero.MASCUATRO).getOrdinal();
         }
+        return ordenado;
+    }
+
+    private void inicializarMazo() {
+        System.arraycopy(MAZO_ORDENADO, 0, mazo, 0, CARTAS_POR_MAZO);
+        cantidadMazo = CARTAS_POR_MAZO;
+        cantidadDescartes = 0;
         barajar();
     }
 
-    public synchronized  void barajar() {
-        Collections.shuffle(mazo);
+    /**
+     * Fisher–Yates sobre las cartas que quedan en el mazo.
+     */
+    public void barajar() {
+        for (int i = cantidadMazo - 1; i > 0; i--) {
+            int j = siguienteEntero(i + 1);
+            byte temporal = mazo[i];
+            mazo[i] = mazo[j];
+            mazo[j] = temporal;
+        }
+    }
+
+    /**
+     * Número al azar en [0, limite) (SplitMix64, el mismo mezclador que {@link DigestoMesa}).
+     */
+    private int siguienteEntero(int limite) {
+        long z = (estadoAzar += GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (int) (((z >>> 32) * limite) >>> 32);
     }
 
-    public synchronized Carta robarCarta() {
-        if (mazo.isEmpty()) {
+    /**
+     * Cambia el generador a otra semilla y rebaraja lo que queda en el mazo
+     * (el descarte no se toca). Para simulaciones que no deben "ver" el orden real del mazo.
+     */
+    void rebarajar(long semilla) {
+        estadoAzar = semilla;
+        barajar();
+    }
+
+    public Carta robarCarta() {
+        return Carta.porOrdinal(robarOrdinal());
+    }
+
+    public void descartar(Carta carta) {
+        descartarOrdinal(carta.getOrdinal());
+    }
+
+    // Versiones primitivas (las usa el MotorUNO, que maneja las cartas como ordinales)
+
+    int robarOrdinal() {
+        if (cantidadMazo == 0) {
             reponerMazo();
         }
-        return mazo.pop();
+        return mazo[--cantidadMazo];
+    }
+
+    void descartarOrdinal(int cara) {
+        descartes[cantidadDescartes++] = (byte) cara;
     }
 
-    public synchronized void descartar(Carta carta) {
-        descartes.add(carta);
+    /**
+     * Ordinal de la carta de arriba del descarte, o -1 si está vacío.
+     */
+    int ordinalTope() {
+        return cantidadDescartes == 0 ? -1 : descartes[cantidadDescartes - 1];
     }
 
-    private synchronized void reponerMazo() {
-        if (descartes.isEmpty()) {
+    /**
+     * El mazo se agotó: todas las cartas del descarte menos la de arriba vuelven al mazo
+     * (una copia de bytes entre arreglos, sin colecciones) y se barajan.
+     */
+    private void reponerMazo() {
+        if (cantidadDescartes <= 1) {
             throw new IllegalStateException("No hay cartas en los descartes para reponer el mazo.");
         }
 
-        // Mantener la última carta del descarte
-        Carta ultimaCarta = descartes.remove(descartes.size() - 1);
+        // Pasar todas menos la última al mazo (que está vacío)
+        int aReciclar = cantidadDescartes - 1;
+        System.arraycopy(descartes, 0, mazo, 0, aReciclar);
+        cantidadMazo = aReciclar;
 
-        // Pasar todas las demás al mazo
-        mazo.addAll(descartes);
-
-        // Limpiar descartes y dejar solo la última carta
-        descartes.clear();
-        descartes.add(ultimaCarta);
+        // Dejar solo la última carta en el descarte
+        descartes[0] = descartes[aReciclar];
+        cantidadDescartes = 1;
 
         // Barajar solo el mazo
         barajar();
     }
 
-    public synchronized List<Carta> getDescartes() {
-        return Collections.unmodifiableList(descartes);
+    /**
+     * Vista de solo lectura del descarte (de abajo hacia arriba), sin copiar.
+     */
+    public List<Carta> getDescartes() {
+        return new AbstractList<>() {
+            @Override
+            public Carta get(int i) {
+                if (i < 0 || i >= cantidadDescartes) throw new IndexOutOfBoundsException(i);
+                return Carta.porOrdinal(descartes[i]);
+            }
+
+            @Override
+            public int size() {
+                return cantidadDescartes;
+            }
+        };
     }
 
-    public synchronized Carta getUltimaCartaJugadas() {
-        if (descartes.isEmpty()) {
+    public Carta getUltimaCartaJugadas() {
+        if (cantidadDescartes == 0) {
             throw new IllegalStateException("No hay cartas en el descarte.");
         }
-        return descartes.get(descartes.size() - 1);
+        return Carta.porOrdinal(descartes[cantidadDescartes - 1]);
     }
 
-    public synchronized boolean isEmpty() {
-        return mazo.isEmpty();
+    public boolean isEmpty() {
+        return cantidadMazo == 0;
     }
 
-    public synchronized void reiniciar() {
-        mazo.clear();
-        descartes.clear();
-        inicializarMazo();
+    public int cantidadEnMazo() {
+        return cantidadMazo;
     }
 
+    /**
+     * Mazo completo y barajado desde cero con la semilla de la nueva partida.
+     */
+    public void reiniciar(long semilla) {
+        estadoAzar = semilla;
+        inicializarMazo();
+    }
 }
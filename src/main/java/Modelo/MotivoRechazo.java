@@ -0,0 +1,41 @@
+package Modelo;
+
+// Motivos por los que el servidor rechaza un comando.
+// Viajan como un código de un byte dentro de ResultadoComando (sin excepción ni stack trace).
+public enum MotivoRechazo {
+    NO_HAY_PARTIDA("No hay una partida en curso."),
+    SIN_JUGADORES("No hay jugadores en la partida."),
+    NO_ES_TU_TURNO("No es tu turno."),
+    ESPERANDO_COLOR("Primero hay que elegir el color del comodín."),
+    INDICE_INVALIDO("Índice de carta inválido."),
+    CARTA_NO_COINCIDE("La carta no coincide con color/valor."),
+    MASCUATRO_CON_COLOR("No podés jugar +4 si tenés el color actual."),
+    NO_ES_COMODIN("La carta elegida no es un comodín."),
+    COLOR_INVALIDO("El color ingresado no es válido."),
+    NO_SE_ESPERABA_COLOR("No se esperaba elección de color en este momento."),
+    YA_ROBASTE("Ya robaste una carta. Debés jugar o pasar turno."),
+    DEBE_ACTUAR("Debés robar o jugar antes de pasar."),
+    PARTIDA_EN_CURSO("La partida ya está en curso."),
+    FALTAN_JUGADORES("No hay suficientes jugadores."),
+    CANTIDAD_JUGADORES_INVALIDA("El número de jugadores debe estar entre 2 y 10."),
+    SESION_INVALIDA("Tu sesión no es válida. Volvé a conectarte."),
+    COMANDO_VIEJO("El comando ya fue reemplazado por uno más nuevo."),
+    SALA_LLENA("La sala está llena."),
+    NOMBRE_MUY_LARGO("El nombre es demasiado largo.");
+
+    private static final MotivoRechazo[] motivos = MotivoRechazo.values();
+
+    private final String mensaje;
+
+    MotivoRechazo(String mensaje) {
+        this.mensaje = mensaje;
+    }
+
+    public String getMensaje() {
+        return mensaje;
+    }
+
+    public static MotivoRechazo getMotivo(int codigo) {
+        return motivos[codigo];
+    }
+}
@@ -0,0 +1,603 @@
+package Modelo;
+
+import java.util.BitSet;
+
+/**
+ * Núcleo de reglas del UNO, sin red, sin observadores y sin disco.
+ * <p>
+ * Guarda el estado de una mesa en arreglos primitivos ("struct of arrays"):
+ * <ul>
+ *   <li>El mazo y el descarte como bytes ({@link Mazo}).</li>
+ *   <li>Las manos como histogramas por cara, todos en un solo {@code int[]}
+ *       ({@code manos[jugador * 54 + cara]}), con totales por color y por valor al lado.</li>
+ *   <li>Turno, sentido, color actual, "esperando color" y "ya actuó" como campos simples.</li>
+ * </ul>
+ * Los jugadores son índices (0..n-1) y las cartas ordinales de cara ({@link Carta#getOrdinal()}).
+ * {@link #copiar()} duplica la mesa clonando unos pocos arreglos, así que sirve para bots,
+ * búsquedas y simulaciones que prueban jugadas sin tocar la partida real.
+ * <p>
+ * Todo el azar sale de semillas: la mesa tiene una semilla de la que se derivan las de cada
+ * partida, y cada partida baraja (al repartir y al reciclar el descarte) solo desde la suya.
+ * Con la semilla de una partida y la lista de comandos se la vuelve a jugar idéntica.
+ * <p>
+ * Las jugadas no notifican a nadie: dejan anotados sus efectos (cambio de turno, robo, UNO, fin...)
+ * en un registro que el que llama lee después ({@link #getCantidadEfectos()}). La {@link Partida}
+ * es un adaptador que traduce esos efectos a {@link Evento}s para los clientes.
+ * <p>
+ * No es thread-safe: cada mesa tiene su motor y la Partida lo usa bajo su lock.
+ */
+public final class MotorUNO {
+
+    public static final int CARTAS_INICIALES = 7;
+    // Tope de efectos que deja un comando (el diario reserva lugar para esta cantidad)
+    static final int MAX_EFECTOS = 32;
+
+    private static final int CARAS = Carta.CANTIDAD_CARAS;
+    private static final int COLORES = Color.values().length;
+    private static final int VALORES = Numero.values().length;
+    private static final int SIN_COLOR = Color.SIN_COLOR.ordinal();
+
+    private static final Color[] COLOR = Color.values();
+    private static final Numero[] VALOR = Numero.values();
+
+    // Color y valor de cada cara, para no pasar por los objetos Carta en las reglas
+    private static final byte[] COLOR_DE_CARA = new byte[CARAS];
+    private static final byte[] VALOR_DE_CARA = new byte[CARAS];
+
+    static {
+        for (Carta c : Carta.caras()) {
+            COLOR_DE_CARA[c.getOrdinal()] = (byte) c.getColor().ordinal();
+            VALOR_DE_CARA[c.getOrdinal()] = (byte) c.getValor().ordinal();
+        }
+    }
+
+    private final int maxJugadores;
+    private int cantidadJugadores;
+
+    private final Mazo mazo;
+
+    // Semillas: de la mesa salen las de cada partida (SplitMix64 sobre este estado)
+    private long semillasMesa;
+    private long semillaPartida;
+
+    // Manos: histograma por cara y totales, indexados por jugador
+    private final int[] manos;
+    private final int[] porColor;
+    private final int[] porValor;
+    private final int[] totales;
+
+    // Estado del flujo de juego
+    private int turno;
+    private boolean direccionNormal = true;  // true = Sentido horario
+    private int color = SIN_COLOR;           // Color válido para jugar (ordinal de Color)
+    private boolean enCurso;
+    private boolean esperandoColor;          // Se tiró un comodín y falta elegir color
+    private boolean yaActuo;                 // Robó o jugó en este turno (habilita pasar)
+    private int jugadorUltimaJugada = -1;    // Para chequear victoria tras elegir color
+    private int ganador = -1;
+
+    // Efectos de la última operación: tipo de evento + dato (jugador, cara o color según el tipo)
+    private final byte[] efectosTipo = new byte[MAX_EFECTOS];
+    private final int[] efectosDato = new int[MAX_EFECTOS];
+    private int cantidadEfectos;
+
+    /**
+     * @param semillaMesa Semilla de la que salen las de todas las partidas de esta mesa.
+     */
+    public MotorUNO(int maxJugadores, long semillaMesa) {
+        this.maxJugadores = maxJugadores;
+        this.semillasMesa = semillaMesa;
+        this.mazo = new Mazo(semillaMesa);
+        this.manos = new int[maxJugadores * CARAS];
+        this.porColor = new int[maxJugadores * COLORES];
+        this.porValor = new int[maxJugadores * VALORES];
+        this.totales = new int[maxJugadores];
+    }
+
+    private MotorUNO(MotorUNO otro) {
+        this.maxJugadores = otro.maxJugadores;
+        this.cantidadJugadores = otro.cantidadJugadores;
+        this.mazo = new Mazo(otro.mazo);
+        this.semillasMesa = otro.semillasMesa;
+        this.semillaPartida = otro.semillaPartida;
+        this.manos = otro.manos.clone();
+        this.porColor = otro.porColor.clone();
+        this.porValor = otro.porValor.clone();
+        this.totales = otro.totales.clone();
+        this.turno = otro.turno;
+        this.direccionNormal = otro.direccionNormal;
+        this.color = otro.color;
+        this.enCurso = otro.enCurso;
+        this.esperandoColor = otro.esperandoColor;
+        this.yaActuo = otro.yaActuo;
+        this.jugadorUltimaJugada = otro.jugadorUltimaJugada;
+        this.ganador = otro.ganador;
+    }
+
+    /**
+     * Copia exacta de la mesa, incluido el punto del generador: la copia va a robar las mismas
+     * cartas que la partida real (útil para repetir jugadas). Copiar no toca al original.
+     */
+    public MotorUNO copiar() {
+        return new MotorUNO(this);
+    }
+
+    /**
+     * Copia con el mazo de robo rebarajado desde {@code semilla}: para bots y simulaciones
+     * que no deben conocer el orden real de las cartas que faltan salir.
+     */
+    public MotorUNO copiar(long semilla) {
+        MotorUNO copia = new MotorUNO(this);
+        copia.mazo.rebarajar(semilla);
+        return copia;
+    }
+
+    //-------------------------------------------------------------------------
+    // JUGADORES
+    //-------------------------------------------------------------------------
+
+    /**
+     * Suma un asiento vacío al final. Quien llama tiene que mirar antes {@link #isSalaLlena()}.
+     *
+     * @return El índice del nuevo jugador.
+     */
+    public int agregarJugador() {
+        if (cantidadJugadores >= maxJugadores) {
+            throw new IllegalStateException("La sala está llena (Máx " + maxJugadores + ")");
+        }
+        vaciarMano(cantidadJugadores);
+        return cantidadJugadores++;
+    }
+
+    /**
+     * Saca al jugador y corre a los siguientes un lugar (sus cartas salen del juego).
+     */
+    public void quitarJugador(int jugador) {
+        int siguientes = cantidadJugadores - jugador - 1;
+        System.arraycopy(manos, (jugador + 1) * CARAS, manos, jugador * CARAS, siguientes * CARAS);
+        System.arraycopy(porColor, (jugador + 1) * COLORES, porColor, jugador * COLORES, siguientes * COLORES);
+        System.arraycopy(porValor, (jugador + 1) * VALORES, porValor, jugador * VALORES, siguientes * VALORES);
+        System.arraycopy(totales, jugador + 1, totales, jugador, siguientes);
+        cantidadJugadores--;
+
+        if (jugadorUltimaJugada == jugador) jugadorUltimaJugada = -1;
+        else if (jugadorUltimaJugada > jugador) jugadorUltimaJugada--;
+        if (turno >= cantidadJugadores) turno = 0;
+    }
+
+    /**
+     * Arranca una partida con la siguiente semilla de la mesa ({@link #getSemillaPartida()}).
+     */
+    public void iniciar(int cantidad) {
+        semillasMesa += 0x9E3779B97F4A7C15L;
+        iniciar(cantidad, DigestoMesa.mezclar(semillasMesa));
+    }
+
+    /**
+     * Arranca una partida con {@code cantidad} jugadores (los asientos que sobran se descartan):
+     * baraja desde {@code semilla}, reparte 7 cartas a cada uno y da vuelta la primera carta
+     * que no sea comodín.
+     */
+    public void iniciar(int cantidad, long semilla) {
+        limpiarEfectos();
+        semillaPartida = semilla;
+        cantidadJugadores = cantidad;
+        turno = 0;
+        direccionNormal = true;
+        esperandoColor = false;
+        jugadorUltimaJugada = -1;
+        yaActuo = false;
+        ganador = -1;
+
+        mazo.reiniciar(semilla);
+        for (int j = 0; j < cantidad; j++) {
+            vaciarMano(j);
+            for (int i = 0; i < CARTAS_INICIALES; i++) {
+                tomar(j, mazo.robarOrdinal());
+            }
+        }
+        enCurso = true;
+
+        // La primera carta en la mesa no puede ser comodín
+        int primera = mazo.robarOrdinal();
+        while (COLOR_DE_CARA[primera] == SIN_COLOR) {
+            mazo.descartarOrdinal(primera);
+            primera = mazo.robarOrdinal();
+        }
+        mazo.descartarOrdinal(primera);
+        color = COLOR_DE_CARA[primera];
+
+        registrar(TipoEvento.INICIO_PARTIDA, color);
+    }
+
+    /**
+     * Corta la partida sin ganador (ej: se fueron todos).
+     */
+    public void terminarSinGanador() {
+        enCurso = false;
+    }
+
+    //-------------------------------------------------------------------------
+    // JUGADAS (devuelven null si se aplicaron, o el motivo del rechazo)
+    //-------------------------------------------------------------------------
+
+    /**
+     * El jugador del turno tira la carta en la posición {@code indice} de su mano.
+     * Si es un comodín la mesa queda esperando el color ({@link #cambiarColor}).
+     */
+    public MotivoRechazo jugarCarta(int indice) {
+        limpiarEfectos();
+        MotivoRechazo motivo = validarJugada(indice);
+        if (motivo != null) {
+            return motivo;
+        }
+        int jugador = turno;
+        int cara = cartaEn(jugador, indice);
+
+        // Marcamos que el jugador "actuó" para permitir el paso de turno posterior
+        yaActuo = true;
+        sacar(jugador, cara);
+        mazo.descartarOrdinal(cara);
+        jugadorUltimaJugada = turno;
+
+        // Comodines: pausamos hasta que elija color
+        if (esComodin(cara)) {
+            esperandoColor = true;
+            registrar(TipoEvento.ESPERANDO_COLOR, jugador);
+            return null;
+        }
+
+        // Salto, Reversa, +2 (true si ya movió el turno)
+        boolean yaAvanzoTurno = manejarCartaEspecial(cara);
+
+        if (totales[jugador] == 0) {
+            finalizar(jugador);
+            return null;
+        }
+
+        if (COLOR_DE_CARA[cara] != SIN_COLOR) {
+            color = COLOR_DE_CARA[cara];
+        }
+        if (totales[jugador] == 1) {
+            registrar(TipoEvento.UNO_GRITADO, jugador);
+        }
+        if (!yaAvanzoTurno) {
+            avanzarTurno();
+        }
+        registrar(TipoEvento.JUGAR_CARTA, cara);
+        return null;
+    }
+
+    /**
+     * Comodín atómico: tira el +4 / Cambio Color y fija el color en la misma jugada.
+     */
+    public MotivoRechazo jugarComodin(int indice, Color nuevoColor) {
+        limpiarEfectos();
+        MotivoRechazo motivo = validarJugada(indice);
+        if (motivo != null) {
+            return motivo;
+        }
+        int cara = cartaEn(turno, indice);
+        if (!esComodin(cara)) {
+            return MotivoRechazo.NO_ES_COMODIN;
+        }
+        if (nuevoColor == null || nuevoColor == Color.SIN_COLOR) {
+            return MotivoRechazo.COLOR_INVALIDO;
+        }
+        sacar(turno, cara);
+        mazo.descartarOrdinal(cara);
+        jugadorUltimaJugada = turno;
+
+        aplicarColorElegido(nuevoColor.ordinal());
+        return null;
+    }
+
+    /**
+     * Segundo paso del comodín: fija el color y aplica el efecto (+4 a la víctima o pase de turno).
+     */
+    public MotivoRechazo cambiarColor(Color nuevoColor) {
+        limpiarEfectos();
+        if (!esperandoColor) {
+            return MotivoRechazo.NO_SE_ESPERABA_COLOR;
+        }
+        if (nuevoColor == null || nuevoColor == Color.SIN_COLOR) {
+            return MotivoRechazo.COLOR_INVALIDO;
+        }
+        aplicarColorElegido(nuevoColor.ordinal());
+        return null;
+    }
+
+    /**
+     * El jugador del turno roba una carta (una sola vez por turno).
+     */
+    public MotivoRechazo robar() {
+        limpiarEfectos();
+        if (!enCurso) return MotivoRechazo.NO_HAY_PARTIDA;
+        if (yaActuo) return MotivoRechazo.YA_ROBASTE;
+
+        int cara = mazo.robarOrdinal();
+        tomar(turno, cara);
+        yaActuo = true;
+        registrar(TipoEvento.ROBAR_CARTA, cara);
+        return null;
+    }
+
+    /**
+     * Pasar turno: solo si ya robó o jugó.
+     */
+    public MotivoRechazo pasarTurno() {
+        limpiarEfectos();
+        if (!yaActuo) {
+            return MotivoRechazo.DEBE_ACTUAR;
+        }
+        avanzarTurno();
+        return null;
+    }
+
+    /**
+     * Validaciones comunes antes de tirar una carta (estado, índice, color/valor y regla del +4).
+     */
+    public MotivoRechazo validarJugada(int indice) {
+        if (!enCurso) return MotivoRechazo.NO_HAY_PARTIDA;
+        if (cantidadJugadores == 0) return MotivoRechazo.SIN_JUGADORES;
+        if (esperandoColor) return MotivoRechazo.ESPERANDO_COLOR;
+        if (indice < 0 || indice >= totales[turno]) return MotivoRechazo.INDICE_INVALIDO;
+
+        int cara = cartaEn(turno, indice);
+        if (!esCartaValida(cara, mazo.ordinalTope())) {
+            return MotivoRechazo.CARTA_NO_COINCIDE;
+        }
+        // +4 solo si no tenés del color actual
+        if (VALOR_DE_CARA[cara] == Numero.MASCUATRO.ordinal() && tieneDelColor(turno, color)) {
+            return MotivoRechazo.MASCUATRO_CON_COLOR;
+        }
+        return null;
+    }
+
+    /**
+     * Marca en {@code destino} las posiciones de la mano del jugador que se pueden tirar ahora.
+     * Recorre las 54 caras una vez (no la mano), porque la mano está ordenada por cara.
+     */
+    public void calcularJugables(int jugador, BitSet destino) {
+        destino.clear();
+        boolean esSuTurno = enCurso && !esperandoColor && turno == jugador && jugador < cantidadJugadores;
+        if (!esSuTurno || !tieneJugadaPosible(jugador)) return;
+
+        int tope = mazo.ordinalTope();
+        boolean tieneDelColor = tieneDelColor(jugador, color); // Regla del +4, una vez
+        int base = jugador * CARAS;
+        int indice = 0;
+        for (int cara = 0; cara < CARAS; cara++) {
+            int copias = manos[base + cara];
+            if (copias == 0) continue;
+            boolean jugable = esCartaValida(cara, tope)
+                    && !(VALOR_DE_CARA[cara] == Numero.MASCUATRO.ordinal() && tieneDelColor);
+            if (jugable) destino.set(indice, indice + copias);
+            indice += copias;
+        }
+    }
+
+    //-------------------------------------------------------------------------
+    // REGLAS INTERNAS (mismas que tenía Partida)
+    //-------------------------------------------------------------------------
+
+    private boolean esCartaValida(int cara, int tope) {
+        // Los comodines siempre se pueden tirar (la regla del +4 se mira aparte)
+        if (esComodin(cara)) return true;
+        if (tope < 0) return true;
+        return COLOR_DE_CARA[cara] == color || VALOR_DE_CARA[cara] == VALOR_DE_CARA[tope];
+    }
+
+    private boolean tieneJugadaPosible(int jugador) {
+        if (totales[jugador] == 0) return false;
+        int tope = mazo.ordinalTope();
+        if (tope < 0) return true;
+        return tieneDelColor(jugador, SIN_COLOR) || tieneDelColor(jugador, color)
+                || porValor[jugador * VALORES + VALOR_DE_CARA[tope]] > 0;
+    }
+
+    private static boolean esComodin(int cara) {
+        int valor = VALOR_DE_CARA[cara];
+        return valor == Numero.CAMBIOCOLOR.ordinal() || valor == Numero.MASCUATRO.ordinal();
+    }
+
+    /**
+     * Salto, Reversa y +2.
+     *
+     * @return true si el turno ya se movió acá.
+     */
+    private boolean manejarCartaEspecial(int cara) {
+        Numero valor = VALOR[VALOR_DE_CARA[cara]];
+        switch (valor) {
+            case CAMBIOSENTIDO:
+                direccionNormal = !direccionNormal;
+                // 1vs1: la reversa actúa como salto (juego de nuevo)
+                if (cantidadJugadores == 2) {
+                    avanzarTurno();
+                    avanzarTurno();
+                    return true;
+                }
+                return false;
+
+            case SALTARSE:
+                avanzarTurno(); // Foco en la víctima
+                avanzarTurno(); // Y la saltea
+                return true;
+
+            case MASDOS:
+                robarSiguiente(2);
+                avanzarTurno();
+                avanzarTurno(); // La víctima pierde el turno
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    private void aplicarColorElegido(int nuevoColor) {
+        color = nuevoColor;
+        esperandoColor = false;
+        yaActuo = true;
+
+        int tope = mazo.ordinalTope();
+        if (tope >= 0 && VALOR_DE_CARA[tope] == Numero.MASCUATRO.ordinal()) {
+            robarSiguiente(4);
+            avanzarTurno(); // Mueve a la víctima
+            avanzarTurno(); // Salta a la víctima
+        } else {
+            avanzarTurno();
+        }
+
+        // Chequeo de victoria diferido (se quedó sin cartas al tirar el comodín)
+        if (jugadorUltimaJugada >= 0) {
+            int posibleGanador = jugadorUltimaJugada;
+            jugadorUltimaJugada = -1;
+            if (totales[posibleGanador] == 0) {
+                finalizar(posibleGanador);
+                return;
+            }
+        }
+        registrar(TipoEvento.CAMBIO_COLOR, nuevoColor);
+    }
+
+    private void robarSiguiente(int cantidad) {
+        if (cantidadJugadores == 0) return;
+        int victima = siguiente();
+        for (int i = 0; i < cantidad; i++) {
+            tomar(victima, mazo.robarOrdinal());
+        }
+        registrar(TipoEvento.ROBAR_CARTAS, victima);
+    }
+
+    private void avanzarTurno() {
+        if (cantidadJugadores == 0) return;
+        yaActuo = false; // El próximo jugador debe actuar
+        turno = siguiente();
+        registrar(TipoEvento.CAMBIO_TURNO, turno);
+    }
+
+    private int siguiente() {
+        return direccionNormal
+                ? (turno + 1) % cantidadJugadores
+                : (turno - 1 + cantidadJugadores) % cantidadJugadores;
+    }
+
+    private void finalizar(int jugador) {
+        enCurso = false;
+        ganador = jugador;
+        registrar(TipoEvento.FIN_PARTIDA, jugador);
+    }
+
+    //-------------------------------------------------------------------------
+    // MANOS
+    //-------------------------------------------------------------------------
+
+    private void tomar(int jugador, int cara) {
+        manos[jugador * CARAS + cara]++;
+        porColor[jugador * COLORES + COLOR_DE_CARA[cara]]++;
+        porValor[jugador * VALORES + VALOR_DE_CARA[cara]]++;
+        totales[jugador]++;
+    }
+
+    private void sacar(int jugador, int cara) {
+        manos[jugador * CARAS + cara]--;
+        porColor[jugador * COLORES + COLOR_DE_CARA[cara]]--;
+        porValor[jugador * VALORES + VALOR_DE_CARA[cara]]--;
+        totales[jugador]--;
+    }
+
+    private void vaciarMano(int jugador) {
+        java.util.Arrays.fill(manos, jugador * CARAS, (jugador + 1) * CARAS, 0);
+        java.util.Arrays.fill(porColor, jugador * COLORES, (jugador + 1) * COLORES, 0);
+        java.util.Arrays.fill(porValor, jugador * VALORES, (jugador + 1) * VALORES, 0);
+        totales[jugador] = 0;
+    }
+
+    /**
+     * Cara de la carta en la posición {@code indice} de la mano (ordenada por cara).
+     */
+    public int cartaEn(int jugador, int indice) {
+        int base = jugador * CARAS;
+        for (int cara = 0; cara < CARAS; cara++) {
+            indice -= manos[base + cara];
+            if (indice < 0) return cara;
+        }
+        throw new IndexOutOfBoundsException(indice);
+    }
+
+    public int copiasDe(int jugador, int cara) {
+        return manos[jugador * CARAS + cara];
+    }
+
+    public boolean tieneDelColor(int jugador, int color) {
+        return porColor[jugador * COLORES + color] > 0;
+    }
+
+    public int cantidadCartas(int jugador) {
+        return totales[jugador];
+    }
+
+    /**
+     * Arma un {@link Jugador} (DTO para los clientes) con la mano de ese asiento.
+     */
+    Jugador aJugador(int jugador, String nombre) {
+        Jugador dto = new Jugador(nombre);
+        int base = jugador * CARAS;
+        for (int cara = 0; cara < CARAS; cara++) {
+            for (int c = manos[base + cara]; c > 0; c--) {
+                dto.tomarCarta(Carta.porOrdinal(cara));
+            }
+        }
+        return dto;
+    }
+
+    //-------------------------------------------------------------------------
+    // ESTADO
+    //-------------------------------------------------------------------------
+
+    public int getCantidadJugadores() { return cantidadJugadores; }
+    public boolean isSalaLlena() { return cantidadJugadores >= maxJugadores; }
+    public int getTurno() { return turno; }
+    public boolean isDireccionNormal() { return direccionNormal; }
+    public Color getColor() { return COLOR[color]; }
+    public boolean isEnCurso() { return enCurso; }
+    public boolean isEsperandoColor() { return esperandoColor; }
+    public boolean isYaActuo() { return yaActuo; }
+    public int getGanador() { return ganador; }
+
+    /**
+     * Semilla con la que se barajó la partida actual (para registrarla y poder repetirla).
+     */
+    public long getSemillaPartida() { return semillaPartida; }
+
+    /**
+     * Ordinal de la carta del descarte, o -1 si todavía no hay.
+     */
+    public int getTope() {
+        return mazo.ordinalTope();
+    }
+
+    //-------------------------------------------------------------------------
+    // REGISTRO DE EFECTOS
+    //-------------------------------------------------------------------------
+
+    public int getCantidadEfectos() { return cantidadEfectos; }
+    public TipoEvento getEfectoTipo(int i) { return TipoEvento.getTipo(efectosTipo[i]); }
+
+    /**
+     * Dato del efecto: jugador (CAMBIO_TURNO, ROBAR_CARTAS, UNO_GRITADO, ESPERANDO_COLOR, FIN_PARTIDA),
+     * cara (JUGAR_CARTA, ROBAR_CARTA) o color (INICIO_PARTIDA, CAMBIO_COLOR).
+     */
+    public int getEfectoDato(int i) { return efectosDato[i]; }
+
+    private void limpiarEfectos() {
+        cantidadEfectos = 0;
+    }
+
+    private void registrar(TipoEvento tipo, int dato) {
+        efectosTipo[cantidadEfectos] = (byte) tipo.ordinal();
+        efectosDato[cantidadEfectos] = dato;
+        cantidadEfectos++;
+    }
+}
@@ -1,10 +1,13 @@
 package Modelo;
 
+import ar.edu.unlu.rmimvc.observer.IObservadorRemoto;
 import ar.edu.unlu.rmimvc.observer.ObservableRemoto;
 
 import java.rmi.RemoteException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Clase principal del Modelo (Core del Juego).
@@ -17,47 +20,106 @@ import java.util.*;
  * 2. Validar las reglas del UNO (si una carta se puede jugar, si se puede pasar turno).
  * 3. Gestionar la concurrencia (synchronized) para evitar condiciones de carrera entre jugadores.
  * 4. Notificar cambios a todos los clientes mediante el patrón Observer (Evento).
+ * <p>
+ * Las reglas en sí viven en {@link MotorUNO} (arreglos primitivos, sin red): la Partida le pasa
+ * cada comando ya validado por sesión/turno y traduce los efectos que deja el motor a
+ * {@link Evento}s con nombres, cartas y colores para los clientes.
  */
 public class Partida extends ObservableRemoto implements IPartidaRemota, Serializable {
 
     private static final int MIN_JUGADORES = 2;
     private static final int MAX_JUGADORES = 10;
 
-    private final Mazo mazo;
-    private final List<Jugador> jugadores;
+    public static final String PROPIEDAD_SEMILLA = "uno.semilla";
+
+    // Si al reconectar el cliente se perdió más eventos que esto, le mandamos una foto de la mesa
+    private static final int MAX_EVENTOS_REPRODUCIBLES = 64;
 
-    // Estado del flujo de juego
-    private int turnoActual;          // Índice del jugador en la lista 'jugadores'
-    private boolean partidaEnCurso;
-    private boolean direccionNormal;  // true = Sentido horario, false = Anti-horario
-    private Color colorActual;        // El color válido para jugar (puede cambiar por carta o comodín)
+    // Estado de la mesa y reglas (jugadores por índice, mismo orden que 'nombres')
+    private final MotorUNO motor;
+    private final List<String> nombres;
 
-    // Variables de control para Comodines (+4 y Cambio Color)
-    private boolean estadoEsperandoColor; // Bloquea el juego hasta que el usuario elija color
-    private int indiceJugadorUltimaJugada = -1; // Para chequear victoria tras elegir color
+    // Vista de las manos como Jugador, armada a pedido y descartada en cada cambio
+    private List<Jugador> vistaJugadores;
 
-    // Bandera de seguridad para reglas de turno:
-    // Evita que un jugador pase el turno sin haber hecho nada (robar o jugar).
-    private boolean haRobadoEnTurnoActual = false;
+    private int partidasIniciadas; // Solo para numerar las partidas en el log de semillas
 
     //Atributo para implementar persistencia
     private final SerializadorRanking ranking;
 
+    // Registro binario de cada comando aceptado (compartido con las otras mesas) y el número de esta mesa en él
+    private final DiarioPartidas diario;
+    private final int mesa;
+
+    // Historial acotado de eventos secuenciados (entrega por long-poll, ver obtenerEventos)
+    private final BufferEventos eventos;
+
+    // Huella incremental del estado público de la mesa (viaja en cada evento)
+    private final DigestoMesa digesto;
+
+    // Sesiones activas por token (permiten recuperar el asiento tras un corte de red)
+    private final Map<String, Sesion> sesiones;
+
+    // Callbacks de los clientes. Se manejan acá y no en ObservableRemoto para poder sacar
+    // un stub muerto sin cortar la notificación a los que vienen después (ver notificarObservadores)
+    private final List<IObservadorRemoto> observadores = new CopyOnWriteArrayList<>();
+
+    // Gancho opcional del transporte para medir cada broadcast (null = sin medición, costo cero)
+    private volatile MedicionEventos medicion;
+
+    /**
+     * Envoltura de cada broadcast de eventos. La instala el transporte (ej: la medición de red RMI)
+     * para atribuir los callbacks al tipo de evento sin que el modelo dependa de él.
+     */
+    @FunctionalInterface
+    public interface MedicionEventos {
+        /** Tiene que ejecutar {@code envio} una vez, en el hilo que llama. */
+        void medir(TipoEvento tipo, Runnable envio);
+    }
+
     public Partida() throws RemoteException {
+        this(semillaPorDefecto());
+    }
+
+    /**
+     * @param semillaMesa Semilla de la que salen las barajadas de todas las partidas de esta mesa:
+     *                    con la misma semilla y los mismos comandos, las partidas se repiten iguales.
+     */
+    public Partida(long semillaMesa) throws RemoteException {
+        this(semillaMesa, SerializadorRanking.compartido());
+    }
+
+    /**
+     * Mesa que anota las victorias en un ranking propio en lugar del compartido del directorio
+     * actual (ej: un benchmark que no tiene que tocar el ranking real). {@link #cerrar()} lo suelta igual.
+     */
+    public Partida(long semillaMesa, SerializadorRanking ranking) throws RemoteException {
         super();
-        this.mazo = new Mazo();
-        this.jugadores = new ArrayList<>();
-        this.turnoActual = 0;
-        this.partidaEnCurso = false;
-        this.direccionNormal = true;
-        this.colorActual = Color.SIN_COLOR;
-        this.estadoEsperandoColor = false;
-        this.ranking = new SerializadorRanking();
+        this.motor = new MotorUNO(MAX_JUGADORES, semillaMesa);
+        this.nombres = new ArrayList<>();
+        this.ranking = ranking;
+        this.diario = DiarioPartidas.compartido();
+        this.mesa = diario.abrirMesa(semillaMesa);
+        this.eventos = new BufferEventos();
+        this.digesto = new DigestoMesa();
+        this.sesiones = new HashMap<>();
+        System.out.println("[UNO] Mesa creada con semilla 0x" + Long.toHexString(semillaMesa)
+                + " (repetible con -D" + PROPIEDAD_SEMILLA + ")");
+    }
+
+    // -Duno.semilla=N fija las barajadas (benchmarks, pruebas de carga, repetir un reporte)
+    private static long semillaPorDefecto() {
+        String semilla = System.getProperty(PROPIEDAD_SEMILLA);
+        if (semilla == null) {
+            return new SplittableRandom().nextLong();
+        }
+        // Acepta el formato del log (0x + hexa) o un número decimal
+        return semilla.startsWith("0x") ? Long.parseUnsignedLong(semilla.substring(2), 16) : Long.parseLong(semilla);
     }
 
     @Override
-    public Color getColorActual() throws RemoteException {
-        return colorActual;
+    public synchronized Color getColorActual() throws RemoteException {
+        return motor.getColor();
     }
 
     /**
@@ -65,219 +127,235 @@ public class Partida extends ObservableRemoto implements IPartidaRemota, Seriali
      * Útil si se quiere reiniciar el juego reemplazando los jugadores actuales.
      */
     @Override
-    public synchronized void iniciarPartida(List<String> nombresJugadores) throws RemoteException {
+    public synchronized ResultadoComando iniciarPartida(List<String> nombresJugadores) throws RemoteException {
         if (nombresJugadores.size() < MIN_JUGADORES || nombresJugadores.size() > MAX_JUGADORES) {
-            throw new IllegalArgumentException("El número de jugadores debe estar entre " + MIN_JUGADORES + " y " + MAX_JUGADORES + ".");
+            return rechazo(MotivoRechazo.CANTIDAD_JUGADORES_INVALIDA);
         }
-
-        // Reiniciar estado interno (Reset completo)
-        jugadores.clear();
-        turnoActual = 0;
-        direccionNormal = true;
-        estadoEsperandoColor = false;
-        indiceJugadorUltimaJugada = -1;
-        partidaEnCurso = false;
-        colorActual = Color.SIN_COLOR;
-
-        // Reiniciar mazo (Crucial para que las cartas vuelvan a estar disponibles)
-        mazo.reiniciar();
-        mazo.barajar();
-
         for (String nombre : nombresJugadores) {
-            jugadores.add(new Jugador(nombre));
+            if (!entraEnDiario(nombre)) return rechazo(MotivoRechazo.NOMBRE_MUY_LARGO);
         }
 
-        repartirCartasIniciales();
-        partidaEnCurso = true;
-
-        // Lógica de la primera carta en la mesa (no puede ser comodín al inicio)
-        Carta primeraCarta = mazo.robarCarta();
-        while (primeraCarta.getColor() == Color.SIN_COLOR) {
-            mazo.descartar(primeraCarta);
-            primeraCarta = mazo.robarCarta();
-        }
-        mazo.descartar(primeraCarta);
-        this.colorActual = primeraCarta.getColor();
+        // Reset completo: nuevos jugadores, mazo barajado y primera carta en la mesa
+        nombres.clear();
+        nombres.addAll(nombresJugadores);
+        motor.iniciar(nombres.size());
+        registrarSemilla();
 
         // Notificar a todos los clientes que el juego arrancó
-        notificarEvento(new Evento("INICIO_PARTIDA", colorActual));
-    }
-
-    private synchronized void repartirCartasIniciales() throws RemoteException {
-        for (Jugador jugador : jugadores) {
-            jugador.vaciarMano(); // Limpieza preventiva
-            for (int i = 0; i < 7; i++) {
-                jugador.tomarCarta(mazo.robarCarta());
-            }
-        }
+        emitirEfectos();
+        return ok();
     }
 
-    /**
-     * Método principal de la lógica del juego.
-     * Es invocado por el cliente cuando hace clic en una carta.
-     *
-     * @param indiceCarta La posición de la carta en la mano del jugador actual.
-     */
-    public synchronized void jugarCarta(int indiceCarta) throws RemoteException {
-
-        // 1. Validaciones de Estado
-        if (!partidaEnCurso) {
-            throw new IllegalStateException("No hay una partida en curso.");
-        }
-        if (jugadores.isEmpty()) {
-            throw new IllegalStateException("No hay jugadores en la partida.");
-        }
-
-        Jugador jugadorActual = jugadores.get(turnoActual);
-
-        if (indiceCarta < 0 || indiceCarta >= jugadorActual.getCartas().size()) {
-            throw new IllegalArgumentException("Índice de carta inválido.");
-        }
+    //-------------------------------------------------------------------------
+    // COMANDOS REMOTOS (idempotentes por sesión)
+    //-------------------------------------------------------------------------
+    // Cada comando llega con el token de sesión y un número de secuencia que el cliente
+    // incrementa por comando. Si un reintento trae una secuencia ya aplicada, se devuelve
+    // el resultado guardado en lugar de volver a ejecutarlo (ej: jugarCarta(3) reintentado
+    // después de un timeout NO tira otra carta, porque los índices de la mano ya cambiaron).
 
-        Carta carta = jugadorActual.getCartas().get(indiceCarta);
-        Carta ultima = null;
-        try {
-            ultima = mazo.getUltimaCartaJugadas();
-        } catch (IllegalStateException e) {
-            ultima = null; // Caso borde: primera jugada
-        }
+    @Override
+    public synchronized ResultadoComando jugarCarta(String token, long secuencia, int indiceCarta) throws RemoteException {
+        return ejecutarComando(token, secuencia, true, () -> jugarCarta(indiceCarta));
+    }
 
-        // 2. Validación de Reglas UNO (Color, Número o Comodín)
-        if (!esCartaValida(carta, ultima)) {
-            throw new IllegalArgumentException("La carta no coincide con color/valor.");
-        }
+    @Override
+    public synchronized ResultadoComando jugarComodin(String token, long secuencia, int indiceCarta, Color nuevoColor) throws RemoteException {
+        return ejecutarComando(token, secuencia, true, () -> jugarComodin(indiceCarta, nuevoColor));
+    }
 
-        // Validación estricta de +4 (Solo se puede jugar si no tenés el color actual)
-        if (carta.getValor() == Numero.MASCUATRO &&
-                jugadorTieneDelColor(jugadorActual, colorActual)) {
-            throw new IllegalArgumentException("No podés jugar +4 si tenés el color actual.");
-        }
+    @Override
+    public synchronized ResultadoComando robarCartaDelMazo(String token, long secuencia) throws RemoteException {
+        return ejecutarComando(token, secuencia, true, this::robarCartaDelMazo);
+    }
 
-        // 3. Ejecución de la jugada
-        // Marcamos que el jugador "actuó" para permitir el paso de turno posterior.
-        haRobadoEnTurnoActual = true;
+    @Override
+    public synchronized ResultadoComando cambiarColorActual(String token, long secuencia, Color nuevoColor) throws RemoteException {
+        return ejecutarComando(token, secuencia, true, () -> cambiarColorActual(nuevoColor));
+    }
 
-        jugadorActual.jugarCarta(carta);
-        mazo.descartar(carta);
+    @Override
+    public synchronized ResultadoComando pasarTurno(String token, long secuencia) throws RemoteException {
+        return ejecutarComando(token, secuencia, true, this::pasarTurno);
+    }
 
-        // Guardamos referencia por si hay que chequear victoria luego de elegir color
-        indiceJugadorUltimaJugada = turnoActual;
+    @Override
+    public synchronized ResultadoComando iniciarJuego(String token, long secuencia) throws RemoteException {
+        return ejecutarComando(token, secuencia, false, this::iniciarJuego);
+    }
 
-        // 4. Manejo de Comodines (+4 y Cambio Color)
-        // Estos requieren una segunda acción del usuario (elegir color), por lo que
-        // pausamos el flujo aquí y notificamos a la vista.
-        if (carta.getValor() == Numero.CAMBIOCOLOR || carta.getValor() == Numero.MASCUATRO) {
-            estadoEsperandoColor = true;
-            notificarEvento(new Evento("ESPERANDO_COLOR", jugadorActual.getNombre()));
-            return; // Salimos para esperar la respuesta de cambiarColorActual()
-        }
+    @Override
+    public synchronized ResultadoComando reiniciarPartida(String token, long secuencia) throws RemoteException {
+        return ejecutarComando(token, secuencia, false, this::reiniciarPartida);
+    }
 
-        // 5. Manejo de Cartas de Efecto (Salto, Reversa, +2)
-        // Retorna true si la carta especial ya se encargó de mover el turno.
-        boolean yaAvanzoTurno = manejarCartaEspecial(carta);
+    // Cuerpo de un comando ya validado (sesión y turno)
+    private interface Comando {
+        ResultadoComando ejecutar() throws RemoteException;
+    }
 
-        // 6. Verificación de Victoria
-        if (!jugadorActual.tieneCartas()) {
-            finalizarPartida(jugadorActual);
-            return;
+    /**
+     * Valida la sesión, descarta duplicados y, si corresponde, verifica que sea el turno del que envía.
+     * El resultado (aceptado o rechazado) queda guardado en la sesión para responder reintentos.
+     */
+    private ResultadoComando ejecutarComando(String token, long secuencia, boolean requiereTurno,
+                                             Comando comando) throws RemoteException {
+        Sesion sesion = (token == null) ? null : sesiones.get(token);
+        if (sesion == null) {
+            return rechazo(MotivoRechazo.SESION_INVALIDA);
         }
-
-        // Actualizar color si la carta jugada tiene uno (no es comodín)
-        if (carta.getColor() != Color.SIN_COLOR) {
-            colorActual = carta.getColor();
+        if (secuencia == sesion.getUltimaSecuenciaComando()) {
+            return sesion.getUltimoResultado(); // Reintento del último comando: misma respuesta
         }
-
-        // 7. Verificación de regla "UNO!" (Le queda 1 carta)
-        if (jugadorActual.cantidadCartas() == 1) {
-            notificarEvento(new Evento("UNO_GRITADO", jugadorActual.getNombre()));
+        if (secuencia < sesion.getUltimaSecuenciaComando()) {
+            return rechazo(MotivoRechazo.COMANDO_VIEJO); // Reintento de algo ya superado
         }
 
-        // 8. Pase de Turno (Para cartas numéricas normales)
-        if (!yaAvanzoTurno) {
-            pasarTurno();
+        ResultadoComando resultado;
+        if (requiereTurno && !esTurnoDe(sesion.getNombreJugador())) {
+            resultado = rechazo(MotivoRechazo.NO_ES_TU_TURNO);
+        } else {
+            resultado = comando.ejecutar();
         }
-
-        notificarEvento(new Evento("JUGAR_CARTA", carta));
+        sesion.registrarComando(secuencia, resultado);
+        return resultado;
     }
 
+    private boolean esTurnoDe(String nombreJugador) {
+        int turno = motor.getTurno();
+        return turno < nombres.size() && nombres.get(turno).equals(nombreJugador);
+    }
 
-    private synchronized boolean esCartaValida(Carta carta, Carta ultimaCarta) {
-        // Los comodines siempre se pueden tirar (con validación extra para +4 hecha antes)
-        if (carta.getValor().equals(Numero.CAMBIOCOLOR) || carta.getValor().equals(Numero.MASCUATRO)) {
-            return true;
-        }
-        if (ultimaCarta == null) {
-            return true;
-        }
-        // Coincidencia por color o por valor/número
-        return carta.getColor().equals(colorActual) ||
-                carta.getValor().equals(ultimaCarta.getValor());
+    /**
+     * Método principal de la lógica del juego.
+     * Es invocado por el cliente cuando hace clic en una carta.
+     * Si es un comodín, la mesa queda esperando el color ({@link #cambiarColorActual(Color)}).
+     *
+     * @param indiceCarta La posición de la carta en la mano del jugador actual.
+     */
+    private ResultadoComando jugarCarta(int indiceCarta) {
+        int jugador = motor.getTurno();
+        return aplicar(motor.jugarCarta(indiceCarta), DiarioPartidas.Registro.JUGAR_CARTA, jugador, indiceCarta, null);
     }
 
-    private synchronized boolean jugadorTieneDelColor(Jugador jugador, Color color) {
-        for (Carta carta : jugador.getCartas()) {
-            if (carta.getColor() == color) {
-                return true;
-            }
-        }
-        return false;
+    /**
+     * Jugada atómica de comodín: tira el +4 / Cambio Color y fija el color en la misma llamada.
+     * <p>
+     * Evita el ida y vuelta de {@link #jugarCarta(int)} + {@link #cambiarColorActual(Color)}:
+     * la mesa nunca queda bloqueada esperando color y no se emite ESPERANDO_COLOR.
+     */
+    private ResultadoComando jugarComodin(int indiceCarta, Color nuevoColor) {
+        int jugador = motor.getTurno();
+        return aplicar(motor.jugarComodin(indiceCarta, nuevoColor), DiarioPartidas.Registro.JUGAR_COMODIN,
+                jugador, indiceCarta, nuevoColor);
     }
 
     /**
-     * Aplica la lógica de cartas especiales que alteran el flujo de turnos.
-     * Utiliza `avanzarTurnoInterno` para evitar bloqueos de validación.
-     *
-     * @return true si el turno fue modificado aquí.
+     * Método invocado tras elegir un color para un comodín (+4 o Cambio Color).
+     * El efecto del +4 se aplica en este momento.
      */
-    private synchronized boolean manejarCartaEspecial(Carta carta) throws RemoteException {
-        switch (carta.getValor()) {
-            case CAMBIOSENTIDO:
-                // Invierte el orden de juego
-                direccionNormal = !direccionNormal;
-
-                // Regla especial 1vs1: Reversa actúa como Salto (juego de nuevo)
-                if (jugadores.size() == 2) {
-                    avanzarTurnoInterno(); // Salta al rival
-                    avanzarTurnoInterno(); // Vuelve a mí
-                    return true;
-                }
-                return false; // En multiplayer normal, solo invierte, el turno pasa normal después
+    private ResultadoComando cambiarColorActual(Color nuevoColor) {
+        int jugador = motor.getTurno();
+        return aplicar(motor.cambiarColor(nuevoColor), DiarioPartidas.Registro.CAMBIAR_COLOR, jugador, -1, nuevoColor);
+    }
 
-            case SALTARSE:
-                avanzarTurnoInterno(); // Mueve el foco a la víctima
-                avanzarTurnoInterno(); // Salta a la víctima y pasa al siguiente
-                return true;
+    private ResultadoComando robarCartaDelMazo() {
+        // Solo se puede robar 1 vez por turno (habilita "Pasar Turno" en el cliente)
+        int jugador = motor.getTurno();
+        return aplicar(motor.robar(), DiarioPartidas.Registro.ROBAR, jugador, -1, null);
+    }
 
-            case MASDOS:
-                robarCartasSiguientes(2); // La víctima roba
-                avanzarTurnoInterno();    // Mueve el foco a la víctima
-                avanzarTurnoInterno();    // Salta a la víctima (pierde turno)
-                return true;
+    /**
+     * Acción manual del usuario: "Pasar Turno".
+     * Solo permitido si el jugador ya robó o jugó.
+     */
+    private ResultadoComando pasarTurno() {
+        int jugador = motor.getTurno();
+        return aplicar(motor.pasarTurno(), DiarioPartidas.Registro.PASAR, jugador, -1, null);
+    }
 
-            default:
-                return false;
-        }
+    /**
+     * Deja en el log del servidor la semilla de la partida que arranca: con ella
+     * ({@link MotorUNO#iniciar(int, long)}) y los comandos recibidos se repite la partida entera.
+     * En el diario queda además con los jugadores y el reparto, antes que sus comandos.
+     */
+    private void registrarSemilla() {
+        partidasIniciadas++;
+        System.out.println("[UNO] Partida #" + partidasIniciadas + " " + nombres
+                + " semilla=0x" + Long.toHexString(motor.getSemillaPartida()));
+        diario.anotarInicio(mesa, nombres, motor);
     }
 
+    /**
+     * Semilla de la partida actual (para adjuntar a un reporte de error).
+     */
+    public synchronized long getSemillaPartida() {
+        return motor.getSemillaPartida();
+    }
 
-    private synchronized void robarCartasSiguientes(int cantidad) throws RemoteException {
-        if (jugadores.isEmpty()) return;
+    /**
+     * Cierra un comando del motor: si se rechazó lo devuelve tal cual, si no lo anota en el
+     * diario (con quién lo hizo y sus efectos) y emite los efectos.
+     */
+    private ResultadoComando aplicar(MotivoRechazo motivo, DiarioPartidas.Registro comando,
+                                     int jugador, int indice, Color color) {
+        if (motivo != null) {
+            return rechazo(motivo);
+        }
+        diario.anotarComando(mesa, comando, jugador, indice, color, motor);
+        emitirEfectos();
+        return ok();
+    }
 
-        // Calculamos quién es el siguiente (la víctima) respetando la dirección
-        int siguienteJugador = (direccionNormal) ?
-                (turnoActual + 1) % jugadores.size() :
-                (turnoActual - 1 + jugadores.size()) % jugadores.size();
+    /**
+     * Traduce el registro de efectos del último comando del motor a eventos para los clientes.
+     * El fin de partida con ganador además se guarda en el ranking.
+     */
+    private void emitirEfectos() {
+        vistaJugadores = null;
+        for (int i = 0; i < motor.getCantidadEfectos(); i++) {
+            TipoEvento tipo = motor.getEfectoTipo(i);
+            int dato = motor.getEfectoDato(i);
+            switch (tipo) {
+                case JUGAR_CARTA, ROBAR_CARTA -> notificarEvento(new Evento(tipo, Carta.porOrdinal(dato)));
+                case INICIO_PARTIDA, CAMBIO_COLOR -> notificarEvento(new Evento(tipo, Color.values()[dato]));
+                case FIN_PARTIDA -> {
+                    // Persistencia; el top ya actualizado viaja en el mismo evento
+                    String ganador = nombres.get(dato);
+                    ranking.registrarVictoria(ganador);
+                    notificarEvento(new Evento(tipo, new ResultadoPartida(ganador, ranking.getTop5())));
+                }
+                // CAMBIO_TURNO, ROBAR_CARTAS (sin decir cuáles, por privacidad), UNO_GRITADO, ESPERANDO_COLOR
+                default -> notificarEvento(new Evento(tipo, nombres.get(dato)));
+            }
+        }
+    }
 
-        Jugador j = jugadores.get(siguienteJugador);
+    /**
+     * Devuelve la mano del jugador con la máscara de cartas jugables.
+     * Aplica las mismas reglas que {@link MotorUNO#validarJugada(int)}, pero de una sola pasada.
+     */
+    @Override
+    public synchronized ManoJugador obtenerMano(String nombreJugador) throws RemoteException {
+        int jugador = nombres.indexOf(nombreJugador);
+        if (jugador < 0) {
+            return null;
+        }
+        List<Carta> cartas = cartasDe(jugador);
+        BitSet jugables = new BitSet(cartas.size());
+        motor.calcularJugables(jugador, jugables);
+        return new ManoJugador(cartas, jugables);
+    }
 
-        for (int i = 0; i < cantidad; i++) {
-            Carta c = mazo.robarCarta();
-            if (c == null) continue;
-            j.tomarCarta(c);
+    // La mano en el orden de índices que usan los comandos (por cara)
+    private List<Carta> cartasDe(int jugador) {
+        List<Carta> cartas = new ArrayList<>(motor.cantidadCartas(jugador));
+        for (int cara = 0; cara < Carta.CANTIDAD_CARAS; cara++) {
+            for (int c = motor.copiasDe(jugador, cara); c > 0; c--) {
+                cartas.add(Carta.porOrdinal(cara));
+            }
         }
-
-        // Notificamos que alguien robó cartas (sin decir cuáles, por privacidad)
-        notificarEvento(new Evento("ROBAR_CARTAS", j.getNombre()));
+        return cartas;
     }
 
     /**
@@ -286,15 +364,26 @@ public class Partida extends ObservableRemoto implements IPartidaRemota, Seriali
     @Override
     public synchronized void desconectar(String nombreJugador) throws RemoteException {
         // Buscamos y removemos al jugador por su nombre
-        jugadores.removeIf(j -> j.getNombre().equals(nombreJugador));
+        for (int i = nombres.size() - 1; i >= 0; i--) {
+            if (nombres.get(i).equals(nombreJugador)) {
+                nombres.remove(i);
+                motor.quitarJugador(i);
+            }
+        }
+        vistaJugadores = null;
+        // Se fue a propósito: su token ya no sirve para reconectar
+        sesiones.values().removeIf(s -> s.getNombreJugador().equals(nombreJugador));
 
         // Avisamos a los que quedan que alguien se fue
-        notificarEvento(new Evento("JUGADOR_DESCONECTADO", nombreJugador));
+        notificarEvento(new Evento(TipoEvento.JUGADOR_DESCONECTADO, nombreJugador));
 
         // Si la partida estaba en curso y quedaron menos de 2, la terminamos a la fuerza
-        if (partidaEnCurso && jugadores.size() < MIN_JUGADORES) {
-            partidaEnCurso = false;
-            notificarEvento(new Evento("FIN_PARTIDA", "Nadie (Falta de jugadores)"));
+        boolean terminar = motor.isEnCurso() && nombres.size() < MIN_JUGADORES;
+        diario.anotarJugador(mesa, DiarioPartidas.Registro.DESCONEXION, nombreJugador, terminar);
+        if (terminar) {
+            motor.terminarSinGanador();
+            notificarEvento(new Evento(TipoEvento.FIN_PARTIDA,
+                    new ResultadoPartida("Nadie (Falta de jugadores)", ranking.getTop5())));
         }
     }
 
@@ -302,239 +391,295 @@ public class Partida extends ObservableRemoto implements IPartidaRemota, Seriali
      * Usa este metodo para poder reiniciar la partida y jugar otra manteniendo los mismos jugadores
      */
 
-    @Override
-    public synchronized void reiniciarPartida() throws RemoteException {
+    private ResultadoComando reiniciarPartida() {
         // Solo permitimos reiniciar si la partida terminó (por seguridad)
-        if (partidaEnCurso) {
-            throw new IllegalStateException("No se puede reiniciar una partida en curso.");
+        if (motor.isEnCurso()) {
+            return rechazo(MotivoRechazo.PARTIDA_EN_CURSO);
         }
 
         // VALIDACIÓN IMPORTANTE:
-        if (jugadores.size() < MIN_JUGADORES) {
-            throw new IllegalStateException("No hay suficientes jugadores para reiniciar.");
+        if (nombres.size() < MIN_JUGADORES) {
+            return rechazo(MotivoRechazo.FALTAN_JUGADORES);
         }
         // Reutilizamos tu lógica existente que limpia manos y reparte
         iniciarPartidaInterna();
+        return ok();
     }
 
-    /**
-     * Método invocado tras elegir un color para un comodín (+4 o Cambio Color).
-     * Aplica el efecto del +4 en este momento.
-     */
     @Override
-    public synchronized void cambiarColorActual(Color nuevoColor) throws RemoteException {
-        if (!estadoEsperandoColor) {
-            throw new IllegalStateException("No se esperaba elección de color en este momento.");
-        }
-        if (nuevoColor == null || nuevoColor == Color.SIN_COLOR) {
-            throw new IllegalArgumentException("El color ingresado no es válido.");
-        }
-        this.colorActual = nuevoColor;
-        estadoEsperandoColor = false;
-
-        // Permitimos que el flujo avance (cumple condición de haber actuado)
-        haRobadoEnTurnoActual = true;
-
-        // Revisamos si era un +4 para aplicar el castigo ahora
-        Carta ultima = mazo.getUltimaCartaJugadas();
-        if (ultima != null && ultima.getValor() == Numero.MASCUATRO) {
-            robarCartasSiguientes(4);
-            avanzarTurnoInterno(); // Mueve a la víctima
-            avanzarTurnoInterno(); // Salta a la víctima
-        } else {
-            // Si fue CAMBIOCOLOR normal, el turno pasa al siguiente
-            avanzarTurnoInterno();
-        }
+    public synchronized boolean isPartidaEnCurso() throws RemoteException {
+        return motor.isEnCurso();
+    }
 
-        // Chequeo de victoria diferido (por si se quedó sin cartas al tirar el comodín)
-        if (indiceJugadorUltimaJugada >= 0) {
-            Jugador posibleGanador = jugadores.get(indiceJugadorUltimaJugada);
-            if (!posibleGanador.tieneCartas()) {
-                finalizarPartida(posibleGanador);
-                indiceJugadorUltimaJugada = -1;
-                return;
+    @Override
+    public synchronized List<Jugador> getJugadores() throws RemoteException {
+        if (vistaJugadores == null) {
+            List<Jugador> jugadores = new ArrayList<>(nombres.size());
+            for (int i = 0; i < nombres.size(); i++) {
+                jugadores.add(motor.aJugador(i, nombres.get(i)));
             }
-            indiceJugadorUltimaJugada = -1;
+            vistaJugadores = Collections.unmodifiableList(jugadores);
         }
+        return vistaJugadores;
+    }
 
-        notificarEvento(new Evento("CAMBIO_COLOR", nuevoColor));
+    @Override
+    public synchronized Jugador getJugadorActual() throws RemoteException {
+        return getJugadores().get(motor.getTurno());
     }
 
-    /**
-     * Mueve el índice del turno sin realizar validaciones de reglas.
-     * Se usa internamente para efectos automáticos (Salto, +2, +4).
-     */
-    private void avanzarTurnoInterno() {
-        if (jugadores.isEmpty()) return;
+    @Override
+    public synchronized Carta getUltimaCartaJugadas() throws RemoteException {
+        int tope = motor.getTope();
+        if (tope < 0) {
+            throw new IllegalStateException("No hay cartas en el descarte.");
+        }
+        return Carta.porOrdinal(tope);
+    }
 
-        // Reseteamos bandera para que el próximo jugador deba actuar obligatoriamente
-        haRobadoEnTurnoActual = false;
+    // La versión del estado es la secuencia del último evento emitido
+    private ResultadoComando ok() {
+        return ResultadoComando.ok(eventos.getUltimaSecuencia());
+    }
 
-        // Cálculo matemático circular del siguiente índice
-        turnoActual = (direccionNormal) ?
-                (turnoActual + 1) % jugadores.size() :
-                (turnoActual - 1 + jugadores.size()) % jugadores.size();
+    private ResultadoComando rechazo(MotivoRechazo motivo) {
+        return ResultadoComando.rechazo(motivo, eventos.getUltimaSecuencia());
+    }
 
-        notificarEvento(new Evento("CAMBIO_TURNO", jugadores.get(turnoActual).getNombre()));
+    private synchronized void notificarEvento(Evento evento) {
+        // Primero lo secuenciamos y guardamos, así los clientes por long-poll también lo ven
+        long huella = digesto.actualizar(motor);
+        Evento secuenciado = eventos.agregar(evento, huella);
+        MedicionEventos medicion = this.medicion;
+        if (medicion == null) {
+            difundir(secuenciado);
+        } else {
+            medicion.medir(evento.getTipo(), () -> difundir(secuenciado));
+        }
     }
 
-    /**
-     * Acción manual del usuario: "Pasar Turno".
-     * Solo permitido si el jugador ya robó o jugó (aunque si jugó, el turno suele pasar solo).
-     */
-    @Override
-    public synchronized void pasarTurno() throws RemoteException {
-        // VALIDACIÓN PARA EL USUARIO: Anti-AFK / Anti-Trampa
-        if (!haRobadoEnTurnoActual) {
-            throw new IllegalStateException("Debés robar o jugar antes de pasar.");
+    private void difundir(Evento evento) {
+        try {
+            // Llama al método update() de todos los Controladores conectados
+            notificarObservadores(evento);
+        } catch (RemoteException e) {
+            e.printStackTrace();
         }
-        // Si pasa la validación, avanzamos
-        avanzarTurnoInterno();
     }
 
-    private synchronized void finalizarPartida(Jugador jugadorGanador) throws RemoteException {
-        partidaEnCurso = false;
-        // Persistencia
-        ranking.registrarVictoria(jugadorGanador.getNombre());
-        notificarEvento(new Evento("FIN_PARTIDA", jugadorGanador.getNombre()));
+    /**
+     * Instala (o saca, con null) la envoltura de los broadcasts. Ver {@link MedicionEventos}.
+     */
+    public void setMedicionEventos(MedicionEventos medicion) {
+        this.medicion = medicion;
     }
 
     @Override
-    public synchronized boolean isPartidaEnCurso() throws RemoteException {
-        return partidaEnCurso;
+    public void agregarObservador(IObservadorRemoto observador) throws RemoteException {
+        observadores.add(observador);
     }
 
     @Override
-    public synchronized List<Jugador> getJugadores() throws RemoteException {
-        return Collections.unmodifiableList(jugadores);
+    public void removerObservador(IObservadorRemoto observador) throws RemoteException {
+        observadores.remove(observador);
     }
 
+    /**
+     * Notifica a cada observador por separado: si uno falla (cliente caído, red cortada) se lo saca
+     * y se sigue con el resto. Si el cliente vuelve, {@link #reconectar} registra su stub nuevo.
+     */
     @Override
-    public synchronized Jugador getJugadorActual() throws RemoteException {
-        return jugadores.get(turnoActual);
+    public void notificarObservadores(Object evento) throws RemoteException {
+        for (IObservadorRemoto observador : observadores) {
+            try {
+                observador.actualizar(this, evento);
+            } catch (RemoteException e) {
+                observadores.remove(observador);
+                System.out.println("[UNO] Se quitó un observador que no respondía: " + e.getMessage());
+            }
+        }
     }
 
-    public synchronized Mazo getMazo() throws RemoteException {
-        return mazo;
+    public synchronized boolean isEstadoEsperandoColor() {
+        return motor.isEsperandoColor();
     }
 
-    @Override
-    public synchronized Carta robarCartaDelMazo() throws RemoteException {
-        if (!partidaEnCurso) throw new IllegalStateException("No hay partida.");
-
-        // VALIDACIÓN: Solo se puede robar 1 vez por turno
-        if (haRobadoEnTurnoActual) {
-            throw new IllegalStateException("Ya robaste una carta. Debés jugar o pasar turno.");
-        }
-
-        Carta carta = mazo.robarCarta();
-        jugadores.get(turnoActual).tomarCarta(carta);
+    //-------------------------------------------------------------------------
+    // MÉTODOS DE LA SALA DE ESPERA (LOBBY)
+    //-------------------------------------------------------------------------
 
-        // Marcamos que ya robó (habilita el botón "Pasar Turno" en el cliente)
-        haRobadoEnTurnoActual = true;
+    /**
+     * Agrega al jugador a la sala de espera.
+     *
+     * @return El token de sesión para poder reconectar más tarde, o el rechazo si la partida
+     * ya empezó, la sala está llena o el nombre no entra en el diario.
+     */
+    public synchronized ResultadoRegistro registrarJugador(String nombre) throws RemoteException {
+        if (motor.isEnCurso()) return ResultadoRegistro.rechazo(MotivoRechazo.PARTIDA_EN_CURSO);
+        if (motor.isSalaLlena()) return ResultadoRegistro.rechazo(MotivoRechazo.SALA_LLENA);
+        if (!entraEnDiario(nombre)) return ResultadoRegistro.rechazo(MotivoRechazo.NOMBRE_MUY_LARGO);
+
+        motor.agregarJugador();
+        nombres.add(nombre);
+        vistaJugadores = null;
+        diario.anotarJugador(mesa, DiarioPartidas.Registro.JUGADOR, nombre, false);
+        notificarEvento(new Evento(TipoEvento.JUGADOR_REGISTRADO, nombre));
+
+        Sesion sesion = new Sesion(UUID.randomUUID().toString(), nombre);
+        sesiones.put(sesion.getToken(), sesion);
+        return ResultadoRegistro.ok(sesion.getToken());
+    }
 
-        notificarEvento(new Evento("ROBAR_CARTA", carta));
-        return carta;
+    // El diario guarda los nombres completos, hasta un tope por registro
+    private static boolean entraEnDiario(String nombre) {
+        return nombre.getBytes(StandardCharsets.UTF_8).length <= DiarioPartidas.MAX_NOMBRE;
     }
 
+    /**
+     * Reconexión en un solo viaje: el cliente presenta su token y la última secuencia
+     * que llegó a procesar, y recupera su asiento aunque la partida esté en curso.
+     * <p>
+     * Si se perdió pocos eventos se le devuelven esos; si quedó muy atrás (o ya no
+     * están en el historial) se le devuelve una foto compacta de la mesa.
+     *
+     * @param observador El nuevo callback del cliente (reemplaza al anterior), o null si usa long-poll.
+     */
     @Override
-    public synchronized Carta getUltimaCartaJugadas() throws RemoteException {
-        return mazo.getUltimaCartaJugadas();
-    }
+    public synchronized ResultadoReconexion reconectar(String token, long ultimaSecuencia,
+                                                       IObservadorRemoto observador) throws RemoteException {
+        Sesion sesion = (token == null) ? null : sesiones.get(token);
+        if (sesion == null) {
+            return ResultadoReconexion.rechazada();
+        }
+        int jugador = nombres.indexOf(sesion.getNombreJugador());
+        if (jugador < 0) {
+            // Sacaron al jugador de la mesa mientras estaba desconectado
+            sesiones.remove(token);
+            return ResultadoReconexion.rechazada();
+        }
 
-    private synchronized void notificarEvento(Evento evento) {
+        // Cambiamos el stub viejo (probablemente muerto) por el nuevo
+        if (sesion.getObservador() != null) {
+            removerObservador(sesion.getObservador());
+        }
+        if (observador != null) {
+            removerObservador(observador); // Por si reconecta con el mismo stub
+            agregarObservador(observador);
+        }
+        sesion.setObservador(observador);
+
+        LoteEventos perdidos;
         try {
-            // Llama al método update() de todos los Controladores conectados
-            notificarObservadores(evento);
-        } catch (RemoteException e) {
-            e.printStackTrace();
+            perdidos = eventos.obtenerDesde(ultimaSecuencia, 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            perdidos = new LoteEventos(List.of(), eventos.getUltimaSecuencia(), true);
         }
-    }
 
-    public synchronized boolean isEstadoEsperandoColor() {
-        return estadoEsperandoColor;
+        if (perdidos.isHuboPerdida() || perdidos.getEventos().size() > MAX_EVENTOS_REPRODUCIBLES) {
+            return ResultadoReconexion.conFoto(nombres.get(jugador), construirEstadoMesa(jugador));
+        }
+        return ResultadoReconexion.conEventos(nombres.get(jugador), perdidos.getEventos());
     }
 
-    public synchronized void setEstadoEsperandoColor(boolean estadoEsperandoColor) {
-        this.estadoEsperandoColor = estadoEsperandoColor;
+    @Override
+    public synchronized EstadoMesa obtenerEstadoMesa(String nombreJugador) throws RemoteException {
+        int jugador = nombres.indexOf(nombreJugador);
+        return jugador < 0 ? null : construirEstadoMesa(jugador);
     }
 
-    //-------------------------------------------------------------------------
-    // MÉTODOS DE LA SALA DE ESPERA (LOBBY)
-    //-------------------------------------------------------------------------
-
-    public synchronized void registrarJugador(String nombre) throws RemoteException {
-        if (partidaEnCurso) return;
-
-        // --- VALIDACIÓN DE LÍMITE ---
-        if (jugadores.size() >= MAX_JUGADORES) {
-            throw new IllegalStateException("La sala está llena (Máx " + MAX_JUGADORES + ")");
-        }
-        // ----------------------------
+    private EstadoMesa construirEstadoMesa(int destinatario) {
+        int[] cantidades = new int[nombres.size()];
+        for (int i = 0; i < cantidades.length; i++) {
+            cantidades[i] = motor.cantidadCartas(i);
+        }
+        String actual = (motor.isEnCurso() && motor.getTurno() < nombres.size())
+                ? nombres.get(motor.getTurno()) : null;
+        BitSet jugables = new BitSet();
+        motor.calcularJugables(destinatario, jugables);
+        return new EstadoMesa(motor.isEnCurso(), motor.isEsperandoColor(), motor.getColor(), topeDescarte(),
+                actual, new ArrayList<>(nombres), cantidades, cartasDe(destinatario), jugables,
+                eventos.getUltimaSecuencia(), motor.isDireccionNormal(), digesto.getValor());
+    }
 
-        jugadores.add(new Jugador(nombre));
-        notificarEvento(new Evento("JUGADOR_REGISTRADO", nombre));
+    /**
+     * Carta de arriba del descarte, o null si todavía no hay (sala de espera).
+     */
+    private Carta topeDescarte() {
+        int tope = motor.getTope();
+        return tope < 0 ? null : Carta.porOrdinal(tope);
     }
 
-    public synchronized void iniciarJuego() throws RemoteException {
+    private ResultadoComando iniciarJuego() {
         // BLINDAJE: Si ya está en curso, ignoramos segundas llamadas (doble click)
-        if (partidaEnCurso) return;
+        if (motor.isEnCurso()) return rechazo(MotivoRechazo.PARTIDA_EN_CURSO);
 
-        if (jugadores.size() < MIN_JUGADORES) {
-            throw new IllegalStateException("Faltan jugadores.");
+        if (nombres.size() < MIN_JUGADORES) {
+            return rechazo(MotivoRechazo.FALTAN_JUGADORES);
         }
         iniciarPartidaInterna();
+        return ok();
     }
 
     /**
      * Configuración interna para comenzar el juego.
      * Baraja, reparte y pone la primera carta.
      */
-    private synchronized void iniciarPartidaInterna() {
-        try {
-            // Reiniciar estado interno
-            turnoActual = 0;
-            direccionNormal = true;
-            estadoEsperandoColor = false;
-            indiceJugadorUltimaJugada = -1;
-
-            // --- CORRECCIÓN CRÍTICA ---
-            haRobadoEnTurnoActual = false; // <--- permite reiniciar partidas sin errores
-            // -------------------------
-
-
-            // Reiniciar y mezclar mazo
-            mazo.reiniciar();
-            mazo.barajar();
-
-            // Repartir cartas
-            repartirCartasIniciales();
-
-            partidaEnCurso = true;
-
-            // Seleccionar primera carta válida (que no sea comodín)
-            Carta primeraCarta = mazo.robarCarta();
-            while (primeraCarta.getColor() == Color.SIN_COLOR) {
-                mazo.descartar(primeraCarta);
-                primeraCarta = mazo.robarCarta();
-            }
-            mazo.descartar(primeraCarta);
-            this.colorActual = primeraCarta.getColor();
-
-            // Notificar inicio a todos
-            notificarEvento(new Evento("INICIO_PARTIDA", colorActual));
-            notificarEvento(new Evento(
-                    "CAMBIO_TURNO",
-                    jugadores.get(turnoActual).getNombre()
-            ));
+    private void iniciarPartidaInterna() {
+        // Reinicia turno, sentido y flags (también "ya actuó": permite reiniciar partidas sin errores),
+        // baraja, reparte y pone la primera carta
+        motor.iniciar(nombres.size());
+        registrarSemilla();
+
+        // Notificar inicio a todos
+        emitirEfectos();
+        notificarEvento(new Evento(TipoEvento.CAMBIO_TURNO, nombres.get(motor.getTurno())));
+    }
 
-        } catch (RemoteException e) {
-            e.printStackTrace();
+    /**
+     * Entrega alternativa a los callbacks: el cliente pide los eventos posteriores a
+     * {@code desdeSecuencia} por su propia conexión saliente.
+     * <p>
+     * No es synchronized a propósito: la espera ocurre sobre el monitor del buffer,
+     * no sobre el de la Partida, así no frena las jugadas de los demás.
+     */
+    @Override
+    public LoteEventos obtenerEventos(long desdeSecuencia, long timeoutMs) throws RemoteException {
+        try {
+            return eventos.obtenerDesde(desdeSecuencia, timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new LoteEventos(List.of(), eventos.getUltimaSecuencia(), false);
         }
     }
+
     //Implementacion del metodo para la peristencia, se agrega el atributo, se lo inicializa y se registra al finalizar partida. Con este metodo solo se consulta
     @Override
     public List<String> obtenerRanking() throws RemoteException {
         return ranking.getTop5();
     }
+
+    /**
+     * Apagado ordenado del servidor: suelta el ranking y el diario (compartidos con las otras mesas);
+     * la última mesa en cerrar manda al disco las victorias y comandos que quedaron en cola.
+     */
+    public void cerrar() {
+        ranking.cerrar();
+        diario.cerrar();
+    }
+
+    @Override
+    public List<String> obtenerRankingPagina(int desde, int cantidad) throws RemoteException {
+        return ranking.getPagina(desde, cantidad);
+    }
+
+    @Override
+    public int obtenerPosicionRanking(String nombreJugador) throws RemoteException {
+        return ranking.getPosicion(nombreJugador);
+    }
+
+    @Override
+    public List<String> obtenerRankingVentana(VentanaRanking ventana) throws RemoteException {
+        return ranking.getTop5(ventana);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package Modelo;
+
+import java.io.Serializable;
+
+/**
+ * Resultado de un comando enviado al servidor (jugar, robar, pasar, elegir color...).
+ * <p>
+ * Reemplaza a las excepciones para los rechazos normales de reglas: un click inválido
+ * cuesta un byte de motivo y un long de versión, sin capturar ni serializar stack traces.
+ * <p>
+ * La versión es la secuencia del último evento de la mesa al terminar el comando:
+ * sirve para saber si el estado que tiene el cliente ya incluye el efecto de su jugada.
+ */
+public class ResultadoComando implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final byte OK = -1;
+
+    private final byte codigo;   // OK o el ordinal de MotivoRechazo
+    private final long version;
+
+    private ResultadoComando(byte codigo, long version) {
+        this.codigo = codigo;
+        this.version = version;
+    }
+
+    public static ResultadoComando ok(long version) {
+        return new ResultadoComando(OK, version);
+    }
+
+    public static ResultadoComando rechazo(MotivoRechazo motivo, long version) {
+        return new ResultadoComando((byte) motivo.ordinal(), version);
+    }
+
+    // Acceso compacto para CodecBinario
+    static ResultadoComando desdeCodigo(byte codigo, long version) {
+        return new ResultadoComando(codigo, version);
+    }
+
+    byte getCodigo() {
+        return codigo;
+    }
+
+    public boolean isOk() {
+        return codigo == OK;
+    }
+
+    /** @return El motivo del rechazo, o null si el comando se aplicó. */
+    public MotivoRechazo getMotivo() {
+        return isOk() ? null : MotivoRechazo.getMotivo(codigo);
+    }
+
+    /** @return Texto listo para mostrarle al usuario (vacío si fue OK). */
+    public String getMensaje() {
+        return isOk() ? "" : getMotivo().getMensaje();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,31 @@
+package Modelo;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Datos del evento FIN_PARTIDA: quién ganó y el top 5 del ranking ya actualizado con esa victoria.
+ * <p>
+ * El top es la lista que el ranking tiene publicada (se arma una vez por victoria, no por cliente),
+ * así las vistas lo muestran sin hacer otro pedido al servidor. Viaja con su propia etiqueta en
+ * {@link CodecBinario}: el ganador y los textos, sin serialización estándar.
+ */
+public class ResultadoPartida implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String ganador;
+    private final List<String> top;
+
+    public ResultadoPartida(String ganador, List<String> top) {
+        this.ganador = ganador;
+        this.top = top;
+    }
+
+    public String getGanador() { return ganador; }
+    public List<String> getTop() { return top; }
+
+    @Override
+    public String toString() {
+        return ganador;
+    }
+}
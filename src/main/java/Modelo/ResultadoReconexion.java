@@ -0,0 +1,46 @@
+package Modelo;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Respuesta de {@link IPartidaRemota#reconectar}.
+ * <p>
+ * Si el cliente estaba poco atrasado trae solo los eventos que se perdió;
+ * si estaba demasiado atrás trae una {@link EstadoMesa} y la lista de eventos vacía.
+ */
+public class ResultadoReconexion implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean aceptada;
+    private final String nombreJugador;
+    private final List<Evento> eventosPerdidos;
+    private final EstadoMesa foto;
+
+    private ResultadoReconexion(boolean aceptada, String nombreJugador,
+                                List<Evento> eventosPerdidos, EstadoMesa foto) {
+        this.aceptada = aceptada;
+        this.nombreJugador = nombreJugador;
+        this.eventosPerdidos = eventosPerdidos;
+        this.foto = foto;
+    }
+
+    static ResultadoReconexion rechazada() {
+        return new ResultadoReconexion(false, null, List.of(), null);
+    }
+
+    static ResultadoReconexion conEventos(String nombreJugador, List<Evento> eventos) {
+        return new ResultadoReconexion(true, nombreJugador, eventos, null);
+    }
+
+    static ResultadoReconexion conFoto(String nombreJugador, EstadoMesa foto) {
+        return new ResultadoReconexion(true, nombreJugador, List.of(), foto);
+    }
+
+    public boolean isAceptada() { return aceptada; }
+    public String getNombreJugador() { return nombreJugador; }
+    public List<Evento> getEventosPerdidos() { return eventosPerdidos; }
+
+    /** @return La foto de la mesa, o null si alcanzó con reproducir eventos. */
+    public EstadoMesa getFoto() { return foto; }
+}
@@ -0,0 +1,58 @@
+package Modelo;
+
+import java.io.Serializable;
+
+/**
+ * Respuesta de {@link IPartidaRemota#registrarJugador}: el token de sesión si el jugador entró
+ * a la sala, o el motivo por el que no (sala llena, partida ya empezada), igual que
+ * {@link ResultadoComando}: sin excepciones para un rechazo normal.
+ */
+public class ResultadoRegistro implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final byte OK = -1;
+
+    private final byte codigo;   // OK o el ordinal de MotivoRechazo
+    private final String token;  // Solo si fue OK
+
+    private ResultadoRegistro(byte codigo, String token) {
+        this.codigo = codigo;
+        this.token = token;
+    }
+
+    static ResultadoRegistro ok(String token) {
+        return new ResultadoRegistro(OK, token);
+    }
+
+    static ResultadoRegistro rechazo(MotivoRechazo motivo) {
+        return new ResultadoRegistro((byte) motivo.ordinal(), null);
+    }
+
+    // Acceso compacto para CodecBinario
+    static ResultadoRegistro desdeCodigo(byte codigo, String token) {
+        return new ResultadoRegistro(codigo, token);
+    }
+
+    byte getCodigo() {
+        return codigo;
+    }
+
+    public boolean isOk() {
+        return codigo == OK;
+    }
+
+    /** @return El token para reconectar más tarde, o null si el registro fue rechazado. */
+    public String getToken() {
+        return token;
+    }
+
+    /** @return El motivo del rechazo, o null si el jugador entró a la sala. */
+    public MotivoRechazo getMotivo() {
+        return isOk() ? null : MotivoRechazo.getMotivo(codigo);
+    }
+
+    /** @return Texto listo para mostrarle al usuario (vacío si fue OK). */
+    public String getMensaje() {
+        return isOk() ? "" : getMotivo().getMensaje();
+    }
+}
@@ -1,52 +1,761 @@
 package Modelo;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.ZoneId;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
 
+/**
+ * Ranking de victorias: una {@link TablaPosiciones} mapeada en memoria ({@code ranking_uno.tabla})
+ * más un log de solo agregado para lo que todavía no se bajó a disco.
+ * <p>
+ * Cada victoria se aplica directo en la tabla (que ya es el archivo) y recibe un LSN, un número de
+ * secuencia. El registro de la victoria se agrega a {@code ranking_uno.<primer LSN>.log}: el registro
+ * i-ésimo del log es el de LSN {@code primero + i}. Cuando el log acumula {@value #UMBRAL_CHECKPOINT}
+ * registros se abre uno nuevo, se baja la tabla a disco (fsync del mapeo) y se anota en su cabecera
+ * el último LSN cubierto (checkpoint); recién entonces se borran los logs viejos.
+ * <p>
+ * Al arrancar se mapea la tabla (O(1), no se lee ningún jugador) y se reaplican los registros de los
+ * logs con LSN posterior al checkpoint: cada ficha recuerda el LSN de su última victoria, así que
+ * lo que ya había llegado al archivo no se suma dos veces. Si el proceso no se cerró bien, antes se
+ * rearman los índices de la tabla desde las fichas (O(n), solo en ese caso). Un registro cortado a la
+ * mitad o con CRC inválido (el servidor se cayó escribiendo) marca el final del log y se descarta.
+ * <p>
+ * Si no hay tabla pero están los formatos anteriores (foto {@code ranking_uno.snap} + logs por
+ * generación, o el {@code ranking_uno.dat} con el HashMap serializado), se vuelcan a una tabla nueva
+ * y quedan renombrados como {@code .migrado}.
+ * <p>
+ * Registro del log: {@code [int crc32][long instante ms][byte largo][nombre UTF-8, hasta 51 bytes]}.
+ * Los nombres más largos se recortan (en un límite de carácter) tanto en la tabla como en el log.
+ * <p>
+ * Escritura diferida: {@link #registrarVictoria} solo actualiza la tabla y encola el registro.
+ * Un hilo escritor junta lo encolado (como mucho {@code uno.ranking.lote} registros, esperando
+ * hasta {@code uno.ranking.intervaloMs} a que se sumen más), lo escribe de una vez y hace un
+ * único fsync por lote. El fin de partida no espera al disco; a cambio, si la máquina se cae,
+ * se pueden perder las victorias de la última ventana. {@link #cerrar()} vacía la cola antes de salir.
+ * Si falla la escritura de un lote, el log se recorta a su último registro completo y se reintenta;
+ * si tampoco se puede, se sigue en un log nuevo, así ningún registro queda con el LSN corrido.
+ * <p>
+ * Concurrencia (varias mesas terminando a la vez y todos sus clientes pidiendo el ranking):
+ * las victorias se suman con un {@link StampedLock} exclusivo, un tramo corto que no toca el disco.
+ * El top 5 se publica como una lista inmutable en un campo volátil, y solo se rearma cuando la
+ * victoria movió algo de los primeros puestos: {@link #getTop5()} no toma ningún lock.
+ * Páginas, posiciones y cantidad leen la tabla de forma optimista y solo si justo hubo una
+ * escritura en el medio repiten con el lock de lectura.
+ * <p>
+ * Ventanas de tiempo ({@link VentanaRanking}): además del histórico hay una tabla para el día
+ * ({@code ranking_uno.dia.tabla}) y otra para la semana ({@code ranking_uno.semana.tabla}), con el
+ * mismo formato y los mismos LSN. Cada victoria suma en las tres; cuando llega la primera de un
+ * período nuevo, la tabla de esa ventana se vacía y pasa a ese período. Así cada top por ventana
+ * sale de contadores ya agregados, nunca de recorrer partidas viejas, y se publica igual que el
+ * top histórico. Al reaplicar el log, el instante de cada registro dice a qué período pertenece.
+ * Los días se cuentan en la zona horaria del servidor. Lo migrado de formatos anteriores solo
+ * entra al histórico (no tenía fechas).
+ */
 public class SerializadorRanking implements Serializable {
-    private static final String ARCHIVO_RANKING = "ranking_uno.dat";
-    private Map<String, Integer> puntuaciones;
+    private static final String ARCHIVO_TABLA = "ranking_uno.tabla";
+    private static final String ARCHIVO_TABLA_DIA = "ranking_uno.dia.tabla";
+    private static final String ARCHIVO_TABLA_SEMANA = "ranking_uno.semana.tabla";
+    private static final String ARCHIVO_CERROJO = "ranking_uno.lock";
+    private static final String ARCHIVO_LEGADO = "ranking_uno.dat";
+    private static final String ARCHIVO_FOTO = "ranking_uno.snap";
+    private static final Pattern ARCHIVO_LOG = Pattern.compile("ranking_uno\\.(\\d+)\\.log");
+
+    static final int TAMANIO_REGISTRO = 64;
+    static final int LARGO_MAXIMO_NOMBRE = TAMANIO_REGISTRO - 4 - 8 - 1;
+    private static final int UMBRAL_CHECKPOINT = 10_000;
+    private static final int INTENTOS_LOG = 3;
+    private static final int TOP = 5;
+    private static final VentanaRanking[] VENTANAS_CON_PERIODO = {VentanaRanking.DIA, VentanaRanking.SEMANA};
+    private static final int MAGIA_FOTO = 0x554E4F52; // "UNOR"
+    private static final int VERSION_FOTO = 1;
+
+    public static final String PROPIEDAD_INTERVALO = "uno.ranking.intervaloMs";
+    public static final String PROPIEDAD_LOTE = "uno.ranking.lote";
+    private static final long INTERVALO_POR_DEFECTO_MS = 20;
+    private static final int LOTE_POR_DEFECTO = 1024;
+
+    // Una victoria que todavía no llegó al log
+    private record Pendiente(String nombre, long instante) {
+    }
+
+    // Qué hacer con cada registro válido de un log (indice = posición dentro del archivo)
+    private interface LectorRegistro {
+        void leer(Pendiente victoria, long indice) throws IOException;
+    }
+
+    // Top publicado de una ventana; después de 'vigenteHasta' (fin de su período) queda vacío
+    private record Top(long vigenteHasta, List<String> filas) {
+    }
+
+    // Rankings abiertos con compartido(), por directorio (y cuántas mesas usan cada uno)
+    private static final Map<Path, SerializadorRanking> COMPARTIDOS = new HashMap<>();
+    private transient int usuarios;
+
+    private final Path directorio;
+    private transient FileLock cerrojoArchivo;
+    private transient TablaPosiciones tabla;     // Histórico
+    private transient TablaPosiciones[] tablas;  // Por ventana (la del histórico es 'tabla')
+    private final ZoneId zona = ZoneId.systemDefault();
+    private boolean cerrado; // Protegido, como las tablas, por cerrojoTabla
+
+    // Escribir las tablas es exclusivo; leerlas es optimista (ver leer)
+    private final transient StampedLock cerrojoTabla = new StampedLock();
+    private volatile Top[] tops = new Top[VentanaRanking.values().length];
+
+    // Cola de escritura (protegida por el lock de este objeto)
+    private List<Pendiente> pendientes = new ArrayList<>();
+    private boolean cerrando;
+    private final long intervaloMs;
+    private final int maxLote;
+
+    // Log abierto: LSN de su primer registro, canal y registros escritos (solo los toca el escritor)
+    private long inicioLog;
+    private transient FileChannel log;
+    private int registrosEnLog;
+
+    private ByteBuffer lote = ByteBuffer.allocate(TAMANIO_REGISTRO * 64);
+    private transient Thread escritor;
 
     public SerializadorRanking() {
-        this.puntuaciones = cargarRanking();
+        this(Paths.get(""));
     }
 
-    // Suma una victoria al jugador y guarda en disco
-    public synchronized void registrarVictoria(String nombre) {
-        puntuaciones.put(nombre, puntuaciones.getOrDefault(nombre, 0) + 1);
-        guardarRanking();
+    private SerializadorRanking(Path directorio) {
+        this(directorio, Long.getLong(PROPIEDAD_INTERVALO, INTERVALO_POR_DEFECTO_MS),
+                Integer.getInteger(PROPIEDAD_LOTE, LOTE_POR_DEFECTO));
     }
 
-    // Devuelve el Top 5 formateado como texto
-    public synchronized List<String> getTop5() {
-        return puntuaciones.entrySet().stream()
-                .sorted((a, b) -> b.getValue().compareTo(a.getValue())) // Ordenar descendente
-                .limit(5) // Solo los 5 mejores
-                .map(e -> e.getKey() + " - " + e.getValue() + " Victorias")
-                .collect(Collectors.toList());
+    /**
+     * El ranking del directorio actual, compartido por todas las mesas de este proceso
+     * (la tabla es un archivo mapeado: dos instancias sobre el mismo archivo se pisarían).
+     * Cada mesa que lo pide tiene que llamar a {@link #cerrar()}; se cierra de verdad con la última.
+     */
+    public static SerializadorRanking compartido() {
+        Path directorio = Paths.get("").toAbsolutePath();
+        synchronized (COMPARTIDOS) {
+            SerializadorRanking ranking = COMPARTIDOS.computeIfAbsent(directorio, SerializadorRanking::new);
+            ranking.usuarios++;
+            return ranking;
+        }
     }
 
-    // Guarda el Map en un archivo
-    private void guardarRanking() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(ARCHIVO_RANKING))) {
-            oos.writeObject(puntuaciones);
+    /**
+     * @param directorio  Dónde están (o van) la tabla y los logs del ranking.
+     * @param intervaloMs Cuánto espera el escritor a que se junten más victorias antes de escribir
+     *                    (0 = escribe apenas hay algo; igual agrupa lo que se encoló mientras escribía).
+     * @param maxLote     Máximo de registros por escritura + fsync.
+     */
+    public SerializadorRanking(Path directorio, long intervaloMs, int maxLote) {
+        this.directorio = directorio.toAbsolutePath();
+        this.intervaloMs = intervaloMs;
+        this.maxLote = Math.max(1, maxLote);
+        try {
+            tomarDirectorio();
+            recuperar();
         } catch (IOException e) {
-            System.err.println("Error al guardar ranking: " + e.getMessage());
+            if (cerrojoArchivo != null) {
+                try {
+                    cerrojoArchivo.channel().close(); // Suelta también el lock
+                } catch (IOException ignorada) {
+                }
+            }
+            throw new UncheckedIOException("No se pudo abrir el ranking en " + this.directorio, e);
         }
+        escritor = new Thread(this::escribirEnSegundoPlano, "uno-ranking-escritor");
+        escritor.setDaemon(true);
+        escritor.start();
     }
 
-    // Carga el Map desde el archivo (o crea uno nuevo si no existe)
-    @SuppressWarnings("unchecked")
-    private Map<String, Integer> cargarRanking() {
-        File archivo = new File(ARCHIVO_RANKING);
-        if (!archivo.exists()) {
-            return new HashMap<>();
+    // Suma una victoria al jugador; el registro va a disco en segundo plano
+    public void registrarVictoria(String nombre) {
+        nombre = normalizarNombre(nombre);
+        long instante = System.currentTimeMillis();
+        long sello = cerrojoTabla.writeLock();
+        try {
+            if (cerrado) {
+                System.err.println("Ranking cerrado: no se registra la victoria de " + nombre);
+                return;
+            }
+            long lsn;
+            try {
+                lsn = tabla.sumarVictoria(nombre); // Es el LSN del registro que se encola
+            } catch (IOException e) {
+                System.err.println("Error al guardar ranking: " + e.getMessage());
+                return;
+            }
+            if (tabla.getUltimoLugar() < TOP) {
+                publicarTop(VentanaRanking.HISTORICO);
+            }
+            byte[] bytes = nombre.getBytes(StandardCharsets.UTF_8);
+            for (VentanaRanking ventana : VENTANAS_CON_PERIODO) {
+                try {
+                    if (sumarEnVentana(ventana, bytes, lsn, instante)) {
+                        publicarTop(ventana);
+                    }
+                } catch (IOException e) {
+                    // El registro igual se encola: el LSN ya se usó en el histórico
+                    System.err.println("Error al guardar ranking " + ventana + ": " + e.getMessage());
+                }
+            }
+            // Se encola sin soltar la tabla: el orden de la cola es el orden de los LSN
+            synchronized (this) {
+                pendientes.add(new Pendiente(nombre, instante));
+                if (pendientes.size() == 1 || pendientes.size() >= maxLote) {
+                    notifyAll(); // Despierta al escritor (llegó el primero o ya hay un lote lleno)
+                }
+            }
+        } finally {
+            cerrojoTabla.unlockWrite(sello);
+        }
+    }
+
+    // Devuelve el Top 5 histórico formateado como texto (la última foto publicada, sin lock)
+    public List<String> getTop5() {
+        return getTop5(VentanaRanking.HISTORICO);
+    }
+
+    /**
+     * Top 5 de una ventana de tiempo, con el mismo costo que el histórico: la foto publicada.
+     * Si su período ya terminó y todavía nadie ganó en el nuevo, está vacío.
+     */
+    public List<String> getTop5(VentanaRanking ventana) {
+        Top top = tops[ventana.ordinal()];
+        return System.currentTimeMillis() < top.vigenteHasta() ? top.filas() : List.of();
+    }
+
+    /**
+     * Un tramo de la tabla completa, con el puesto adelante (ej: "12. ana - 3 Victorias").
+     *
+     * @param desde    Primera fila (0 = el primero de la tabla).
+     * @param cantidad Cuántas filas como mucho.
+     */
+    public List<String> getPagina(int desde, int cantidad) {
+        return leer(() -> {
+            List<String> pagina = new ArrayList<>(Math.max(0, Math.min(cantidad, tabla.size() - desde)));
+            for (TablaPosiciones.Fila fila : tabla.getPagina(desde, cantidad)) {
+                pagina.add(fila.posicion() + ". " + fila.nombre() + " - " + fila.victorias() + " Victorias");
+            }
+            return pagina;
+        });
+    }
+
+    /**
+     * Puesto del jugador en la tabla (1 = el que más ganó, empatados comparten), o 0 si nunca ganó.
+     */
+    public int getPosicion(String nombre) {
+        String normalizado = normalizarNombre(nombre);
+        return leer(() -> tabla.getPosicion(normalizado));
+    }
+
+    public int getCantidadJugadores() {
+        return leer(tabla::size);
+    }
+
+    /**
+     * Consulta la tabla sin lock y confirma después que nadie escribió en el medio; si hubo una
+     * escritura (o la consulta vio una a medias y falló), la repite con el lock de lectura.
+     */
+    private <T> T leer(Supplier<T> consulta) {
+        long sello = cerrojoTabla.tryOptimisticRead();
+        if (sello != 0) {
+            try {
+                T resultado = consulta.get();
+                if (cerrojoTabla.validate(sello)) return resultado;
+            } catch (RuntimeException e) {
+                // Leyó una escritura a medias: se repite abajo con el lock
+            }
+        }
+        sello = cerrojoTabla.readLock();
+        try {
+            return consulta.get();
+        } finally {
+            cerrojoTabla.unlockRead(sello);
+        }
+    }
+
+    // Con el lock de escritura tomado: arma la foto del top de la ventana que leen todos sin lock
+    private void publicarTop(VentanaRanking ventana) {
+        TablaPosiciones tablaVentana = tablas[ventana.ordinal()];
+        List<String> filas = new ArrayList<>(TOP);
+        for (TablaPosiciones.Fila fila : tablaVentana.getTop(TOP)) {
+            filas.add(fila.nombre() + " - " + fila.victorias() + " Victorias");
+        }
+        Top[] nuevos = tops.clone();
+        nuevos[ventana.ordinal()] = new Top(ventana.finDe(tablaVentana.getPeriodo(), zona), List.copyOf(filas));
+        tops = nuevos;
+    }
+
+    /**
+     * Suma la victoria en la tabla de una ventana con período (día o semana). Si la victoria es de
+     * un período posterior al de la tabla, primero la vacía; si es de uno anterior (al reaplicar
+     * el log), no cuenta.
+     *
+     * @return true si cambió el top de esa ventana.
+     */
+    private boolean sumarEnVentana(VentanaRanking ventana, byte[] nombre, long lsn, long instante)
+            throws IOException {
+        TablaPosiciones tablaVentana = tablas[ventana.ordinal()];
+        long periodo = ventana.periodo(instante, zona);
+        if (periodo < tablaVentana.getPeriodo() || lsn <= tablaVentana.getCheckpoint()) return false;
+        boolean nuevoPeriodo = periodo > tablaVentana.getPeriodo();
+        if (nuevoPeriodo) {
+            tablaVentana.vaciar(periodo);
+        }
+        return tablaVentana.aplicar(nombre, lsn) && (nuevoPeriodo || tablaVentana.getUltimoLugar() < TOP);
+    }
+
+    /**
+     * Vacía la cola al disco, baja la tabla, la marca como bien cerrada y borra los logs.
+     * Después de cerrar no se registran más victorias.
+     */
+    public void cerrar() {
+        synchronized (COMPARTIDOS) {
+            if (usuarios > 1) {
+                usuarios--; // Otras mesas lo siguen usando
+                return;
+            }
+            usuarios = 0;
+            COMPARTIDOS.remove(directorio, this);
+        }
+        synchronized (this) {
+            cerrando = true;
+            notifyAll();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            cerrojoArchivo.release();
+            cerrojoArchivo.channel().close();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar ranking: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lock de archivo sobre el directorio del ranking: si ya lo tiene abierto otro proceso
+     * (u otra instancia en este), falla en lugar de mapear la misma tabla dos veces.
+     */
+    private void tomarDirectorio() throws IOException {
+        FileChannel canal = FileChannel.open(directorio.resolve(ARCHIVO_CERROJO),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            cerrojoArchivo = canal.tryLock();
+        } catch (OverlappingFileLockException e) {
+            cerrojoArchivo = null;
+        }
+        if (cerrojoArchivo == null) {
+            canal.close();
+            throw new IOException("el ranking ya está abierto por otro proceso o instancia");
+        }
+    }
+
+    /**
+     * Recorta el nombre a lo que entra en un registro, sin partir un carácter.
+     */
+    static String normalizarNombre(String nombre) {
+        byte[] bytes = nombre.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= LARGO_MAXIMO_NOMBRE) return nombre;
+        int fin = nombre.length();
+        while (nombre.substring(0, fin).getBytes(StandardCharsets.UTF_8).length > LARGO_MAXIMO_NOMBRE) {
+            fin = nombre.offsetByCodePoints(fin, -1);
+        }
+        return nombre.substring(0, fin);
+    }
+
+    //-------------------------------------------------------------------------
+    // LOG
+    //-------------------------------------------------------------------------
+
+    /**
+     * Bucle del hilo escritor: espera un lote, lo escribe con un solo fsync y, si el log se llenó,
+     * hace un checkpoint. Cuando se está cerrando y no queda nada en la cola, cierra la tabla.
+     */
+    private void escribirEnSegundoPlano() {
+        while (true) {
+            List<Pendiente> aEscribir;
+            synchronized (this) {
+                try {
+                    esperarLote();
+                } catch (InterruptedException e) {
+                    cerrando = true; // Nos interrumpieron: vaciamos lo que haya y salimos
+                }
+                if (pendientes.isEmpty() && cerrando) break;
+
+                if (pendientes.size() <= maxLote) {
+                    aEscribir = pendientes;
+                    pendientes = new ArrayList<>();
+                } else {
+                    aEscribir = new ArrayList<>(pendientes.subList(0, maxLote));
+                    pendientes.subList(0, maxLote).clear();
+                }
+            }
+            try {
+                escribirLote(aEscribir);
+                if (registrosEnLog >= UMBRAL_CHECKPOINT) {
+                    checkpoint();
+                }
+            } catch (IOException e) {
+                System.err.println("Error al guardar ranking: " + e.getMessage());
+            }
+        }
+        try {
+            // Cierre prolijo: con todo en disco y la tabla marcada limpia, los logs sobran
+            long sello = cerrojoTabla.writeLock();
+            try {
+                cerrado = true;
+                long ultimo = tabla.getUltimoLsn();
+                for (TablaPosiciones t : tablas) {
+                    t.getMapeo().force();
+                    t.fijarCheckpoint(ultimo, true);
+                }
+            } finally {
+                cerrojoTabla.unlockWrite(sello);
+            }
+            log.close();
+            borrarLogsAntesDe(Long.MAX_VALUE);
+        } catch (IOException e) {
+            System.err.println("Error al cerrar ranking: " + e.getMessage());
+        }
+    }
+
+    // Espera (con el lock tomado) a que haya algo y, después, la ventana de agrupamiento
+    private void esperarLote() throws InterruptedException {
+        while (pendientes.isEmpty() && !cerrando) {
+            wait();
+        }
+        long limite = System.nanoTime() + intervaloMs * 1_000_000;
+        long restante;
+        while (!cerrando && pendientes.size() < maxLote && (restante = limite - System.nanoTime()) > 0) {
+            wait(Math.max(1, restante / 1_000_000));
         }
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(archivo))) {
-            return (Map<String, Integer>) ois.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            return new HashMap<>();
+    }
+
+    // Todos los registros del lote en un buffer, una escritura y un fsync
+    private void escribirLote(List<Pendiente> victorias) throws IOException {
+        int largo = victorias.size() * TAMANIO_REGISTRO;
+        if (lote.capacity() < largo) {
+            lote = ByteBuffer.allocate(Math.max(largo, lote.capacity() * 2));
+        }
+        lote.clear();
+        Arrays.fill(lote.array(), 0, largo, (byte) 0); // Relleno en cero después de cada nombre
+        CRC32 crc = new CRC32();
+        for (Pendiente victoria : victorias) {
+            int inicio = lote.position();
+            byte[] bytes = victoria.nombre().getBytes(StandardCharsets.UTF_8);
+            lote.putInt(0); // CRC, se completa abajo
+            lote.putLong(victoria.instante());
+            lote.put((byte) bytes.length);
+            lote.put(bytes);
+            crc.reset();
+            crc.update(lote.array(), inicio + 4, TAMANIO_REGISTRO - 4);
+            lote.putInt(inicio, (int) crc.getValue());
+            lote.position(inicio + TAMANIO_REGISTRO);
+        }
+        lote.flip();
+        for (int intento = 1; ; intento++) {
+            try {
+                lote.position(0);
+                while (lote.hasRemaining()) {
+                    log.write(lote);
+                }
+                log.force(false);
+                registrosEnLog += victorias.size();
+                return;
+            } catch (IOException e) {
+                if (intento == INTENTOS_LOG) {
+                    // Se pierde el lote: lo que sigue va a un log propio, así no hereda estos LSN
+                    rotarLog(inicioLog + registrosEnLog + victorias.size());
+                    throw e;
+                }
+                System.err.println("Ranking: falló la escritura del log, se reintenta: " + e.getMessage());
+                deshacerLote();
+            }
+        }
+    }
+
+    /**
+     * Deja el log en su último registro completo (una escritura fallida pudo dejar parte del lote):
+     * el registro i-ésimo tiene que seguir siendo el LSN {@code inicioLog + i}. Si ni eso se puede,
+     * sigue en un log nuevo que arranca en el primer LSN sin escribir.
+     */
+    private void deshacerLote() throws IOException {
+        try {
+            log.truncate((long) registrosEnLog * TAMANIO_REGISTRO);
+        } catch (IOException e) {
+            rotarLog(inicioLog + registrosEnLog);
+        }
+    }
+
+    // Cierra el log actual (su cola dañada, si quedó, se descarta al recuperar) y abre uno desde primerLsn
+    private void rotarLog(long primerLsn) throws IOException {
+        try {
+            log.close();
+        } catch (IOException ignorada) {
+        }
+        if (primerLsn == inicioLog) {
+            Files.deleteIfExists(archivoLog(primerLsn)); // No tenía ningún registro completo
+        }
+        inicioLog = primerLsn;
+        registrosEnLog = 0;
+        log = abrirLog(primerLsn);
+    }
+
+    /**
+     * Pasa cada registro válido de un log al lector. Si encuentra un registro incompleto o
+     * corrupto, corta el archivo ahí (lo que sigue se escribió durante una caída).
+     *
+     * @return La cantidad de registros válidos.
+     */
+    private long reproducirLog(Path archivo, LectorRegistro lector) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer lectura = ByteBuffer.allocate(TAMANIO_REGISTRO * 256);
+            long validos = 0;
+            boolean corrupto = false;
+            while (!corrupto && canal.read(lectura) > 0) {
+                lectura.flip();
+                while (lectura.remaining() >= TAMANIO_REGISTRO) {
+                    Pendiente victoria = leerRegistro(lectura);
+                    if (victoria == null) {
+                        corrupto = true;
+                        break;
+                    }
+                    lector.leer(victoria, validos++);
+                }
+                lectura.compact();
+            }
+            if (canal.size() != validos * TAMANIO_REGISTRO) {
+                System.err.println("Ranking: se descarta la cola dañada de " + archivo.getFileName());
+                canal.truncate(validos * TAMANIO_REGISTRO);
+            }
+            return validos;
+        }
+    }
+
+    // Victoria del registro en la posición actual, o null si el CRC no coincide
+    private static Pendiente leerRegistro(ByteBuffer lectura) {
+        int inicio = lectura.position();
+        CRC32 crc = new CRC32();
+        crc.update(lectura.array(), inicio + 4, TAMANIO_REGISTRO - 4);
+        int esperado = lectura.getInt();
+        long instante = lectura.getLong();
+        int largo = lectura.get() & 0xFF;
+        lectura.position(inicio + TAMANIO_REGISTRO);
+        if ((int) crc.getValue() != esperado || largo > LARGO_MAXIMO_NOMBRE) {
+            return null;
+        }
+        return new Pendiente(new String(lectura.array(), inicio + 13, largo, StandardCharsets.UTF_8), instante);
+    }
+
+    private FileChannel abrirLog(long primerLsn) throws IOException {
+        return FileChannel.open(archivoLog(primerLsn), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // En el formato actual el número es el LSN del primer registro; en el anterior, la generación
+    private Path archivoLog(long numero) {
+        return directorio.resolve("ranking_uno." + numero + ".log");
+    }
+
+    private void borrarLogsAntesDe(long numero) throws IOException {
+        for (long n : numerosDeLog()) {
+            if (n < numero) Files.deleteIfExists(archivoLog(n));
+        }
+    }
+
+    private List<Long> numerosDeLog() throws IOException {
+        List<Long> numeros = new ArrayList<>();
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, "ranking_uno.*.log")) {
+            for (Path archivo : archivos) {
+                Matcher m = ARCHIVO_LOG.matcher(archivo.getFileName().toString());
+                if (m.matches()) numeros.add(Long.parseLong(m.group(1)));
+            }
+        }
+        Collections.sort(numeros);
+        return numeros;
+    }
+
+    //-------------------------------------------------------------------------
+    // CHECKPOINT
+    //-------------------------------------------------------------------------
+
+    /**
+     * Pasa a un log nuevo, baja las tablas a disco y anota en sus cabeceras hasta qué LSN están
+     * cubiertas; recién ahí borra los logs viejos. Los registros del log que se cierra ya estaban
+     * aplicados en las tablas antes de encolarse, así que el fsync los incluye. El fsync se hace sin
+     * el lock: la partida sigue sumando victorias mientras tanto (esas tienen LSN mayor y van al log nuevo).
+     */
+    private void checkpoint() throws IOException {
+        long hasta = inicioLog + registrosEnLog - 1;
+        log.close();
+        inicioLog = hasta + 1;
+        log = abrirLog(inicioLog);
+        registrosEnLog = 0;
+
+        MappedByteBuffer[] mapeos = new MappedByteBuffer[tablas.length];
+        long sello = cerrojoTabla.readLock();
+        try {
+            for (int i = 0; i < tablas.length; i++) {
+                mapeos[i] = tablas[i].getMapeo();
+            }
+        } finally {
+            cerrojoTabla.unlockRead(sello);
+        }
+        for (MappedByteBuffer mapeo : mapeos) {
+            mapeo.force();
+        }
+        sello = cerrojoTabla.writeLock();
+        try {
+            // Si una tabla creció o se vació mientras tanto, su archivo nuevo se bajó entero al crearse
+            for (TablaPosiciones t : tablas) {
+                t.fijarCheckpoint(hasta, false);
+            }
+        } finally {
+            cerrojoTabla.unlockWrite(sello);
+        }
+        borrarLogsAntesDe(inicioLog);
+    }
+
+    //-------------------------------------------------------------------------
+    // ARRANQUE
+    //-------------------------------------------------------------------------
+
+    /**
+     * Mapea las tablas (o arma la histórica desde un formato anterior), reaplica lo que quedó en
+     * los logs después del último checkpoint de cada una, hace un checkpoint y abre un log nuevo.
+     */
+    private void recuperar() throws IOException {
+        Path archivoTabla = directorio.resolve(ARCHIVO_TABLA);
+        if (!Files.exists(archivoTabla)) {
+            migrar(archivoTabla);
+        }
+        tablas = new TablaPosiciones[VentanaRanking.values().length];
+        tablas[VentanaRanking.DIA.ordinal()] = abrirTabla(ARCHIVO_TABLA_DIA);
+        tablas[VentanaRanking.SEMANA.ordinal()] = abrirTabla(ARCHIVO_TABLA_SEMANA);
+        tablas[VentanaRanking.HISTORICO.ordinal()] = abrirTabla(ARCHIVO_TABLA);
+        tabla = tablas[VentanaRanking.HISTORICO.ordinal()];
+
+        long checkpoint = tabla.getCheckpoint();
+        long reaplicadas = 0;
+        for (long primero : numerosDeLog()) {
+            long[] sumadas = {0};
+            reproducirLog(archivoLog(primero), (victoria, i) -> {
+                long lsn = primero + i;
+                byte[] nombre = victoria.nombre().getBytes(StandardCharsets.UTF_8);
+                if (lsn > checkpoint && tabla.aplicar(nombre, lsn)) {
+                    sumadas[0]++;
+                }
+                for (VentanaRanking ventana : VENTANAS_CON_PERIODO) {
+                    sumarEnVentana(ventana, nombre, lsn, victoria.instante());
+                }
+            });
+            reaplicadas += sumadas[0];
+        }
+        if (reaplicadas > 0) {
+            System.out.println("Ranking: " + reaplicadas + " victorias reaplicadas desde el log.");
+        }
+
+        long ultimo = tabla.getUltimoLsn();
+        for (TablaPosiciones t : tablas) {
+            t.getMapeo().force();
+            t.fijarCheckpoint(ultimo, false); // En uso: si se corta, no está limpia
+        }
+        borrarLogsAntesDe(Long.MAX_VALUE);
+        inicioLog = ultimo + 1;
+        log = abrirLog(inicioLog);
+        registrosEnLog = 0;
+        for (VentanaRanking ventana : VentanaRanking.values()) {
+            publicarTop(ventana);
+        }
+    }
+
+    private TablaPosiciones abrirTabla(String nombreArchivo) throws IOException {
+        TablaPosiciones abierta = TablaPosiciones.abrir(directorio.resolve(nombreArchivo));
+        if (!abierta.isLimpia()) {
+            System.err.println("Ranking: " + nombreArchivo + " no se cerró bien, se rearman sus índices");
+            abierta.reconstruir();
+        }
+        return abierta;
+    }
+
+    /**
+     * Primer arranque sin tabla: vuelca la foto + logs por generación, o el HashMap serializado del
+     * formato original, a una tabla nueva. Se arma con otro nombre y se renombra al final, así una
+     * migración cortada a la mitad se repite entera en el próximo arranque.
+     */
+    private void migrar(Path archivoTabla) throws IOException {
+        Map<String, Integer> totales = new HashMap<>();
+        Path foto = directorio.resolve(ARCHIVO_FOTO);
+        Path legado = directorio.resolve(ARCHIVO_LEGADO);
+        String origen;
+        if (Files.exists(foto)) {
+            long hasta = leerFoto(foto, totales);
+            for (long generacion : numerosDeLog()) {
+                if (generacion > hasta) {
+                    reproducirLog(archivoLog(generacion), (victoria, i) -> totales.merge(victoria.nombre(), 1, Integer::sum));
+                }
+            }
+            origen = ARCHIVO_FOTO;
+        } else if (Files.exists(legado)) {
+            leerLegado(legado, totales);
+            origen = ARCHIVO_LEGADO;
+        } else {
+            return; // Ranking nuevo: TablaPosiciones.abrir crea la tabla vacía
+        }
+
+        Path temporal = directorio.resolve(ARCHIVO_TABLA + ".migrando");
+        Files.deleteIfExists(temporal);
+        TablaPosiciones nueva = TablaPosiciones.abrir(temporal);
+        for (Map.Entry<String, Integer> e : totales.entrySet()) {
+            nueva.agregar(e.getKey(), e.getValue());
+        }
+        nueva.reconstruir();
+        nueva.getMapeo().force();
+        nueva.fijarCheckpoint(0, true);
+        Files.move(temporal, archivoTabla, StandardCopyOption.ATOMIC_MOVE);
+
+        borrarLogsAntesDe(Long.MAX_VALUE); // Son del formato por generación
+        Path original = directorio.resolve(origen);
+        Files.move(original, original.resolveSibling(origen + ".migrado"), StandardCopyOption.REPLACE_EXISTING);
+        System.out.println("Ranking migrado de " + origen + " (" + totales.size() + " jugadores).");
+    }
+
+    // Foto del formato anterior; devuelve la generación hasta la que incluye
+    private static long leerFoto(Path foto, Map<String, Integer> totales) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(foto)))) {
+            if (in.readInt() != MAGIA_FOTO || in.readInt() != VERSION_FOTO) {
+                throw new IOException("Formato de foto desconocido: " + foto);
+            }
+            long hasta = in.readLong();
+            int cantidad = in.readInt();
+            for (int i = 0; i < cantidad; i++) {
+                totales.put(in.readUTF(), in.readInt());
+            }
+            return hasta;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void leerLegado(Path legado, Map<String, Integer> totales) throws IOException {
+        try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(legado))) {
+            Map<String, Integer> viejo = (Map<String, Integer>) ois.readObject();
+            viejo.forEach((nombre, victorias) -> totales.merge(normalizarNombre(nombre), victorias, Integer::sum));
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("No se pudo leer " + ARCHIVO_LEGADO + ": " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
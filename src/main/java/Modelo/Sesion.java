@@ -0,0 +1,44 @@
+package Modelo;
+
+import ar.edu.unlu.rmimvc.observer.IObservadorRemoto;
+
+/**
+ * Sesión de un jugador en la mesa.
+ * <p>
+ * Se crea al registrarse y se identifica con un token opaco que el cliente guarda.
+ * Si la conexión se corta, el cliente presenta el token para recuperar su asiento
+ * en lugar de volver a pasar por la sala de espera.
+ */
+class Sesion {
+
+    private final String token;
+    private final String nombreJugador;
+
+    // Último observador (callback) con el que se conectó el cliente. Al reconectar
+    // se reemplaza para no seguir notificando a un stub muerto.
+    private IObservadorRemoto observador;
+
+    // Deduplicación de comandos: última secuencia aplicada y su resultado,
+    // para responder igual si el cliente reintenta tras un timeout.
+    private long ultimaSecuenciaComando = 0;
+    private ResultadoComando ultimoResultado;
+
+    Sesion(String token, String nombreJugador) {
+        this.token = token;
+        this.nombreJugador = nombreJugador;
+    }
+
+    String getToken() { return token; }
+    String getNombreJugador() { return nombreJugador; }
+
+    IObservadorRemoto getObservador() { return observador; }
+    void setObservador(IObservadorRemoto observador) { this.observador = observador; }
+
+    long getUltimaSecuenciaComando() { return ultimaSecuenciaComando; }
+    ResultadoComando getUltimoResultado() { return ultimoResultado; }
+
+    void registrarComando(long secuencia, ResultadoComando resultado) {
+        this.ultimaSecuenciaComando = secuencia;
+        this.ultimoResultado = resultado;
+    }
+}
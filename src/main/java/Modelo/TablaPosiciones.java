@@ -0,0 +1,530 @@
+package Modelo;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tabla de posiciones del ranking guardada en un archivo mapeado en memoria ({@code ranking_uno.tabla}).
+ * <p>
+ * Todo vive en el archivo, nada por jugador en el heap:
+ * <ul>
+ *   <li>Fichas de tamaño fijo ({@value #TAMANIO_FICHA} bytes), una por jugador, en orden de alta:
+ *       {@code [long lsn][int victorias][byte largo][nombre UTF-8]}.</li>
+ *   <li>Índice por nombre con direccionamiento abierto (sondeo lineal): celdas {@code int} con
+ *       {@code id + 1} (0 = libre), el doble de celdas que fichas para que las cadenas sean cortas.</li>
+ *   <li>La tabla ordenada: {@code orden} (ids de mayor a menor puntaje), {@code lugar} (índice de cada
+ *       id en {@code orden}) e {@code inicioGrupo} (primer índice de cada puntaje).</li>
+ * </ul>
+ * Como una victoria suma de a 1, sumarle al jugador {@code p} (con {@code s} victorias) es
+ * intercambiarlo con el primero de su grupo y correr un lugar el inicio del grupo {@code s}:
+ * queda como último del grupo {@code s+1}. Es O(1) y el arreglo sigue ordenado, así que el top N
+ * es O(N), la posición de un jugador es O(1) (los empatados comparten puesto) y una página es un tramo.
+ * Buscar o sumar toca solo las páginas de esa celda, esa ficha y esos lugares.
+ * <p>
+ * Abrir es O(1) sin importar cuántos jugadores haya: se mapea el archivo y se lee la cabecera.
+ * Cada ficha guarda el LSN (número de secuencia del log del ranking) de su última victoria, así
+ * reaplicar el log después de una caída no suma dos veces lo que ya había llegado al archivo.
+ * Si el proceso no cerró bien, el índice y la tabla ordenada (que ocupan varias páginas) pueden
+ * haber quedado a medio escribir: {@link #reconstruir()} los rearma desde las fichas, en O(n).
+ * <p>
+ * Al llenarse, el archivo se rehace con el doble de capacidad (copia + rehash, amortizado).
+ * Tope: {@value #MAX_CAPACIDAD} jugadores (un mapeo de hasta 2 GB).
+ * <p>
+ * No es thread-safe: {@link SerializadorRanking} escribe con un lock exclusivo y lee con lecturas
+ * optimistas (sin lock, validadas después). Por eso las consultas tienen que tolerar ver una
+ * escritura a medias: pueden devolver basura o tirar una excepción, pero siempre terminan.
+ */
+class TablaPosiciones {
+
+    // Una línea de la tabla
+    record Fila(int posicion, String nombre, int victorias) {
+    }
+
+    static final int TAMANIO_FICHA = 64;
+    static final int LARGO_MAXIMO_NOMBRE = TAMANIO_FICHA - 8 - 4 - 1;
+
+    private static final int MAGIA = 0x554E4F54; // "UNOT"
+    private static final int VERSION = 1;
+    private static final int CAPACIDAD_INICIAL = 1024;
+    private static final int PUNTAJES_INICIALES = 256;
+    private static final int MAX_CAPACIDAD = 1 << 24;
+
+    // Cabecera (una página)
+    private static final int CABECERA = 4096;
+    private static final int C_MAGIA = 0;
+    private static final int C_VERSION = 4;
+    private static final int C_CAPACIDAD = 8;
+    private static final int C_PUNTAJES = 12;
+    private static final int C_CANTIDAD = 16;
+    private static final int C_LIMPIA = 20;       // 1 = se cerró bien (índices confiables)
+    private static final int C_ULTIMO_LSN = 24;   // LSN de la última victoria aplicada
+    private static final int C_CHECKPOINT = 32;   // Todo lo de LSN <= esto ya está en disco
+    private static final int C_PERIODO = 40;      // Para tablas por ventana de tiempo (ver vaciar)
+
+    // Ficha
+    private static final int F_LSN = 0;
+    private static final int F_VICTORIAS = 8;
+    private static final int F_LARGO = 12;
+    private static final int F_NOMBRE = 13;
+
+    private final Path archivo;
+    private MappedByteBuffer datos;
+    private int capacidad;
+    private int capacidadPuntajes;
+    private int cantidad;
+    private int ultimoLugar; // Dónde quedó en la tabla ordenada el último que sumó
+
+    // Dónde empieza cada sección (dependen de las capacidades)
+    private int offCeldas;
+    private int mascaraCeldas;
+    private int offFichas;
+    private int offOrden;
+    private int offLugar;
+    private int offGrupos;
+
+    private TablaPosiciones(Path archivo) {
+        this.archivo = archivo;
+    }
+
+    /**
+     * Abre la tabla (o crea una vacía). No lee las fichas: solo la cabecera.
+     */
+    static TablaPosiciones abrir(Path archivo) throws IOException {
+        TablaPosiciones tabla = new TablaPosiciones(archivo);
+        if (Files.exists(archivo)) {
+            tabla.mapear(archivo, leerCapacidad(archivo, C_CAPACIDAD), leerCapacidad(archivo, C_PUNTAJES));
+            if (tabla.datos.getInt(C_MAGIA) != MAGIA || tabla.datos.getInt(C_VERSION) != VERSION) {
+                throw new IOException("Formato de tabla desconocido: " + archivo);
+            }
+            tabla.cantidad = tabla.datos.getInt(C_CANTIDAD);
+        } else {
+            tabla.crear(archivo, CAPACIDAD_INICIAL, PUNTAJES_INICIALES);
+            tabla.datos.putInt(C_LIMPIA, 1);
+            tabla.datos.force();
+        }
+        return tabla;
+    }
+
+    private static int leerCapacidad(Path archivo, int posicion) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            java.nio.ByteBuffer cabecera = java.nio.ByteBuffer.allocate(4);
+            canal.read(cabecera, posicion);
+            return cabecera.getInt(0);
+        }
+    }
+
+    //-------------------------------------------------------------------------
+    // VICTORIAS
+    //-------------------------------------------------------------------------
+
+    /**
+     * Suma una victoria con el siguiente LSN.
+     *
+     * @return El LSN asignado (el registro del log que le corresponde).
+     */
+    long sumarVictoria(String nombre) throws IOException {
+        long lsn = getUltimoLsn() + 1;
+        aplicar(nombre.getBytes(StandardCharsets.UTF_8), lsn);
+        return lsn;
+    }
+
+    /**
+     * Aplica la victoria {@code lsn} del log, salvo que la ficha ya la tenga (reaplicar es seguro).
+     *
+     * @return true si se sumó.
+     */
+    boolean aplicar(byte[] nombre, long lsn) throws IOException {
+        int id = buscar(nombre);
+        if (id < 0) {
+            id = alta(nombre);
+        } else if (datos.getLong(ficha(id) + F_LSN) >= lsn) {
+            return false;
+        }
+        incrementar(id);
+        datos.putLong(ficha(id) + F_LSN, lsn);
+        if (lsn > getUltimoLsn()) {
+            datos.putLong(C_ULTIMO_LSN, lsn);
+        }
+        return true;
+    }
+
+    /**
+     * Suma un total de una vez, sin mantener la tabla ordenada (para migrar datos viejos).
+     * Hay que llamar a {@link #reconstruir()} al terminar.
+     */
+    void agregar(String nombre, int total) throws IOException {
+        byte[] bytes = nombre.getBytes(StandardCharsets.UTF_8);
+        int id = buscar(bytes);
+        if (id < 0) id = alta(bytes);
+        int victorias = datos.getInt(ficha(id) + F_VICTORIAS) + total;
+        datos.putInt(ficha(id) + F_VICTORIAS, victorias);
+        if (victorias >= capacidadPuntajes) {
+            crecer(capacidad, Integer.highestOneBit(victorias) * 2);
+        }
+    }
+
+    // Un punto más: pasa a ser el primero de su grupo y queda como último del grupo de arriba
+    private void incrementar(int id) throws IOException {
+        int puntaje = victorias(id);
+        if (puntaje + 1 >= capacidadPuntajes) {
+            crecer(capacidad, capacidadPuntajes * 2);
+        }
+        int primero = inicioGrupo(puntaje);
+        int i = lugar(id);
+
+        int otro = orden(primero);
+        setOrden(primero, id);
+        setLugar(id, primero);
+        setOrden(i, otro);
+        setLugar(otro, i);
+
+        if (!grupoNoVacio(puntaje + 1)) {
+            setInicioGrupo(puntaje + 1, primero);
+        }
+        setInicioGrupo(puntaje, primero + 1);
+        datos.putInt(ficha(id) + F_VICTORIAS, puntaje + 1);
+        ultimoLugar = primero;
+    }
+
+    //-------------------------------------------------------------------------
+    // CONSULTAS
+    //-------------------------------------------------------------------------
+
+    int getVictorias(String nombre) {
+        int id = buscar(nombre.getBytes(StandardCharsets.UTF_8));
+        return id < 0 ? 0 : victorias(id);
+    }
+
+    /**
+     * Puesto del jugador (1 = el que más ganó; los empatados comparten puesto), o 0 si no tiene victorias.
+     */
+    int getPosicion(String nombre) {
+        int id = buscar(nombre.getBytes(StandardCharsets.UTF_8));
+        if (id < 0 || victorias(id) == 0) return 0;
+        return inicioGrupo(victorias(id)) + 1;
+    }
+
+    /**
+     * Filas de la {@code desde}-ésima (0 = primera) en adelante, como mucho {@code cantidad}.
+     */
+    List<Fila> getPagina(int desde, int cantidad) {
+        desde = Math.max(desde, 0);
+        int hasta = (int) Math.min(this.cantidad, (long) desde + Math.max(cantidad, 0));
+        List<Fila> filas = new ArrayList<>(Math.max(hasta - desde, 0));
+        for (int i = desde; i < hasta; i++) {
+            int id = orden(i);
+            int victorias = victorias(id);
+            filas.add(new Fila(inicioGrupo(victorias) + 1, nombre(id), victorias));
+        }
+        return filas;
+    }
+
+    List<Fila> getTop(int n) {
+        return getPagina(0, n);
+    }
+
+    int size() {
+        return cantidad;
+    }
+
+    /**
+     * Índice (0 = primero) en que quedó el último jugador que sumó. Todo lo que está por encima
+     * de ese índice no se movió: si es {@code >= n}, el top n sigue igual.
+     */
+    int getUltimoLugar() {
+        return ultimoLugar;
+    }
+
+    //-------------------------------------------------------------------------
+    // DURABILIDAD
+    //-------------------------------------------------------------------------
+
+    long getUltimoLsn() {
+        return datos.getLong(C_ULTIMO_LSN);
+    }
+
+    long getCheckpoint() {
+        return datos.getLong(C_CHECKPOINT);
+    }
+
+    boolean isLimpia() {
+        return datos.getInt(C_LIMPIA) == 1;
+    }
+
+    /**
+     * El mapeo actual. Cambia cuando la tabla crece: un fsync hecho sobre el mapeo viejo
+     * no cubre lo que se escribió después en el nuevo.
+     */
+    MappedByteBuffer getMapeo() {
+        return datos;
+    }
+
+    /**
+     * Anota en la cabecera que todo lo de LSN {@code <= lsn} ya está en disco y la baja a disco.
+     * Antes hay que haber hecho {@code force()} del mapeo (ver {@link #getMapeo()}).
+     *
+     * @param limpia true solo al cerrar: los índices quedan confiables para el próximo arranque.
+     */
+    void fijarCheckpoint(long lsn, boolean limpia) {
+        datos.putLong(C_CHECKPOINT, lsn);
+        datos.putInt(C_LIMPIA, limpia ? 1 : 0);
+        datos.force(0, CABECERA);
+    }
+
+    /**
+     * Período que cubre la tabla (lo define quien la usa; ej: el día), 0 si nunca se fijó.
+     */
+    long getPeriodo() {
+        return datos.getLong(C_PERIODO);
+    }
+
+    /**
+     * Arranca la tabla de cero para otro período: un archivo nuevo con la capacidad inicial que
+     * reemplaza al anterior de forma atómica. Los LSN y el checkpoint siguen donde estaban.
+     */
+    void vaciar(long periodo) throws IOException {
+        MappedByteBuffer viejo = datos;
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        Files.deleteIfExists(temporal);
+        crear(temporal, CAPACIDAD_INICIAL, PUNTAJES_INICIALES);
+        cantidad = 0;
+        datos.putInt(C_LIMPIA, viejo.getInt(C_LIMPIA));
+        datos.putLong(C_ULTIMO_LSN, viejo.getLong(C_ULTIMO_LSN));
+        datos.putLong(C_CHECKPOINT, viejo.getLong(C_CHECKPOINT));
+        datos.putLong(C_PERIODO, periodo);
+        datos.force();
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Rearma el índice por nombre y la tabla ordenada desde las fichas (tras una caída o una migración).
+     * Las fichas se dan de alta en orden, así que las válidas son las primeras con nombre.
+     */
+    void reconstruir() {
+        cantidad = 0;
+        while (cantidad < capacidad && datos.get(ficha(cantidad) + F_LARGO) != 0) {
+            cantidad++;
+        }
+        datos.putInt(C_CANTIDAD, cantidad);
+
+        for (int i = 0; i < mascaraCeldas + 1; i++) {
+            datos.putInt(offCeldas + i * 4, 0);
+        }
+        int maximo = 0;
+        for (int id = 0; id < cantidad; id++) {
+            insertarCelda(nombreEnBytes(id), id);
+            maximo = Math.max(maximo, victorias(id));
+        }
+
+        // Ordenamiento por conteo (de mayor a menor): cada grupo empieza donde terminan los de arriba
+        int[] porPuntaje = new int[maximo + 2];
+        for (int id = 0; id < cantidad; id++) {
+            porPuntaje[victorias(id)]++;
+        }
+        // Los de arriba del máximo quedan vacíos: tras la caída pueden tener cualquier cosa
+        for (int puntaje = capacidadPuntajes - 1; puntaje > maximo; puntaje--) {
+            setInicioGrupo(puntaje, 0);
+        }
+        int inicio = 0;
+        for (int puntaje = maximo; puntaje >= 0; puntaje--) {
+            int enGrupo = porPuntaje[puntaje];
+            setInicioGrupo(puntaje, inicio);
+            porPuntaje[puntaje] = inicio; // De acá en más: próximo lugar libre del grupo
+            inicio += enGrupo;
+        }
+        for (int id = 0; id < cantidad; id++) {
+            int i = porPuntaje[victorias(id)]++;
+            setOrden(i, id);
+            setLugar(id, i);
+        }
+    }
+
+    //-------------------------------------------------------------------------
+    // ÍNDICE POR NOMBRE
+    //-------------------------------------------------------------------------
+
+    private int buscar(byte[] nombre) {
+        int i = hash(nombre) & mascaraCeldas;
+        // Con la tabla a medio crecer (lectura optimista) podría no haber celdas libres a la vista
+        for (int sondeos = 0; sondeos <= mascaraCeldas; sondeos++) {
+            int celda = datos.getInt(offCeldas + i * 4);
+            if (celda == 0) return -1;
+            if (mismoNombre(celda - 1, nombre)) return celda - 1;
+            i = (i + 1) & mascaraCeldas;
+        }
+        return -1;
+    }
+
+    private void insertarCelda(byte[] nombre, int id) {
+        int i = hash(nombre) & mascaraCeldas;
+        while (datos.getInt(offCeldas + i * 4) != 0) {
+            i = (i + 1) & mascaraCeldas;
+        }
+        datos.putInt(offCeldas + i * 4, id + 1);
+    }
+
+    // Ficha nueva al final, con 0 victorias (al fondo de la tabla)
+    private int alta(byte[] nombre) throws IOException {
+        if (cantidad == capacidad) {
+            if (capacidad >= MAX_CAPACIDAD) {
+                throw new IOException("La tabla del ranking llegó a su máximo de " + MAX_CAPACIDAD + " jugadores");
+            }
+            crecer(capacidad * 2, capacidadPuntajes);
+        }
+        int id = cantidad;
+        int f = ficha(id);
+        datos.putLong(f + F_LSN, 0);
+        datos.putInt(f + F_VICTORIAS, 0);
+        datos.put(f + F_NOMBRE, nombre);
+        datos.put(f + F_LARGO, (byte) nombre.length);
+        insertarCelda(nombre, id);
+
+        setOrden(id, id);
+        setLugar(id, id);
+        cantidad++;
+        if (!grupoNoVacio(0)) {
+            setInicioGrupo(0, id);
+        }
+        datos.putInt(C_CANTIDAD, cantidad);
+        return id;
+    }
+
+    private boolean mismoNombre(int id, byte[] nombre) {
+        int f = ficha(id);
+        if ((datos.get(f + F_LARGO) & 0xFF) != nombre.length) return false;
+        for (int i = 0; i < nombre.length; i++) {
+            if (datos.get(f + F_NOMBRE + i) != nombre[i]) return false;
+        }
+        return true;
+    }
+
+    // FNV-1a sobre los bytes del nombre, con una mezcla final para los bits bajos
+    private static int hash(byte[] nombre) {
+        int h = 0x811C9DC5;
+        for (byte b : nombre) {
+            h ^= b & 0xFF;
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    //-------------------------------------------------------------------------
+    // ARCHIVO
+    //-------------------------------------------------------------------------
+
+    private void crear(Path destino, int capacidad, int capacidadPuntajes) throws IOException {
+        mapear(destino, capacidad, capacidadPuntajes);
+        datos.putInt(C_MAGIA, MAGIA);
+        datos.putInt(C_VERSION, VERSION);
+        datos.putInt(C_CAPACIDAD, capacidad);
+        datos.putInt(C_PUNTAJES, capacidadPuntajes);
+        datos.putInt(C_CANTIDAD, 0);
+    }
+
+    private void mapear(Path destino, int capacidad, int capacidadPuntajes) throws IOException {
+        this.capacidad = capacidad;
+        this.capacidadPuntajes = capacidadPuntajes;
+        offCeldas = CABECERA;
+        mascaraCeldas = capacidad * 2 - 1;
+        offFichas = offCeldas + capacidad * 2 * 4;
+        offOrden = offFichas + capacidad * TAMANIO_FICHA;
+        offLugar = offOrden + capacidad * 4;
+        offGrupos = offLugar + capacidad * 4;
+        long largo = (long) offGrupos + capacidadPuntajes * 4L;
+
+        // El archivo queda "ralo": las páginas que nunca se escriben no ocupan disco
+        try (FileChannel canal = FileChannel.open(destino, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            datos = canal.map(FileChannel.MapMode.READ_WRITE, 0, largo);
+        }
+    }
+
+    /**
+     * Rehace el archivo con más capacidad: copia fichas y tabla ordenada, rehace el índice por
+     * nombre, lo baja a disco y reemplaza al anterior de forma atómica.
+     */
+    private void crecer(int nuevaCapacidad, int nuevosPuntajes) throws IOException {
+        MappedByteBuffer viejo = datos;
+        int viejosFichas = offFichas, viejosOrden = offOrden, viejosLugar = offLugar, viejosGrupos = offGrupos;
+        int viejosPuntajes = capacidadPuntajes;
+
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        Files.deleteIfExists(temporal);
+        crear(temporal, nuevaCapacidad, nuevosPuntajes);
+        datos.putInt(C_CANTIDAD, cantidad);
+        datos.putInt(C_LIMPIA, viejo.getInt(C_LIMPIA));
+        datos.putLong(C_ULTIMO_LSN, viejo.getLong(C_ULTIMO_LSN));
+        datos.putLong(C_CHECKPOINT, viejo.getLong(C_CHECKPOINT));
+        datos.putLong(C_PERIODO, viejo.getLong(C_PERIODO));
+
+        datos.put(offFichas, viejo, viejosFichas, cantidad * TAMANIO_FICHA);
+        datos.put(offOrden, viejo, viejosOrden, cantidad * 4);
+        datos.put(offLugar, viejo, viejosLugar, cantidad * 4);
+        datos.put(offGrupos, viejo, viejosGrupos, viejosPuntajes * 4);
+        for (int id = 0; id < cantidad; id++) {
+            insertarCelda(nombreEnBytes(id), id);
+        }
+        datos.force();
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    //-------------------------------------------------------------------------
+    // ACCESOS
+    //-------------------------------------------------------------------------
+
+    private int ficha(int id) {
+        return offFichas + id * TAMANIO_FICHA;
+    }
+
+    private int victorias(int id) {
+        return datos.getInt(ficha(id) + F_VICTORIAS);
+    }
+
+    private byte[] nombreEnBytes(int id) {
+        int f = ficha(id);
+        byte[] nombre = new byte[datos.get(f + F_LARGO) & 0xFF];
+        datos.get(f + F_NOMBRE, nombre);
+        return nombre;
+    }
+
+    private String nombre(int id) {
+        return new String(nombreEnBytes(id), StandardCharsets.UTF_8);
+    }
+
+    private int orden(int i) {
+        return datos.getInt(offOrden + i * 4);
+    }
+
+    private void setOrden(int i, int id) {
+        datos.putInt(offOrden + i * 4, id);
+    }
+
+    private int lugar(int id) {
+        return datos.getInt(offLugar + id * 4);
+    }
+
+    private void setLugar(int id, int i) {
+        datos.putInt(offLugar + id * 4, i);
+    }
+
+    private int inicioGrupo(int puntaje) {
+        return datos.getInt(offGrupos + puntaje * 4);
+    }
+
+    private void setInicioGrupo(int puntaje, int i) {
+        datos.putInt(offGrupos + puntaje * 4, i);
+    }
+
+    private boolean grupoNoVacio(int puntaje) {
+        int inicio = inicioGrupo(puntaje);
+        return inicio < cantidad && victorias(orden(inicio)) == puntaje;
+    }
+}
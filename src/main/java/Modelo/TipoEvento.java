@@ -0,0 +1,14 @@
+package Modelo;
+
+// Tipos de evento que el servidor notifica a los clientes.
+// En la red viajan como el ordinal (1 byte) en lugar del nombre como String.
+public enum TipoEvento {
+    JUGADOR_REGISTRADO, INICIO_PARTIDA, CAMBIO_TURNO, JUGAR_CARTA, ESPERANDO_COLOR, CAMBIO_COLOR,
+    ROBAR_CARTA, ROBAR_CARTAS, UNO_GRITADO, FIN_PARTIDA, JUGADOR_DESCONECTADO;
+
+    private static final TipoEvento[] tipos = TipoEvento.values();
+
+    public static TipoEvento getTipo(int ordinal) {
+        return tipos[ordinal];
+    }
+}
@@ -0,0 +1,50 @@
+package Modelo;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+// Ventanas de tiempo del ranking: el día, la semana (de lunes a domingo) o desde siempre.
+// Cada período se identifica por el día en que empieza (días desde 1970-01-01).
+// Viaja como un código de un byte por NIO.
+public enum VentanaRanking {
+    DIA("Hoy"),
+    SEMANA("Esta semana"),
+    HISTORICO("Histórico");
+
+    private static final VentanaRanking[] ventanas = VentanaRanking.values();
+
+    private final String titulo;
+
+    VentanaRanking(String titulo) {
+        this.titulo = titulo;
+    }
+
+    public String getTitulo() {
+        return titulo;
+    }
+
+    public static VentanaRanking getVentana(int codigo) {
+        return ventanas[codigo];
+    }
+
+    /**
+     * Período al que pertenece un instante (0 para el histórico, que es uno solo).
+     */
+    long periodo(long instanteMs, ZoneId zona) {
+        if (this == HISTORICO) return 0;
+        LocalDate dia = Instant.ofEpochMilli(instanteMs).atZone(zona).toLocalDate();
+        if (this == SEMANA) dia = dia.with(DayOfWeek.MONDAY);
+        return dia.toEpochDay();
+    }
+
+    /**
+     * Instante (ms) en que termina el período: desde ahí su tabla ya no es la vigente.
+     */
+    long finDe(long periodo, ZoneId zona) {
+        if (this == HISTORICO) return Long.MAX_VALUE;
+        long siguiente = periodo + (this == SEMANA ? 7 : 1);
+        return LocalDate.ofEpochDay(siguiente).atStartOfDay(zona).toInstant().toEpochMilli();
+    }
+}
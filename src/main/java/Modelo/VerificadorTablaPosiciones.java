@@ -0,0 +1,237 @@
+package Modelo;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Compara la {@link TablaPosiciones} (índice agrupado por puntaje) contra un HashMap ingenuo de
+ * nombre → victorias, en los casos que más se tocaron al reescribirla:
+ * <ul>
+ *   <li>Aleatorio: 200k victorias repartidas de forma muy despareja entre 5000 jugadores, así
+ *       la tabla crece en pleno {@code alta} (más de 1024 fichas) y en puntajes (más de 256).</li>
+ *   <li>Grupos vacíos: un jugador que sube solo varios puntos seguidos y otros que lo alcanzan,
+ *       donde el intercambio cae en grupos que no existían.</li>
+ *   <li>vaciar: la tabla arranca de cero para otro período y conserva LSN y período.</li>
+ *   <li>Caída: índice y tabla ordenada pisados con basura, reabrir + {@code reconstruir} y
+ *       reaplicar LSN ya aplicados (no tienen que sumar dos veces).</li>
+ * </ul>
+ * En cada control se comparan cantidad, victorias y puesto de cada jugador y la tabla entera
+ * (orden no creciente, sin repetidos, puesto = 1 + los que tienen más). Termina con código 1
+ * ante la primera diferencia. Usa un directorio temporal que se borra al terminar.
+ * <p>
+ * Uso: java -cp target/classes:libs/LibreriaRMIMVC.jar Modelo.VerificadorTablaPosiciones [semilla]
+ */
+public final class VerificadorTablaPosiciones {
+
+    private static final int JUGADORES = 5_000;
+    private static final int VICTORIAS = 200_000;
+    private static final int CADA = 2_000; // Victorias entre controles completos
+
+    private VerificadorTablaPosiciones() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        long semilla = args.length > 0 ? Long.parseLong(args[0]) : 2024;
+        Path directorio = Files.createTempDirectory("uno-tabla-verificacion");
+        try {
+            aleatorio(directorio.resolve("aleatorio.tabla"), semilla);
+            gruposVacios(directorio.resolve("grupos.tabla"));
+            caida(directorio.resolve("caida.tabla"), semilla);
+            System.out.println("TablaPosiciones coincide con el mapa ingenuo en todos los casos.");
+        } catch (AssertionError e) {
+            System.err.println("DIFERENCIA: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            borrar(directorio);
+        }
+    }
+
+    // ============ Casos ============
+
+    private static void aleatorio(Path archivo, long semilla) throws IOException {
+        TablaPosiciones tabla = TablaPosiciones.abrir(archivo);
+        Map<String, Integer> modelo = new HashMap<>();
+        String[] nombres = nombres();
+        SplittableRandom azar = new SplittableRandom(semilla);
+        for (int i = 1; i <= VICTORIAS; i++) {
+            sumar(tabla, modelo, nombres[sesgado(azar)]);
+            if (i % CADA == 0) verificar(tabla, modelo, "aleatorio, victoria " + i);
+        }
+        verificar(tabla, modelo, "aleatorio, final");
+        System.out.printf("aleatorio: %d jugadores, %d victorias, máximo %d%n",
+                tabla.size(), VICTORIAS, tabla.getTop(1).get(0).victorias());
+
+        // vaciar: otro período, de cero, sin perder la numeración de los LSN
+        long lsn = tabla.getUltimoLsn();
+        tabla.vaciar(7);
+        modelo.clear();
+        verificar(tabla, modelo, "vaciar");
+        comprobar(tabla.getPeriodo() == 7, "vaciar no fijó el período");
+        comprobar(tabla.getUltimoLsn() == lsn, "vaciar perdió el último LSN");
+        for (int i = 1; i <= VICTORIAS / 10; i++) {
+            sumar(tabla, modelo, nombres[sesgado(azar)]);
+            if (i % CADA == 0) verificar(tabla, modelo, "después de vaciar, victoria " + i);
+        }
+        verificar(tabla, modelo, "después de vaciar, final");
+        comprobar(tabla.getUltimoLsn() == lsn + VICTORIAS / 10, "los LSN no siguieron después de vaciar");
+        System.out.println("vaciar: ok");
+    }
+
+    private static void gruposVacios(Path archivo) throws IOException {
+        TablaPosiciones tabla = TablaPosiciones.abrir(archivo);
+        Map<String, Integer> modelo = new HashMap<>();
+        String[] orden = {
+                "a", "a", "a", "a", "a",      // 'a' sube solo: cada punto abre un grupo vacío
+                "b", "c", "b", "c", "b",      // los demás van llenando grupos intermedios
+                "d", "d", "d", "d", "d", "d", // 'd' pasa a 'a' y queda solo arriba
+                "a", "b", "c", "a", "c", "c", "c", "c"
+        };
+        int paso = 0;
+        for (String nombre : orden) {
+            sumar(tabla, modelo, nombre);
+            verificar(tabla, modelo, "grupos vacíos, paso " + ++paso);
+        }
+        System.out.println("grupos vacíos: ok");
+    }
+
+    private static void caida(Path archivo, long semilla) throws IOException {
+        TablaPosiciones tabla = TablaPosiciones.abrir(archivo);
+        Map<String, Integer> modelo = new HashMap<>();
+        String[] nombres = nombres();
+        SplittableRandom azar = new SplittableRandom(semilla + 1);
+        List<String> aplicados = new ArrayList<>();
+        List<Long> lsns = new ArrayList<>();
+        for (int i = 0; i < VICTORIAS / 4; i++) {
+            String nombre = nombres[sesgado(azar)];
+            lsns.add(sumar(tabla, modelo, nombre));
+            aplicados.add(nombre);
+        }
+        verificar(tabla, modelo, "antes de la caída");
+
+        // Como si el proceso se hubiera caído con las páginas de los índices a medio escribir
+        pisarIndices(tabla.getMapeo(), azar);
+        TablaPosiciones reabierta = TablaPosiciones.abrir(archivo);
+        reabierta.reconstruir();
+        verificar(reabierta, modelo, "después de reconstruir");
+
+        // Reaplicar el log desde el último checkpoint: lo que ya estaba en las fichas no suma
+        int desde = aplicados.size() - 1_000;
+        for (int i = desde; i < aplicados.size(); i++) {
+            byte[] nombre = aplicados.get(i).getBytes(StandardCharsets.UTF_8);
+            comprobar(!reabierta.aplicar(nombre, lsns.get(i)), "se volvió a sumar el LSN " + lsns.get(i));
+        }
+        verificar(reabierta, modelo, "después de reaplicar");
+
+        for (int i = 0; i < CADA; i++) {
+            sumar(reabierta, modelo, nombres[sesgado(azar)]);
+        }
+        verificar(reabierta, modelo, "sumando después de reconstruir");
+        System.out.println("caída + reconstruir: ok");
+    }
+
+    // ============ Comparación ============
+
+    private static long sumar(TablaPosiciones tabla, Map<String, Integer> modelo, String nombre) throws IOException {
+        modelo.merge(nombre, 1, Integer::sum);
+        return tabla.sumarVictoria(nombre);
+    }
+
+    private static void verificar(TablaPosiciones tabla, Map<String, Integer> modelo, String momento) {
+        comprobar(tabla.size() == modelo.size(),
+                momento + ": " + tabla.size() + " jugadores en la tabla, " + modelo.size() + " en el mapa");
+
+        // Puesto esperado para cada puntaje: 1 + cuántos tienen estrictamente más
+        int maximo = 0;
+        for (int victorias : modelo.values()) maximo = Math.max(maximo, victorias);
+        int[] conMas = new int[maximo + 2];
+        for (int victorias : modelo.values()) conMas[victorias]++;
+        for (int v = maximo, acumulado = 0; v >= 0; v--) {
+            int enGrupo = conMas[v];
+            conMas[v] = acumulado;
+            acumulado += enGrupo;
+        }
+
+        for (Map.Entry<String, Integer> e : modelo.entrySet()) {
+            int victorias = e.getValue();
+            comprobar(tabla.getVictorias(e.getKey()) == victorias,
+                    momento + ": " + e.getKey() + " tiene " + tabla.getVictorias(e.getKey()) + ", se esperaba " + victorias);
+            comprobar(tabla.getPosicion(e.getKey()) == conMas[victorias] + 1,
+                    momento + ": puesto de " + e.getKey() + " = " + tabla.getPosicion(e.getKey())
+                            + ", se esperaba " + (conMas[victorias] + 1));
+        }
+
+        List<TablaPosiciones.Fila> filas = tabla.getPagina(0, tabla.size());
+        comprobar(filas.size() == modelo.size(), momento + ": la tabla ordenada tiene " + filas.size() + " filas");
+        Set<String> vistos = new HashSet<>();
+        int anterior = Integer.MAX_VALUE;
+        for (TablaPosiciones.Fila fila : filas) {
+            comprobar(vistos.add(fila.nombre()), momento + ": " + fila.nombre() + " aparece dos veces");
+            comprobar(fila.victorias() <= anterior, momento + ": la tabla no está ordenada en " + fila);
+            comprobar(Integer.valueOf(fila.victorias()).equals(modelo.get(fila.nombre())),
+                    momento + ": fila " + fila + " no coincide con el mapa");
+            comprobar(fila.posicion() == conMas[fila.victorias()] + 1, momento + ": puesto mal en " + fila);
+            anterior = fila.victorias();
+        }
+    }
+
+    private static void comprobar(boolean condicion, String mensaje) {
+        if (!condicion) throw new AssertionError(mensaje);
+    }
+
+    // ============ Datos ============
+
+    // Nombres ASCII, con caracteres de varios bytes y de largo máximo
+    private static String[] nombres() {
+        String[] nombres = new String[JUGADORES];
+        for (int i = 0; i < JUGADORES; i++) {
+            nombres[i] = switch (i % 3) {
+                case 0 -> "jugador-" + i;
+                case 1 -> "ñandú-" + i;
+                default -> String.format("%-" + TablaPosiciones.LARGO_MAXIMO_NOMBRE + "s", "largo-" + i).replace(' ', 'x');
+            };
+        }
+        return nombres;
+    }
+
+    // Muy despareja: unos pocos ganan miles de veces (los puntajes pasan los 256 iniciales)
+    private static int sesgado(SplittableRandom azar) {
+        double r = azar.nextDouble();
+        return (int) (JUGADORES * r * r * r * r);
+    }
+
+    // Basura sobre celdas, orden, lugar y grupos (ver el layout en TablaPosiciones); las fichas quedan
+    private static void pisarIndices(MappedByteBuffer mapeo, SplittableRandom azar) {
+        int cabecera = 4096;
+        int capacidad = mapeo.getInt(8);
+        int puntajes = mapeo.getInt(12);
+        int fichas = cabecera + capacidad * 2 * 4;
+        int orden = fichas + capacidad * TablaPosiciones.TAMANIO_FICHA;
+        for (int i = cabecera; i + 4 <= fichas; i += 4) {
+            mapeo.putInt(i, azar.nextInt());
+        }
+        for (int i = orden; i + 4 <= orden + capacidad * 8 + puntajes * 4; i += 4) {
+            mapeo.putInt(i, azar.nextInt());
+        }
+        mapeo.putInt(20, 0); // No se cerró bien
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            for (Path archivo : archivos.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(archivo);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package NIO;
+
+// Operaciones de IPartidaRemota que viajan por el transporte NIO.
+// En la trama va el ordinal (1 byte), igual que TipoEvento.
+enum OperacionNIO {
+    INICIAR_PARTIDA, JUGAR_CARTA, ROBAR_CARTA, CAMBIAR_COLOR, JUGAR_COMODIN,
+    GET_JUGADOR_ACTUAL, GET_ULTIMA_CARTA, GET_COLOR_ACTUAL, IS_PARTIDA_EN_CURSO, GET_JUGADORES,
+    OBTENER_MANO, IS_ESPERANDO_COLOR, REGISTRAR_JUGADOR, INICIAR_JUEGO, PASAR_TURNO,
+    REINICIAR_PARTIDA, DESCONECTAR, OBTENER_RANKING, OBTENER_EVENTOS, RECONECTAR,
+    OBTENER_RANKING_PAGINA, OBTENER_POSICION_RANKING, OBTENER_RANKING_VENTANA, OBTENER_ESTADO_MESA;
+
+    private static final OperacionNIO[] operaciones = OperacionNIO.values();
+
+    static OperacionNIO getOperacion(int ordinal) {
+        return operaciones[ordinal];
+    }
+}
@@ -0,0 +1,530 @@
+package NIO;
+
+import Modelo.*;
+import ar.edu.unlu.rmimvc.cliente.IControladorRemoto;
+import ar.edu.unlu.rmimvc.observer.IObservadorRemoto;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lado cliente del transporte NIO: implementa {@link IPartidaRemota} para que el Controlador
+ * lo use igual que al stub RMI.
+ * <p>
+ * Una sola conexión saliente hacia {@link ServidorNIO}. Los pedidos llevan un id y el hilo lector
+ * despierta a quien espera la respuesta con ese id; las tramas de EVENTO se entregan a los
+ * observadores locales desde otro hilo (así un observador puede volver a llamar al servidor
+ * dentro de actualizar() sin trabar al lector).
+ * <p>
+ * Las fallas de red se informan como {@link RemoteException}, así que el Controlador reintenta
+ * y reconecta igual que con RMI. Si la conexión se cayó, la siguiente llamada abre una nueva y,
+ * antes de usarla, recupera la sesión con {@code reconectar}: los eventos que se empujaron
+ * mientras no había conexión (o la foto de la mesa) llegan a los observadores antes que los nuevos.
+ */
+public class PartidaRemotaNIO implements IPartidaRemota {
+
+    private static final long ESPERA_REAPERTURA_MS = 500;
+
+    private final String host;
+    private final int puerto;
+    private final long timeoutMs;
+
+    private SocketChannel canal;
+    private final Object lockEscritura = new Object();
+    private final AtomicInteger proximoId = new AtomicInteger();
+    private final Map<Integer, CompletableFuture<byte[]>> pendientes = new ConcurrentHashMap<>();
+
+    private final List<IObservadorRemoto> observadores = new CopyOnWriteArrayList<>();
+    private final ExecutorService entregaEventos = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "uno-nio-eventos");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Sesión a recuperar si se corta la conexión (la entregan registrarJugador y reconectar)
+    private volatile String tokenSesion;
+
+    // Secuencia del último evento entregado a los observadores (guardado por lockEventos)
+    private long ultimaSecuencia;
+
+    // Mientras se recupera la sesión, los eventos que ya llegan por la conexión nueva esperan acá
+    // para no adelantarse a los perdidos (null = se entregan directo). Guardado por lockEventos.
+    private List<Evento> retenidos;
+    private final Object lockEventos = new Object();
+
+    public PartidaRemotaNIO(String host, int puerto, long timeoutMs) {
+        this.host = host;
+        this.puerto = puerto;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Equivalente NIO de {@code Cliente.iniciar(controlador)}: conecta, le inyecta el modelo
+     * al controlador y lo suscribe a los eventos. No abre ningún puerto en el cliente.
+     */
+    public static PartidaRemotaNIO iniciar(String host, int puerto, long timeoutMs,
+                                           IControladorRemoto controlador) throws RemoteException {
+        PartidaRemotaNIO partida = new PartidaRemotaNIO(host, puerto, timeoutMs);
+        controlador.setModeloRemoto(partida);
+        partida.agregarObservador(controlador);
+        return partida;
+    }
+
+    // ============ Conexión ============
+
+    private synchronized SocketChannel conexion(boolean reanudarSesion) throws RemoteException {
+        if (canal != null && canal.isOpen()) {
+            return canal;
+        }
+        // Si ya hubo una conexión, ésta es una reconexión: hay que recuperar lo que se perdió
+        boolean reanudar = reanudarSesion && canal != null && tokenSesion != null;
+        try {
+            SocketChannel nuevo = SocketChannel.open(new InetSocketAddress(host, puerto));
+            nuevo.socket().setTcpNoDelay(true);
+            if (reanudar) {
+                synchronized (lockEventos) {
+                    retenidos = new ArrayList<>();
+                }
+            }
+            canal = nuevo;
+            Thread lector = new Thread(() -> cicloLectura(nuevo), "uno-nio-lector");
+            lector.setDaemon(true);
+            lector.start();
+        } catch (IOException e) {
+            throw new RemoteException("No se pudo conectar a " + host + ":" + puerto, e);
+        }
+        if (reanudar) {
+            reanudarSesion();
+        }
+        return canal;
+    }
+
+    /**
+     * Pide al servidor lo que se perdió desde el último evento entregado y se lo pasa a los
+     * observadores (el {@link ResultadoReconexion} entero: eventos perdidos o foto), seguido de
+     * los eventos nuevos que llegaron mientras tanto.
+     */
+    private void reanudarSesion() throws RemoteException {
+        long desde;
+        synchronized (lockEventos) {
+            desde = ultimaSecuencia;
+        }
+        ResultadoReconexion resultado = null;
+        try {
+            resultado = pedirReconexion(tokenSesion, desde);
+        } finally {
+            synchronized (lockEventos) {
+                List<Evento> nuevos = retenidos;
+                retenidos = null;
+                if (resultado != null) {
+                    liberar(resultado, nuevos);
+                }
+                // Si falló, los retenidos se descartan: la secuencia no avanzó y vuelven en el próximo intento
+            }
+        }
+    }
+
+    // Con lockEventos tomado
+    private void liberar(ResultadoReconexion resultado, List<Evento> nuevos) {
+        if (!resultado.isAceptada()) {
+            tokenSesion = null; // Nos sacaron de la mesa: no hay nada que recuperar
+        } else if (resultado.getFoto() != null) {
+            ultimaSecuencia = Math.max(ultimaSecuencia, resultado.getFoto().getSecuencia());
+        } else {
+            for (Evento e : resultado.getEventosPerdidos()) {
+                ultimaSecuencia = Math.max(ultimaSecuencia, e.getSecuencia());
+            }
+        }
+        notificarEnOrden(resultado);
+        for (Evento e : nuevos) {
+            if (e.getSecuencia() > ultimaSecuencia) {
+                entregar(e);
+            }
+        }
+    }
+
+    private void cicloLectura(SocketChannel origen) {
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    java.nio.channels.Channels.newInputStream(origen)));
+            while (true) {
+                int largo = in.readInt();
+                if (largo <= 0 || largo > ProtocoloNIO.TAMANIO_MAXIMO_TRAMA) {
+                    throw new IOException("Trama inválida de " + largo + " bytes");
+                }
+                byte clase = in.readByte();
+                byte[] cuerpo = new byte[largo - 1];
+                in.readFully(cuerpo);
+                procesarTrama(clase, cuerpo);
+            }
+        } catch (IOException e) {
+            // Conexión caída: todos los que esperaban respuesta reciben el error
+            try {
+                origen.close();
+            } catch (IOException ignorada) {
+                // Ya estaba cerrada
+            }
+            for (CompletableFuture<byte[]> pendiente : pendientes.values()) {
+                pendiente.completeExceptionally(e);
+            }
+            pendientes.clear();
+
+            // Con sesión, reabrimos ya (sin esperar a la próxima llamada): si no, un cliente que
+            // solo escucha eventos no se enteraría del corte. Si falla, reintenta la próxima llamada.
+            if (tokenSesion != null && !observadores.isEmpty()) {
+                Thread reapertura = new Thread(this::reabrir, "uno-nio-reconexion");
+                reapertura.setDaemon(true);
+                reapertura.start();
+            }
+        }
+    }
+
+    private void reabrir() {
+        try {
+            Thread.sleep(ESPERA_REAPERTURA_MS); // Un servidor que corta apenas acepta no nos tiene en un bucle
+            conexion(true);
+        } catch (RemoteException | InterruptedException ignorada) {
+            // Servidor caído: la próxima llamada vuelve a intentar
+        }
+    }
+
+    private void procesarTrama(byte clase, byte[] cuerpo) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(cuerpo));
+        switch (clase) {
+            case ProtocoloNIO.EVENTO -> {
+                Evento evento = CodecBinario.leerEvento(in);
+                synchronized (lockEventos) {
+                    if (retenidos != null) {
+                        retenidos.add(evento);
+                    } else {
+                        entregar(evento);
+                    }
+                }
+            }
+            case ProtocoloNIO.RESPUESTA, ProtocoloNIO.ERROR -> {
+                int id = in.readInt();
+                CompletableFuture<byte[]> pendiente = pendientes.remove(id);
+                if (pendiente == null) return; // Llegó tarde, ya se dio por vencida
+                if (clase == ProtocoloNIO.ERROR) {
+                    pendiente.completeExceptionally(new IllegalStateException(in.readUTF()));
+                } else {
+                    pendiente.complete(cuerpo);
+                }
+            }
+            default -> throw new IOException("Clase de trama desconocida: " + clase);
+        }
+    }
+
+    // Con lockEventos tomado
+    private void entregar(Evento evento) {
+        ultimaSecuencia = Math.max(ultimaSecuencia, evento.getSecuencia());
+        notificarEnOrden(evento);
+    }
+
+    /**
+     * Entrega a los observadores desde el hilo de eventos, en el mismo orden en que se llama.
+     */
+    private void notificarEnOrden(Object arg) {
+        entregaEventos.execute(() -> {
+            for (IObservadorRemoto observador : observadores) {
+                try {
+                    observador.actualizar(this, arg);
+                } catch (RemoteException ignorada) {
+                    // Observador local: no debería pasar
+                }
+            }
+        });
+    }
+
+    // ============ Pedido / Respuesta ============
+
+    private interface Argumentos {
+        void escribir(DataOutputStream out) throws IOException;
+    }
+
+    private interface Lector<T> {
+        T leer(DataInputStream in) throws IOException;
+    }
+
+    /**
+     * Manda un pedido y bloquea hasta su respuesta (o hasta el timeout).
+     */
+    private <T> T invocar(OperacionNIO operacion, Argumentos argumentos, Lector<T> lector) throws RemoteException {
+        int id = proximoId.incrementAndGet();
+        CompletableFuture<byte[]> respuesta = new CompletableFuture<>();
+        pendientes.put(id, respuesta);
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(32);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeByte(ProtocoloNIO.PEDIDO);
+            out.writeByte(operacion.ordinal());
+            out.writeInt(id);
+            argumentos.escribir(out);
+
+            byte[] cuerpo = buffer.toByteArray();
+            ByteBuffer trama = ByteBuffer.allocate(4 + cuerpo.length);
+            trama.putInt(cuerpo.length).put(cuerpo).flip();
+
+            // reconectar ya es la recuperación de la sesión: no se dispara otra adentro
+            SocketChannel destino = conexion(operacion != OperacionNIO.RECONECTAR);
+            synchronized (lockEscritura) {
+                while (trama.hasRemaining()) {
+                    destino.write(trama);
+                }
+            }
+
+            DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(respuesta.get(timeoutMs, TimeUnit.MILLISECONDS)));
+            in.readInt(); // id
+            return lector.leer(in);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re; // Error del servidor: mismo comportamiento que una excepción por RMI
+            }
+            throw new RemoteException("Error de comunicación en " + operacion, e.getCause());
+        } catch (TimeoutException e) {
+            throw new RemoteException("Sin respuesta del servidor en " + operacion);
+        } catch (IOException e) {
+            cerrarConexion();
+            throw new RemoteException("Error de comunicación en " + operacion, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RemoteException("Interrumpido esperando " + operacion);
+        } finally {
+            pendientes.remove(id);
+        }
+    }
+
+    private synchronized void cerrarConexion() {
+        if (canal != null) {
+            try {
+                canal.close();
+            } catch (IOException ignorada) {
+                // Ya estaba cerrada
+            }
+        }
+    }
+
+    // ============ IObservableRemoto (observadores locales) ============
+
+    @Override
+    public void agregarObservador(IObservadorRemoto observador) throws RemoteException {
+        observadores.add(observador);
+        conexion(true); // Los eventos llegan por la conexión: la abrimos ya
+    }
+
+    @Override
+    public void removerObservador(IObservadorRemoto observador) throws RemoteException {
+        observadores.remove(observador);
+    }
+
+    @Override
+    public void notificarObservadores(Object arg) throws RemoteException {
+        for (IObservadorRemoto observador : observadores) {
+            observador.actualizar(this, arg);
+        }
+    }
+
+    @Override
+    public void notificarObservadores() throws RemoteException {
+        notificarObservadores(null);
+    }
+
+    // ============ IPartidaRemota ============
+
+    @Override
+    public ResultadoComando iniciarPartida(List<String> nombresJugadores) throws RemoteException {
+        return invocar(OperacionNIO.INICIAR_PARTIDA,
+                out -> CodecBinario.escribirTextos(out, nombresJugadores), CodecBinario::leerResultado);
+    }
+
+    @Override
+    public ResultadoComando jugarCarta(String token, long secuencia, int indiceCarta) throws RemoteException {
+        return invocar(OperacionNIO.JUGAR_CARTA, out -> {
+            CodecBinario.escribirTextoOpcional(out, token);
+            out.writeLong(secuencia);
+            out.writeInt(indiceCarta);
+        }, CodecBinario::leerResultado);
+    }
+
+    @Override
+    public ResultadoComando robarCartaDelMazo(String token, long secuencia) throws RemoteException {
+        return invocar(OperacionNIO.ROBAR_CARTA, comandoSimple(token, secuencia), CodecBinario::leerResultado);
+    }
+
+    @Override
+    public ResultadoComando cambiarColorActual(String token, long secuencia, Color nuevoColor) throws RemoteException {
+        return invocar(OperacionNIO.CAMBIAR_COLOR, out -> {
+            CodecBinario.escribirTextoOpcional(out, token);
+            out.writeLong(secuencia);
+            CodecBinario.escribirColorOpcional(out, nuevoColor);
+        }, CodecBinario::leerResultado);
+    }
+
+    @Override
+    public ResultadoComando jugarComodin(String token, long secuencia, int indiceCarta, Color nuevoColor) throws RemoteException {
+        return invocar(OperacionNIO.JUGAR_COMODIN, out -> {
+            CodecBinario.escribirTextoOpcional(out, token);
+            out.writeLong(secuencia);
+            out.writeInt(indiceCarta);
+            CodecBinario.escribirColorOpcional(out, nuevoColor);
+        }, CodecBinario::leerResultado);
+    }
+
+    @Override
+    public Jugador getJugadorActual() throws RemoteException {
+        return invocar(OperacionNIO.GET_JUGADOR_ACTUAL, sinArgumentos(),
+                in -> in.readBoolean() ? CodecBinario.leerJugador(in) : null);
+    }
+
+    @Override
+    public Carta getUltimaCartaJugadas() throws RemoteException {
+        return invocar(OperacionNIO.GET_ULTIMA_CARTA, sinArgumentos(), CodecBinario::leerCartaOpcional);
+    }
+
+    @Override
+    public Color getColorActual() throws RemoteException {
+        return invocar(OperacionNIO.GET_COLOR_ACTUAL, sinArgumentos(), CodecBinario::leerColorOpcional);
+    }
+
+    @Override
+    public boolean isPartidaEnCurso() throws RemoteException {
+        return invocar(OperacionNIO.IS_PARTIDA_EN_CURSO, sinArgumentos(), DataInputStream::readBoolean);
+    }
+
+    @Override
+    public List<Jugador> getJugadores() throws RemoteException {
+        return invocar(OperacionNIO.GET_JUGADORES, sinArgumentos(), in -> {
+            int cantidad = in.readUnsignedShort();
+            List<Jugador> jugadores = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                jugadores.add(CodecBinario.leerJugador(in));
+            }
+            return jugadores;
+        });
+    }
+
+    @Override
+    public ManoJugador obtenerMano(String nombreJugador) throws RemoteException {
+        return invocar(OperacionNIO.OBTENER_MANO, out -> out.writeUTF(nombreJugador),
+                in -> in.readBoolean() ? CodecBinario.leerMano(in) : null);
+    }
+
+    @Override
+    public boolean isEstadoEsperandoColor() throws RemoteException {
+        return invocar(OperacionNIO.IS_ESPERANDO_COLOR, sinArgumentos(), DataInputStream::readBoolean);
+    }
+
+    @Override
+    public ResultadoRegistro registrarJugador(String nombre) throws RemoteException {
+        ResultadoRegistro r = invocar(OperacionNIO.REGISTRAR_JUGADOR, out -> out.writeUTF(nombre), CodecBinario::leerRegistro);
+        if (r.isOk()) {
+            tokenSesion = r.getToken();
+        }
+        return r;
+    }
+
+    @Override
+    public ResultadoComando iniciarJuego(String token, long secuencia) throws RemoteException {
+        return invocar(OperacionNIO.INICIAR_JUEGO, comandoSimple(token, secuencia), CodecBinario::leerResultado);
+    }
+
+    @Override
+    public ResultadoComando pasarTurno(String token, long secuencia) throws RemoteException {
+        return invocar(OperacionNIO.PASAR_TURNO, comandoSimple(token, secuencia), CodecBinario::leerResultado);
+    }
+
+    @Override
+    public ResultadoComando reiniciarPartida(String token, long secuencia) throws RemoteException {
+        return invocar(OperacionNIO.REINICIAR_PARTIDA, comandoSimple(token, secuencia), CodecBinario::leerResultado);
+    }
+
+    @Override
+    public void desconectar(String nombreJugador) throws RemoteException {
+        invocar(OperacionNIO.DESCONECTAR, out -> out.writeUTF(nombreJugador), in -> null);
+    }
+
+    @Override
+    public List<String> obtenerRanking() throws RemoteException {
+        return invocar(OperacionNIO.OBTENER_RANKING, sinArgumentos(), CodecBinario::leerTextos);
+    }
+
+    @Override
+    public List<String> obtenerRankingPagina(int desde, int cantidad) throws RemoteException {
+        return invocar(OperacionNIO.OBTENER_RANKING_PAGINA, out -> {
+            out.writeInt(desde);
+            out.writeInt(cantidad);
+        }, CodecBinario::leerTextos);
+    }
+
+    @Override
+    public int obtenerPosicionRanking(String nombreJugador) throws RemoteException {
+        return invocar(OperacionNIO.OBTENER_POSICION_RANKING, out -> out.writeUTF(nombreJugador),
+                DataInputStream::readInt);
+    }
+
+    @Override
+    public List<String> obtenerRankingVentana(VentanaRanking ventana) throws RemoteException {
+        return invocar(OperacionNIO.OBTENER_RANKING_VENTANA, out -> out.writeByte(ventana.ordinal()),
+                CodecBinario::leerTextos);
+    }
+
+    /**
+     * El long-poll lo espera el servidor (en un hilo trabajador): {@code timeoutMs} tiene que ser
+     * menor que el timeout de respuesta de este transporte.
+     */
+    @Override
+    public LoteEventos obtenerEventos(long desdeSecuencia, long timeoutMs) throws RemoteException {
+        return invocar(OperacionNIO.OBTENER_EVENTOS, out -> {
+            out.writeLong(desdeSecuencia);
+            out.writeLong(timeoutMs);
+        }, CodecBinario::leerLote);
+    }
+
+    /**
+     * Con NIO el "callback" es la propia conexión: el observador se registra localmente
+     * y el servidor no necesita uno remoto.
+     */
+    @Override
+    public ResultadoReconexion reconectar(String token, long ultimaSecuencia, IObservadorRemoto observador) throws RemoteException {
+        if (observador != null && !observadores.contains(observador)) {
+            observadores.add(observador);
+        }
+        ResultadoReconexion resultado = pedirReconexion(token, ultimaSecuencia);
+        tokenSesion = resultado.isAceptada() ? token : null;
+        return resultado;
+    }
+
+    private ResultadoReconexion pedirReconexion(String token, long ultimaSecuencia) throws RemoteException {
+        return invocar(OperacionNIO.RECONECTAR, out -> {
+            CodecBinario.escribirTextoOpcional(out, token);
+            out.writeLong(ultimaSecuencia);
+        }, CodecBinario::leerReconexion);
+    }
+
+    @Override
+    public EstadoMesa obtenerEstadoMesa(String nombreJugador) throws RemoteException {
+        return invocar(OperacionNIO.OBTENER_ESTADO_MESA, out -> out.writeUTF(nombreJugador),
+                CodecBinario::leerEstadoMesaOpcional);
+    }
+
+    private static Argumentos sinArgumentos() {
+        return out -> {
+        };
+    }
+
+    private static Argumentos comandoSimple(String token, long secuencia) {
+        return out -> {
+            CodecBinario.escribirTextoOpcional(out, token);
+            out.writeLong(secuencia);
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package NIO;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Formato de los mensajes del transporte NIO.
+ * <p>
+ * Cada trama es: [int largo][byte clase][...cuerpo...], donde largo cuenta todo lo que sigue.
+ * <ul>
+ *   <li>PEDIDO    (cliente → servidor): [byte operación][int id][argumentos]</li>
+ *   <li>RESPUESTA (servidor → cliente): [int id][valor devuelto]</li>
+ *   <li>ERROR     (servidor → cliente): [int id][UTF mensaje]</li>
+ *   <li>EVENTO    (servidor → cliente): [Evento codificado con CodecBinario]</li>
+ * </ul>
+ * Los argumentos y valores usan {@link Modelo.CodecBinario}, igual que la serialización compacta de RMI.
+ */
+final class ProtocoloNIO {
+
+    static final byte PEDIDO = 0;
+    static final byte RESPUESTA = 1;
+    static final byte ERROR = 2;
+    static final byte EVENTO = 3;
+
+    // Tope de seguridad: una trama más grande que esto es un cliente roto o malicioso
+    static final int TAMANIO_MAXIMO_TRAMA = 1 << 20;
+
+    static final int PUERTO_POR_DEFECTO = 1100;
+
+    private ProtocoloNIO() {
+    }
+
+    /**
+     * Arma una trama lista para escribir: antepone el largo a la clase + cuerpo.
+     */
+    static ByteBuffer trama(byte clase, byte[] cuerpo) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 1 + cuerpo.length);
+        buffer.putInt(1 + cuerpo.length);
+        buffer.put(clase);
+        buffer.put(cuerpo);
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,532 @@
+package NIO;
+
+import Modelo.CodecBinario;
+import Modelo.Evento;
+import Modelo.IPartidaRemota;
+import Modelo.Jugador;
+import Modelo.LoteEventos;
+import Modelo.ManoJugador;
+import Modelo.VentanaRanking;
+import ar.edu.unlu.rmimvc.observer.IObservableRemoto;
+import ar.edu.unlu.rmimvc.observer.IObservadorRemoto;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transporte alternativo a RMI basado en NIO (selector, no bloqueante).
+ * <p>
+ * Un solo hilo hace la E/S de todas las conexiones: no hay un hilo por cliente ni una conexión
+ * de vuelta por cada callback. Cada jugador abre UNA conexión persistente hacia el servidor
+ * y por ella viajan sus pedidos, las respuestas y los eventos que el servidor le empuja.
+ * Así el cliente no necesita abrir un puerto propio (funciona detrás de NAT).
+ * <p>
+ * El selector solo arma tramas: cada pedido se ejecuta en un pool acotado de trabajadores, porque
+ * los métodos de la Partida toman su lock y desde ahí se hacen los callbacks RMI a los demás
+ * observadores (un cliente RMI lento no puede frenar la E/S de todas las conexiones NIO). Cada
+ * conexión tiene su propia cola de pedidos y se atiende de a uno: dos comandos seguidos del mismo
+ * cliente llegan a la Partida en el orden en que los mandó. La respuesta vuelve al selector por la
+ * misma cola de salida que los eventos.
+ * <p>
+ * El long-poll de obtenerEventos no ocupa ningún hilo: si no hay eventos nuevos, el pedido queda
+ * anotado en el selector como una espera pendiente y se responde cuando la Partida emite un evento
+ * o cuando vence el timeout. Miles de clientes esperando son solo miles de entradas en una lista.
+ * <p>
+ * Atiende la misma Partida que se publica por RMI: clientes RMI y NIO pueden jugar en la misma mesa.
+ * Se registra como un observador local más de la Partida; cada evento se codifica una sola vez
+ * y se encola en todas las conexiones.
+ */
+public class ServidorNIO implements IObservadorRemoto {
+
+    // Si un cliente no consume y acumula esta cantidad de tramas, se lo desconecta
+    private static final int MAX_TRAMAS_PENDIENTES = 4096;
+    private static final int TAMANIO_BUFFER_LECTURA = 4096;
+
+    // Si un cliente manda pedidos más rápido de lo que se atienden y acumula esta cantidad, se lo desconecta
+    private static final int MAX_PEDIDOS_PENDIENTES = 256;
+
+    // Tope del long-poll de obtenerEventos
+    private static final long MAX_ESPERA_EVENTOS_MS = 30_000;
+
+    public static final String PROPIEDAD_TRABAJADORES = "uno.nio.trabajadores";
+
+    private final IPartidaRemota partida;
+    private final String host;
+    private final int puerto;
+
+    private Selector selector;
+    private ServerSocketChannel canalServidor;
+    private volatile boolean activo;
+
+    // El key set del selector no es seguro entre hilos; los eventos recorren este conjunto
+    private final Set<Conexion> conexiones = ConcurrentHashMap.newKeySet();
+
+    // Conexiones con tramas nuevas para escribir; el hilo del selector les activa OP_WRITE
+    private final Queue<Conexion> pendientesDeEscritura = new ConcurrentLinkedQueue<>();
+
+    // Ejecutan los pedidos (pueden esperar el lock de la Partida sin frenar al selector)
+    private final ExecutorService trabajadores = Executors.newFixedThreadPool(
+            Integer.getInteger(PROPIEDAD_TRABAJADORES, 2 * Runtime.getRuntime().availableProcessors()),
+            new FabricaTrabajadores());
+
+    // Long-polls sin responder (solo los toca el hilo del selector)
+    private final List<EsperaEventos> esperas = new ArrayList<>();
+
+    // La Partida emitió algo desde la última revisión de las esperas
+    private final AtomicBoolean hayEventosNuevos = new AtomicBoolean();
+
+    public ServidorNIO(IPartidaRemota partida, String host, int puerto) {
+        this.partida = partida;
+        this.host = host;
+        this.puerto = puerto;
+    }
+
+    /**
+     * Abre el puerto, se suscribe a los eventos de la Partida y arranca el hilo del selector.
+     */
+    public void iniciar() throws IOException {
+        selector = Selector.open();
+        canalServidor = ServerSocketChannel.open();
+        canalServidor.configureBlocking(false);
+        canalServidor.bind(new InetSocketAddress(host, puerto), 1024);
+        canalServidor.register(selector, SelectionKey.OP_ACCEPT);
+
+        partida.agregarObservador(this);
+
+        activo = true;
+        Thread hilo = new Thread(this::cicloSelector, "uno-nio-selector");
+        hilo.setDaemon(false);
+        hilo.start();
+    }
+
+    public void detener() throws IOException {
+        activo = false;
+        partida.removerObservador(this);
+        trabajadores.shutdownNow();
+        selector.wakeup();
+    }
+
+    // ============ Eventos de la Partida → todas las conexiones ============
+
+    @Override
+    public void actualizar(IObservableRemoto observable, Object evento) throws RemoteException {
+        if (!(evento instanceof Evento e)) return;
+
+        ByteBuffer trama;
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(32);
+            CodecBinario.escribirEvento(new DataOutputStream(buffer), e);
+            trama = ProtocoloNIO.trama(ProtocoloNIO.EVENTO, buffer.toByteArray());
+        } catch (IOException ex) {
+            return;
+        }
+
+        // Codificado una vez; cada conexión recibe una vista propia del mismo buffer
+        for (Conexion conexion : conexiones) {
+            conexion.encolar(trama.duplicate());
+        }
+        hayEventosNuevos.set(true); // Y que el selector complete los long-poll pendientes
+        selector.wakeup();
+    }
+
+    // ============ Hilo del selector ============
+
+    private void cicloSelector() {
+        try {
+            while (activo) {
+                // Activamos escritura en las conexiones con tramas nuevas (respuestas de la vuelta
+                // anterior o eventos encolados desde otros hilos, que además despiertan al selector)
+                Conexion pendiente;
+                while ((pendiente = pendientesDeEscritura.poll()) != null) {
+                    pendiente.marcada.set(false);
+                    if (pendiente.key.isValid()) {
+                        pendiente.key.interestOps(pendiente.key.interestOps() | SelectionKey.OP_WRITE);
+                    }
+                }
+
+                if (esperas.isEmpty()) {
+                    selector.select();
+                } else {
+                    selector.select(Math.max(1, (proximoVencimiento() - System.nanoTime()) / 1_000_000));
+                }
+
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    try {
+                        if (key.isAcceptable()) {
+                            aceptar();
+                        } else {
+                            Conexion conexion = (Conexion) key.attachment();
+                            if (key.isReadable()) conexion.leer();
+                            if (key.isValid() && key.isWritable()) conexion.escribir();
+                        }
+                    } catch (IOException e) {
+                        cerrar(key);
+                    }
+                }
+                revisarEsperas(hayEventosNuevos.getAndSet(false));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            try {
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+                selector.close();
+            } catch (IOException ignorada) {
+                // Apagando
+            }
+        }
+    }
+
+    private void aceptar() throws IOException {
+        SocketChannel canal;
+        while ((canal = canalServidor.accept()) != null) {
+            canal.configureBlocking(false);
+            canal.socket().setTcpNoDelay(true);
+            SelectionKey key = canal.register(selector, SelectionKey.OP_READ);
+            Conexion conexion = new Conexion(canal, key);
+            key.attach(conexion);
+            conexiones.add(conexion);
+        }
+    }
+
+    private void cerrar(SelectionKey key) {
+        conexiones.remove(key.attachment());
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignorada) {
+            // Ya estaba cerrada
+        }
+    }
+
+    // ============ Long-poll (hilo del selector) ============
+
+    /**
+     * Un obtenerEventos que todavía no tiene qué devolver: la continuación del pedido,
+     * que se completa con el próximo evento o al vencer.
+     */
+    private record EsperaEventos(Conexion conexion, int id, long desde, long vence) {
+    }
+
+    /**
+     * Responde ya si hay eventos (o si el cliente no quiere esperar); si no, anota la espera.
+     * obtenerEventos con timeout 0 solo toma el lock del historial de eventos, no el de la Partida,
+     * así que no frena al selector.
+     */
+    private void atenderObtenerEventos(Conexion conexion, int id, DataInputStream in) throws IOException {
+        long desde = in.readLong();
+        long timeout = Math.min(in.readLong(), MAX_ESPERA_EVENTOS_MS);
+        LoteEventos lote = partida.obtenerEventos(desde, 0);
+        if (timeout <= 0 || !lote.getEventos().isEmpty() || lote.isHuboPerdida()) {
+            conexion.responderLote(id, lote);
+        } else {
+            esperas.add(new EsperaEventos(conexion, id, desde, System.nanoTime() + timeout * 1_000_000));
+        }
+    }
+
+    /**
+     * Completa las esperas que ya tienen eventos (si hubo alguno nuevo) y las que vencieron,
+     * y descarta las de conexiones cerradas.
+     */
+    private void revisarEsperas(boolean hayEventos) throws IOException {
+        if (esperas.isEmpty()) return;
+        long ahora = System.nanoTime();
+        Iterator<EsperaEventos> it = esperas.iterator();
+        while (it.hasNext()) {
+            EsperaEventos espera = it.next();
+            if (!espera.conexion().key.isValid()) {
+                it.remove();
+                continue;
+            }
+            boolean vencida = ahora - espera.vence() >= 0;
+            if (!hayEventos && !vencida) continue;
+
+            LoteEventos lote = partida.obtenerEventos(espera.desde(), 0);
+            if (vencida || !lote.getEventos().isEmpty() || lote.isHuboPerdida()) {
+                it.remove();
+                espera.conexion().responderLote(espera.id(), lote);
+            }
+        }
+    }
+
+    private long proximoVencimiento() {
+        long proximo = esperas.get(0).vence();
+        for (EsperaEventos espera : esperas) {
+            if (espera.vence() - proximo < 0) proximo = espera.vence();
+        }
+        return proximo;
+    }
+
+    // ============ Atención de pedidos ============
+
+    /**
+     * Ejecuta una operación sobre la Partida y codifica su resultado.
+     * Corre en un hilo trabajador: puede esperar el lock de la Partida.
+     */
+    private byte[] atender(OperacionNIO operacion, DataInputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(buffer);
+
+        switch (operacion) {
+            case INICIAR_PARTIDA ->
+                    CodecBinario.escribirResultado(out, partida.iniciarPartida(CodecBinario.leerTextos(in)));
+            case JUGAR_CARTA -> CodecBinario.escribirResultado(out,
+                    partida.jugarCarta(CodecBinario.leerTextoOpcional(in), in.readLong(), in.readInt()));
+            case ROBAR_CARTA -> CodecBinario.escribirResultado(out,
+                    partida.robarCartaDelMazo(CodecBinario.leerTextoOpcional(in), in.readLong()));
+            case CAMBIAR_COLOR -> CodecBinario.escribirResultado(out,
+                    partida.cambiarColorActual(CodecBinario.leerTextoOpcional(in), in.readLong(),
+                            CodecBinario.leerColorOpcional(in)));
+            case JUGAR_COMODIN -> CodecBinario.escribirResultado(out,
+                    partida.jugarComodin(CodecBinario.leerTextoOpcional(in), in.readLong(), in.readInt(),
+                            CodecBinario.leerColorOpcional(in)));
+            case PASAR_TURNO -> CodecBinario.escribirResultado(out,
+                    partida.pasarTurno(CodecBinario.leerTextoOpcional(in), in.readLong()));
+            case INICIAR_JUEGO -> CodecBinario.escribirResultado(out,
+                    partida.iniciarJuego(CodecBinario.leerTextoOpcional(in), in.readLong()));
+            case REINICIAR_PARTIDA -> CodecBinario.escribirResultado(out,
+                    partida.reiniciarPartida(CodecBinario.leerTextoOpcional(in), in.readLong()));
+            case GET_JUGADOR_ACTUAL -> {
+                Jugador actual = partida.getJugadorActual();
+                out.writeBoolean(actual != null);
+                if (actual != null) CodecBinario.escribirJugador(out, actual);
+            }
+            case GET_ULTIMA_CARTA -> CodecBinario.escribirCartaOpcional(out, partida.getUltimaCartaJugadas());
+            case GET_COLOR_ACTUAL -> CodecBinario.escribirColorOpcional(out, partida.getColorActual());
+            case IS_PARTIDA_EN_CURSO -> out.writeBoolean(partida.isPartidaEnCurso());
+            case IS_ESPERANDO_COLOR -> out.writeBoolean(partida.isEstadoEsperandoColor());
+            case GET_JUGADORES -> {
+                List<Jugador> jugadores = partida.getJugadores();
+                out.writeShort(jugadores.size());
+                for (Jugador j : jugadores) {
+                    CodecBinario.escribirJugador(out, j);
+                }
+            }
+            case OBTENER_MANO -> {
+                ManoJugador mano = partida.obtenerMano(in.readUTF());
+                out.writeBoolean(mano != null);
+                if (mano != null) CodecBinario.escribirMano(out, mano);
+            }
+            case REGISTRAR_JUGADOR ->
+                    CodecBinario.escribirRegistro(out, partida.registrarJugador(in.readUTF()));
+            case DESCONECTAR -> partida.desconectar(in.readUTF());
+            case OBTENER_RANKING -> CodecBinario.escribirTextos(out, partida.obtenerRanking());
+            case OBTENER_RANKING_PAGINA ->
+                    CodecBinario.escribirTextos(out, partida.obtenerRankingPagina(in.readInt(), in.readInt()));
+            case OBTENER_POSICION_RANKING -> out.writeInt(partida.obtenerPosicionRanking(in.readUTF()));
+            case OBTENER_RANKING_VENTANA -> CodecBinario.escribirTextos(out,
+                    partida.obtenerRankingVentana(VentanaRanking.getVentana(in.readUnsignedByte())));
+            case OBTENER_EVENTOS -> throw new IllegalStateException("obtenerEventos lo atiende el selector");
+            case RECONECTAR -> {
+                // El "callback" por NIO es la propia conexión: no hace falta registrar otro observador
+                String token = CodecBinario.leerTextoOpcional(in);
+                CodecBinario.escribirReconexion(out, partida.reconectar(token, in.readLong(), null));
+            }
+            case OBTENER_ESTADO_MESA ->
+                    CodecBinario.escribirEstadoMesaOpcional(out, partida.obtenerEstadoMesa(in.readUTF()));
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Estado de una conexión: buffer de lectura (tramas a medio llegar), cola de pedidos
+     * (se atienden de a uno, en orden) y cola de salida.
+     */
+    private class Conexion {
+        private final SocketChannel canal;
+        private final SelectionKey key;
+        private ByteBuffer lectura = ByteBuffer.allocate(TAMANIO_BUFFER_LECTURA);
+        private final Queue<ByteBuffer> salida = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger tramasPendientes = new AtomicInteger(); // size() de la cola la recorre entera
+        private final AtomicBoolean marcada = new AtomicBoolean(false);
+        private final Queue<Runnable> pedidos = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger cantidadPedidos = new AtomicInteger();
+        private final AtomicBoolean atendiendo = new AtomicBoolean(false);
+
+        Conexion(SocketChannel canal, SelectionKey key) {
+            this.canal = canal;
+            this.key = key;
+        }
+
+        /**
+         * Puede llamarse desde cualquier hilo (ej: un evento disparado por un cliente RMI).
+         */
+        void encolar(ByteBuffer trama) {
+            if (tramasPendientes.incrementAndGet() > MAX_TRAMAS_PENDIENTES) {
+                // Cliente que no lee: lo cortamos antes de que acumule memoria sin límite
+                cerrar(key);
+                return;
+            }
+            salida.add(trama);
+            if (marcada.compareAndSet(false, true)) {
+                pendientesDeEscritura.add(this);
+            }
+        }
+
+        void leer() throws IOException {
+            if (canal.read(lectura) < 0) {
+                throw new EOFException();
+            }
+            lectura.flip();
+            while (lectura.remaining() >= 4) {
+                int largo = lectura.getInt(lectura.position());
+                if (largo <= 0 || largo > ProtocoloNIO.TAMANIO_MAXIMO_TRAMA) {
+                    throw new IOException("Trama inválida de " + largo + " bytes");
+                }
+                if (lectura.remaining() < 4 + largo) {
+                    break;
+                }
+                lectura.getInt();
+                byte[] cuerpo = new byte[largo];
+                lectura.get(cuerpo);
+                procesarTrama(cuerpo);
+            }
+            lectura.compact();
+
+            // Si la trama que falta no entra en el buffer, lo agrandamos
+            if (!lectura.hasRemaining()) {
+                ByteBuffer mayor = ByteBuffer.allocate(lectura.capacity() * 2);
+                lectura.flip();
+                mayor.put(lectura);
+                lectura = mayor;
+            }
+        }
+
+        private void procesarTrama(byte[] cuerpo) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(cuerpo));
+            if (in.readByte() != ProtocoloNIO.PEDIDO) {
+                throw new IOException("Se esperaba un pedido");
+            }
+            OperacionNIO operacion = OperacionNIO.getOperacion(in.readUnsignedByte());
+            int id = in.readInt();
+            if (operacion == OperacionNIO.OBTENER_EVENTOS) {
+                atenderObtenerEventos(this, id, in);
+                return;
+            }
+            if (cantidadPedidos.incrementAndGet() > MAX_PEDIDOS_PENDIENTES) {
+                throw new IOException("Demasiados pedidos sin atender");
+            }
+            pedidos.add(() -> responder(operacion, id, in));
+            programar();
+        }
+
+        // Si nadie está atendiendo esta conexión y hay pedidos, manda uno al pool
+        private void programar() throws IOException {
+            if (pedidos.isEmpty() || !atendiendo.compareAndSet(false, true)) return;
+            try {
+                trabajadores.execute(this::atenderSiguiente);
+            } catch (RejectedExecutionException e) {
+                atendiendo.set(false);
+                throw new IOException("Servidor NIO detenido", e);
+            }
+        }
+
+        /**
+         * Corre en un trabajador: atiende UN pedido y vuelve a la cola del pool si quedan más,
+         * así una conexión con muchos pedidos no acapara un hilo mientras las demás esperan.
+         */
+        private void atenderSiguiente() {
+            Runnable pedido = pedidos.poll();
+            if (pedido != null) {
+                cantidadPedidos.decrementAndGet();
+                pedido.run();
+            }
+            atendiendo.set(false);
+            try {
+                programar();
+            } catch (IOException e) {
+                cerrar(key);
+            }
+        }
+
+        /**
+         * Encola la respuesta a un obtenerEventos. Corre en el hilo del selector.
+         */
+        void responderLote(int id, LoteEventos lote) throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(id);
+            CodecBinario.escribirLote(out, lote);
+            encolar(ProtocoloNIO.trama(ProtocoloNIO.RESPUESTA, buffer.toByteArray()));
+        }
+
+        /**
+         * Corre en un trabajador: ejecuta el pedido, encola la respuesta y despierta al selector para que la escriba.
+         */
+        private void responder(OperacionNIO operacion, int id, DataInputStream in) {
+            try {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+                DataOutputStream out = new DataOutputStream(buffer);
+                out.writeInt(id);
+                byte clase;
+                try {
+                    out.write(atender(operacion, in));
+                    clase = ProtocoloNIO.RESPUESTA;
+                } catch (RuntimeException e) {
+                    // Errores que por RMI viajarían como excepción
+                    buffer.reset();
+                    out.writeInt(id);
+                    out.writeUTF(String.valueOf(e.getMessage()));
+                    clase = ProtocoloNIO.ERROR;
+                }
+                encolar(ProtocoloNIO.trama(clase, buffer.toByteArray()));
+                selector.wakeup();
+            } catch (IOException e) {
+                // Pedido mal formado: cortamos la conexión, igual que si fallara la lectura
+                cerrar(key);
+                selector.wakeup();
+            }
+        }
+
+        void escribir() throws IOException {
+            ByteBuffer trama;
+            while ((trama = salida.peek()) != null) {
+                canal.write(trama);
+                if (trama.hasRemaining()) {
+                    return; // El socket está lleno: seguimos cuando vuelva a estar listo
+                }
+                salida.poll();
+                tramasPendientes.decrementAndGet();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            // Por si algo se encoló entre el último peek y el cambio de interés
+            if (!salida.isEmpty()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    // Hilos daemon con nombre, para reconocerlos en un volcado de hilos
+    private static final class FabricaTrabajadores implements ThreadFactory {
+        private final AtomicInteger numero = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "uno-nio-trabajador-" + numero.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package RMI;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Simulación de una red real sobre 127.0.0.1: latencia, jitter, ancho de banda limitado
+ * y cortes de conexión entre el Controlador y la Partida.
+ * <p>
+ * Actúa en los sockets de RMI ({@link FabricaSocketsRMI}): cada escritura espera lo que
+ * tardaría en viajar antes de salir. Con latencia L por sentido, una llamada RMI cuesta
+ * al menos 2L (RTT), así se ve el costo real de las llamadas encadenadas de la vista.
+ * <p>
+ * Se configura por propiedades o desde el código (para pruebas automáticas):
+ * <ul>
+ *   <li>{@code -Duno.red=latencia=50,jitter=10,ancho=256000,corte=0.001}</li>
+ *   <li>{@code -Duno.red.guion=archivo}: líneas "milisegundos condiciones" aplicadas en ese momento
+ *       (ej: "0 latencia=25", "10000 latencia=100,jitter=40", "20000 cortar", "21000 normal").</li>
+ *   <li>{@code -Duno.red.semilla=N}: semilla del azar (jitter y cortes) para repetir una corrida.</li>
+ * </ul>
+ * Claves: latencia y jitter en ms por sentido, ancho en bytes/s (0 = sin límite), corte =
+ * probabilidad de cortar la conexión en cada envío, caida=true rechaza conexiones nuevas.
+ * "cortar" cierra todas las conexiones abiertas en ese instante; "normal" vuelve a red perfecta.
+ */
+public final class CondicionesRed {
+
+    public static final String PROPIEDAD = "uno.red";
+    public static final String PROPIEDAD_GUION = "uno.red.guion";
+    public static final String PROPIEDAD_SEMILLA = "uno.red.semilla";
+
+    /**
+     * Foto inmutable de las condiciones: se reemplaza entera, así un envío nunca ve
+     * una mezcla de configuración vieja y nueva.
+     */
+    private record Condiciones(long latenciaMs, long jitterMs, long bytesPorSegundo,
+                               double probabilidadCorte, boolean caida) {
+    }
+
+    private static final Condiciones NORMAL = new Condiciones(0, 0, 0, 0, false);
+
+    private static volatile Condiciones actuales = NORMAL;
+    private static volatile Random azar = new Random();
+
+    // Sockets abiertos, para poder cortarlos todos a la vez (débiles: no los retenemos)
+    private static final Set<Socket> abiertos = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private CondicionesRed() {
+    }
+
+    // ============ Configuración ============
+
+    /**
+     * Aplica condiciones en formato "clave=valor,clave=valor" (ver doc de la clase).
+     * Las claves que no aparecen vuelven a su valor normal.
+     */
+    public static void configurar(String condiciones) {
+        String texto = condiciones.trim();
+        if (texto.equalsIgnoreCase("normal") || texto.isEmpty()) {
+            actuales = NORMAL;
+            return;
+        }
+        if (texto.equalsIgnoreCase("cortar")) {
+            cortarConexiones();
+            return;
+        }
+
+        long latencia = 0, jitter = 0, ancho = 0;
+        double corte = 0;
+        boolean caida = false;
+        for (String par : texto.split(",")) {
+            String[] kv = par.split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Condición mal escrita: " + par);
+            }
+            String valor = kv[1].trim();
+            switch (kv[0].trim().toLowerCase()) {
+                case "latencia" -> latencia = Long.parseLong(valor);
+                case "jitter" -> jitter = Long.parseLong(valor);
+                case "ancho" -> ancho = Long.parseLong(valor);
+                case "corte" -> corte = Double.parseDouble(valor);
+                case "caida" -> caida = Boolean.parseBoolean(valor);
+                default -> throw new IllegalArgumentException("Condición desconocida: " + kv[0]);
+            }
+        }
+        actuales = new Condiciones(latencia, jitter, ancho, corte, caida);
+    }
+
+    public static void normal() {
+        actuales = NORMAL;
+    }
+
+    public static void setSemilla(long semilla) {
+        azar = new Random(semilla);
+    }
+
+    /**
+     * Cierra todas las conexiones RMI abiertas, como si se cayera el Wi-Fi un instante.
+     * Las llamadas en curso fallan con RemoteException; las siguientes abren conexiones nuevas.
+     */
+    public static void cortarConexiones() {
+        List<Socket> copia;
+        synchronized (abiertos) {
+            copia = new ArrayList<>(abiertos);
+            abiertos.clear();
+        }
+        for (Socket socket : copia) {
+            try {
+                socket.close();
+            } catch (IOException ignorada) {
+                // Ya estaba cerrado
+            }
+        }
+    }
+
+    static void configurarDesdePropiedades() {
+        String semilla = System.getProperty(PROPIEDAD_SEMILLA);
+        if (semilla != null) setSemilla(Long.parseLong(semilla));
+
+        String condiciones = System.getProperty(PROPIEDAD);
+        if (condiciones != null) configurar(condiciones);
+
+        String guion = System.getProperty(PROPIEDAD_GUION);
+        if (guion != null) {
+            try {
+                ejecutarGuion(Files.readAllLines(Paths.get(guion)));
+            } catch (IOException e) {
+                System.err.println("No se pudo leer el guion de red " + guion + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Ejecuta un guion en un hilo aparte: cada línea es "milisegundos condiciones", con el
+     * tiempo contado desde que arranca el guion. Las líneas vacías y las que empiezan con # se ignoran.
+     *
+     * @return el hilo del guion (para esperarlo con join() en una prueba).
+     */
+    public static Thread ejecutarGuion(List<String> lineas) {
+        List<String[]> pasos = new ArrayList<>();
+        for (String linea : lineas) {
+            String l = linea.trim();
+            if (l.isEmpty() || l.startsWith("#")) continue;
+            String[] partes = l.split("\\s+", 2);
+            pasos.add(new String[]{partes[0], partes.length > 1 ? partes[1] : "normal"});
+        }
+
+        Thread hilo = new Thread(() -> {
+            long inicio = System.currentTimeMillis();
+            for (String[] paso : pasos) {
+                long espera = inicio + Long.parseLong(paso[0]) - System.currentTimeMillis();
+                if (espera > 0) {
+                    try {
+                        Thread.sleep(espera);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                configurar(paso[1]);
+            }
+        }, "uno-guion-red");
+        hilo.setDaemon(true);
+        hilo.start();
+        return hilo;
+    }
+
+    // ============ Llamados desde los sockets ============
+
+    static void registrar(Socket socket) {
+        abiertos.add(socket);
+    }
+
+    static void antesDeConectar() throws IOException {
+        if (actuales.caida()) {
+            throw new ConnectException("Red caída (simulada)");
+        }
+    }
+
+    /**
+     * Demora el envío de {@code largo} bytes según las condiciones, o corta la conexión.
+     */
+    static void antesDeEnviar(Socket socket, int largo) throws IOException {
+        Condiciones c = actuales;
+        if (c == NORMAL) return;
+
+        if (c.probabilidadCorte() > 0 && azar.nextDouble() < c.probabilidadCorte()) {
+            socket.close();
+            throw new SocketException("Conexión cortada (simulada)");
+        }
+
+        long demoraMs = c.latenciaMs();
+        if (c.jitterMs() > 0) {
+            demoraMs += (long) (azar.nextDouble() * c.jitterMs());
+        }
+        if (c.bytesPorSegundo() > 0) {
+            demoraMs += largo * 1000L / c.bytesPorSegundo();
+        }
+        if (demoraMs > 0) {
+            try {
+                Thread.sleep(demoraMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SocketException("Envío interrumpido");
+            }
+        }
+    }
+}
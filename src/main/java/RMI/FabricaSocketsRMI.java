@@ -0,0 +1,138 @@
+package RMI;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.rmi.server.RMISocketFactory;
+
+/**
+ * Fábrica de sockets para RMI con dos capas opcionales sobre los streams:
+ * <ul>
+ *   <li>Medición ({@link MedidorRed}): cuenta conexiones y bytes por operación.</li>
+ *   <li>Condiciones de red ({@link CondicionesRed}): latencia, jitter, ancho de banda y cortes.</li>
+ * </ul>
+ * Se instala para toda la JVM (una sola vez, así lo exige {@link RMISocketFactory}), por eso
+ * las dos capas comparten fábrica y vale tanto para sockets de cliente como de servidor.
+ */
+public class FabricaSocketsRMI extends RMISocketFactory {
+
+    private static boolean instalada;
+
+    private FabricaSocketsRMI() {
+    }
+
+    /**
+     * Instala la fábrica si alguna propiedad la pide:
+     * {@code -Duno.medicion=archivo.csv}, {@code -Duno.red=latencia=100,jitter=20}
+     * o {@code -Duno.red.guion=archivo}. Tiene que llamarse antes de cualquier uso de RMI.
+     */
+    public static void instalarSiCorresponde() {
+        boolean medir = System.getProperty(MedidorRed.PROPIEDAD) != null;
+        boolean degradar = System.getProperty(CondicionesRed.PROPIEDAD) != null
+                || System.getProperty(CondicionesRed.PROPIEDAD_GUION) != null;
+        if (!medir && !degradar) return;
+
+        if (!instalar()) return;
+        if (medir) MedidorRed.activar(System.getProperty(MedidorRed.PROPIEDAD));
+        if (degradar) CondicionesRed.configurarDesdePropiedades();
+    }
+
+    /**
+     * Instala la fábrica sin condiciones (red normal, sin medir). Para pruebas automáticas que
+     * después ajustan {@link CondicionesRed} desde el código.
+     *
+     * @return false si no se pudo (ej: otra fábrica ya instalada en esta JVM).
+     */
+    public static synchronized boolean instalar() {
+        if (instalada) return true;
+        try {
+            RMISocketFactory.setSocketFactory(new FabricaSocketsRMI());
+            instalada = true;
+        } catch (IOException e) {
+            System.err.println("No se pudo instalar la fábrica de sockets RMI: " + e.getMessage());
+        }
+        return instalada;
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        CondicionesRed.antesDeConectar();
+        Socket socket = new SocketIntervenido(host, port);
+        CondicionesRed.registrar(socket);
+        MedidorRed.registrarConexion();
+        return socket;
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port) throws IOException {
+        return new ServerSocket(port) {
+            @Override
+            public Socket accept() throws IOException {
+                Socket socket = new SocketIntervenido();
+                implAccept(socket);
+                CondicionesRed.registrar(socket);
+                MedidorRed.registrarConexion();
+                return socket;
+            }
+        };
+    }
+
+    /**
+     * Socket normal cuyos streams pasan por la medición y las condiciones de red.
+     */
+    static class SocketIntervenido extends Socket {
+        private InputStream entrada;
+        private OutputStream salida;
+
+        SocketIntervenido() {
+            super();
+        }
+
+        SocketIntervenido(String host, int port) throws IOException {
+            super(host, port);
+        }
+
+        @Override
+        public synchronized InputStream getInputStream() throws IOException {
+            if (entrada == null) {
+                entrada = new FilterInputStream(super.getInputStream()) {
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        if (b >= 0) MedidorRed.sumarRecibidos(1);
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int desde, int largo) throws IOException {
+                        int leidos = super.read(buffer, desde, largo);
+                        if (leidos > 0) MedidorRed.sumarRecibidos(leidos);
+                        return leidos;
+                    }
+                };
+            }
+            return entrada;
+        }
+
+        @Override
+        public synchronized OutputStream getOutputStream() throws IOException {
+            if (salida == null) {
+                salida = new FilterOutputStream(super.getOutputStream()) {
+                    @Override
+                    public void write(int b) throws IOException {
+                        write(new byte[]{(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] buffer, int desde, int largo) throws IOException {
+                        // La demora se aplica antes de que los bytes salgan, como si viajaran
+                        CondicionesRed.antesDeEnviar(SocketIntervenido.this, largo);
+                        out.write(buffer, desde, largo);
+                        MedidorRed.sumarEnviados(largo);
+                    }
+                };
+            }
+            return salida;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package RMI;
 
 import Modelo.Partida;
 import Modelo.IPartidaRemota;
+import NIO.ServidorNIO;
 import ar.edu.unlu.rmimvc.servidor.Servidor;
 
 /**
@@ -24,6 +25,9 @@ public class MainServidor {
         // Puerto estándar para el registro RMI (1099 es el default de Java).
         int port = 1099;
 
+        // Medición de tráfico (-Duno.medicion) y red simulada (-Duno.red); debe ir antes de levantar RMI
+        FabricaSocketsRMI.instalarSiCorresponde();
+
         // 1. Instanciamos la clase Servidor de la librería RMIMVC.
         // Esta clase encapsula la complejidad de configurar RMI manualmente.
         Servidor servidor = new Servidor(host, port);
@@ -33,9 +37,22 @@ public class MainServidor {
         //    a) Crea el objeto Partida (el Modelo).
         //    b) Genera un "Stub" (un objeto falso que representa al modelo en la red).
         //    c) Lo registra con un nombre para que los clientes lo encuentren.
-        IPartidaRemota stub = (IPartidaRemota) servidor.iniciar(new Partida());
+        Partida partida = new Partida();
+        MedidorRed.medirEventos(partida);
+        IPartidaRemota stub = (IPartidaRemota) servidor.iniciar(partida);
+
+        // El ranking se escribe en segundo plano: al apagar (Ctrl+C) se vacía su cola antes de salir
+        Runtime.getRuntime().addShutdownHook(new Thread(partida::cerrar, "uno-apagado"));
 
         System.out.println("Servidor UNO publicado en " + host + ":" + port + " como MVCRMI/Modelo.");
+
+        // 3. (Opcional) Transporte NIO sobre la MISMA partida, para clientes con -Duno.transporte=nio.
+        // Se activa pasando el puerto como argumento o con -Duno.nio.puerto=1100.
+        String puertoNio = args.length > 0 ? args[0] : System.getProperty("uno.nio.puerto");
+        if (puertoNio != null) {
+            new ServidorNIO(partida, host, Integer.parseInt(puertoNio)).iniciar();
+            System.out.println("Transporte NIO escuchando en " + host + ":" + puertoNio + ".");
+        }
         System.out.println("Esperando conexiones de clientes...");
     }
 }
@@ -0,0 +1,182 @@
+package RMI;
+
+import Modelo.IPartidaRemota;
+import Modelo.Partida;
+import Modelo.TipoEvento;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Medición del tráfico RMI: conexiones, bytes enviados/recibidos y llamadas,
+ * separados por método remoto y por tipo de evento.
+ * <p>
+ * Cómo se atribuyen los bytes: RMI reusa las conexiones entre llamadas, así que el socket
+ * no sabe qué método está transportando. Pero las llamadas RMI son sincrónicas: el hilo que
+ * llama es el que escribe el pedido y lee la respuesta. Entonces marcamos el hilo con la
+ * operación en curso ({@link #etiquetar}) y los sockets medidos suman los bytes a esa etiqueta.
+ * <ul>
+ *   <li>Cliente: {@link #envolver} pone un proxy delante del stub que marca cada método.</li>
+ *   <li>Servidor: {@link #medirEventos} envuelve cada broadcast de la Partida y lo marca como
+ *       "evento:TIPO" (los callbacks a los controladores salen desde el hilo que notifica).</li>
+ * </ul>
+ * Lo que no tiene etiqueta (ej: el servidor leyendo pedidos, DGC, registry) va a "(sin atribuir)".
+ * <p>
+ * Se activa con {@code -Duno.medicion=archivo.csv} (ver {@link FabricaSocketsRMI}); al cerrar la JVM
+ * se exporta el CSV.
+ */
+public final class MedidorRed {
+
+    public static final String PROPIEDAD = "uno.medicion";
+    private static final String SIN_ATRIBUIR = "(sin atribuir)";
+
+    private static volatile boolean activo;
+    private static final ThreadLocal<String> operacionActual = new ThreadLocal<>();
+    private static final Map<String, Contadores> porOperacion = new ConcurrentHashMap<>();
+    private static final LongAdder conexiones = new LongAdder();
+
+    private MedidorRed() {
+    }
+
+    /**
+     * Contadores de una operación. LongAdder porque suman muchos hilos a la vez.
+     */
+    private static final class Contadores {
+        final LongAdder llamadas = new LongAdder();
+        final LongAdder bytesEnviados = new LongAdder();
+        final LongAdder bytesRecibidos = new LongAdder();
+    }
+
+    /**
+     * Activa la medición y programa la exportación del CSV al cerrar la JVM.
+     * La llama {@link FabricaSocketsRMI#instalarSiCorresponde()} cuando está la propiedad.
+     */
+    static synchronized void activar(String archivo) {
+        if (activo) return;
+        activo = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                exportarCsv(Paths.get(archivo));
+            } catch (IOException e) {
+                System.err.println("No se pudo exportar la medición de red: " + e.getMessage());
+            }
+        }, "uno-medicion"));
+    }
+
+    public static boolean isActivo() {
+        return activo;
+    }
+
+    // ============ Atribución ============
+
+    /**
+     * Marca el hilo actual con la operación que está viajando y devuelve la marca anterior
+     * (para restaurarla en un finally).
+     */
+    public static String etiquetar(String operacion) {
+        String anterior = operacionActual.get();
+        if (operacion == null) {
+            operacionActual.remove();
+        } else {
+            operacionActual.set(operacion);
+        }
+        return anterior;
+    }
+
+    public static void registrarLlamada(String operacion) {
+        if (activo) contadores(operacion).llamadas.increment();
+    }
+
+    static void registrarConexion() {
+        conexiones.increment();
+    }
+
+    static void sumarEnviados(long bytes) {
+        if (activo) contadores(operacionActual.get()).bytesEnviados.add(bytes);
+    }
+
+    static void sumarRecibidos(long bytes) {
+        if (activo) contadores(operacionActual.get()).bytesRecibidos.add(bytes);
+    }
+
+    private static Contadores contadores(String operacion) {
+        return porOperacion.computeIfAbsent(operacion == null ? SIN_ATRIBUIR : operacion, k -> new Contadores());
+    }
+
+    // ============ Lado cliente ============
+
+    /**
+     * Devuelve un proxy del modelo remoto que etiqueta y cuenta cada método.
+     * Si la medición no está activa devuelve el mismo objeto (costo cero).
+     */
+    public static IPartidaRemota envolver(IPartidaRemota partida) {
+        if (!activo) return partida;
+        return (IPartidaRemota) Proxy.newProxyInstance(
+                IPartidaRemota.class.getClassLoader(),
+                new Class<?>[]{IPartidaRemota.class},
+                (proxy, metodo, argumentos) -> {
+                    String operacion = metodo.getName();
+                    registrarLlamada(operacion);
+                    String anterior = etiquetar(operacion);
+                    try {
+                        return metodo.invoke(partida, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        etiquetar(anterior);
+                    }
+                });
+    }
+
+    // ============ Lado servidor ============
+
+    /**
+     * Instala en la partida la marca "evento:TIPO" de cada broadcast.
+     * Si la medición no está activa no instala nada (la partida notifica sin envoltura).
+     */
+    public static void medirEventos(Partida partida) {
+        if (!activo) return;
+        Map<TipoEvento, String> etiquetas = new EnumMap<>(TipoEvento.class);
+        for (TipoEvento tipo : TipoEvento.values()) {
+            etiquetas.put(tipo, "evento:" + tipo);
+        }
+        partida.setMedicionEventos((tipo, envio) -> {
+            String operacion = etiquetas.get(tipo);
+            registrarLlamada(operacion);
+            String anterior = etiquetar(operacion);
+            try {
+                envio.run();
+            } finally {
+                etiquetar(anterior);
+            }
+        });
+    }
+
+    // ============ Exportación ============
+
+    /**
+     * Escribe un CSV con una fila por operación (ordenado por nombre) y el total de conexiones.
+     */
+    public static void exportarCsv(Path archivo) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(archivo, StandardCharsets.UTF_8))) {
+            out.println("operacion,llamadas,bytes_enviados,bytes_recibidos");
+            for (Map.Entry<String, Contadores> e : new TreeMap<>(porOperacion).entrySet()) {
+                Contadores c = e.getValue();
+                out.println(e.getKey() + "," + c.llamadas.sum() + ","
+                        + c.bytesEnviados.sum() + "," + c.bytesRecibidos.sum());
+            }
+            out.println("(conexiones)," + conexiones.sum() + ",0,0");
+        }
+    }
+}
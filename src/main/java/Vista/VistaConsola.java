@@ -5,6 +5,8 @@ import Controlador.VistaObserver;
 import Modelo.Carta;
 import Modelo.Color;
 import Modelo.Jugador;
+import Modelo.ManoJugador;
+import Modelo.ResultadoRegistro;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
@@ -88,7 +90,11 @@ public class VistaConsola implements VistaObserver {
             switch (estadoActual) {
                 case LOGIN -> {
                     controlador.setNombreLocal(cmd);
-                    controlador.registrarJugador(cmd);
+                    ResultadoRegistro registro = controlador.registrarJugador(cmd);
+                    if (!registro.isOk()) {
+                        imprimir("Error: " + registro.getMensaje());
+                        return;
+                    }
                     estadoActual = EstadoConsola.ESPERA;
 
                     imprimir(">>> Conectado al Lobby.");
@@ -139,16 +145,33 @@ public class VistaConsola implements VistaObserver {
             switch (accion) {
                 case "JUGAR", "PLAY", "P" -> {
                     if (partes.length < 2) {
-                        imprimir("Uso: JUGAR <numero_indice>");
+                        imprimir("Uso: JUGAR <numero_indice> [COLOR]");
                         return;
                     }
                     int idx = Integer.parseInt(partes[1]);
-                    controlador.jugarCarta(idx);
+                    if (partes.length >= 3) {
+                        // Comodín con color en la misma orden: JUGAR 3 ROJO
+                        Color c = parsearColor(partes[2]);
+                        if (c == null) {
+                            imprimir("Color inválido. Opciones: ROJO, AZUL, VERDE, AMARILLO.");
+                            return;
+                        }
+                        controlador.jugarComodin(idx, c);
+                    } else {
+                        controlador.jugarCarta(idx);
+                    }
                 }
                 case "ROBAR", "DRAW", "R" -> controlador.robarCarta();
                 case "PASAR", "PASS" -> controlador.pasarTurno();
                 case "MANO", "HAND" -> mostrarMano();
                 case "AYUDA", "HELP", "?" -> mostrarAyuda();
+                case "RECONECTAR" -> {
+                    if (controlador.reconectar()) {
+                        imprimir(">>> Reconectado. Recuperaste tu lugar en la mesa.");
+                    } else {
+                        imprimir(">>> No se pudo reconectar (sesión vencida o sin conexión).");
+                    }
+                }
                 case "SALIR", "EXIT" -> {
                     controlador.cerrarCesion();
                     Platform.exit();
@@ -163,15 +186,19 @@ public class VistaConsola implements VistaObserver {
         }
     }
 
+    private Color parsearColor(String colorStr) {
+        return switch (colorStr.toUpperCase()) {
+            case "ROJO", "RED", "1" -> Color.ROJO;
+            case "AZUL", "BLUE", "2" -> Color.AZUL;
+            case "VERDE", "GREEN", "3" -> Color.VERDE;
+            case "AMARILLO", "YELLOW", "4" -> Color.AMARILLO;
+            default -> null;
+        };
+    }
+
     private void procesarSeleccionColor(String colorStr) {
         try {
-            Color c = switch (colorStr.toUpperCase()) {
-                case "ROJO", "RED", "1" -> Color.ROJO;
-                case "AZUL", "BLUE", "2" -> Color.AZUL;
-                case "VERDE", "GREEN", "3" -> Color.VERDE;
-                case "AMARILLO", "YELLOW", "4" -> Color.AMARILLO;
-                default -> null;
-            };
+            Color c = parsearColor(colorStr);
 
             if (c == null) {
                 imprimir("Color inválido. Opciones: ROJO, AZUL, VERDE, AMARILLO.");
@@ -188,9 +215,11 @@ public class VistaConsola implements VistaObserver {
     private void mostrarAyuda() {
         imprimir("--- COMANDOS ---");
         imprimir(" JUGAR <n> : Tira carta n");
+        imprimir(" JUGAR <n> <COLOR> : Tira comodín n y elige color");
         imprimir(" ROBAR     : Toma carta");
         imprimir(" PASAR     : Pasa turno (tras robar)");
         imprimir(" MANO      : Ver cartas");
+        imprimir(" RECONECTAR: Recupera tu lugar tras un corte");
         imprimir(" SALIR     : Desconectar");
     }
 
@@ -254,13 +283,14 @@ public class VistaConsola implements VistaObserver {
     }
 
     private void mostrarMano() {
-        Jugador yo = controlador.getJugadorLocal();
-        if (yo == null) return;
-
-        imprimir("TUS CARTAS:");
-        List<Carta> mano = yo.getCartas();
-        for (int i = 0; i < mano.size(); i++) {
-            imprimir(" [" + i + "] " + mano.get(i));
+        ManoJugador mano = controlador.getManoLocal();
+        if (mano == null) return;
+
+        // Las cartas marcadas con * son las que el servidor acepta en este momento
+        imprimir(mano.hayJugables() ? "TUS CARTAS (* = jugable):" : "TUS CARTAS:");
+        List<Carta> cartas = mano.getCartas();
+        for (int i = 0; i < cartas.size(); i++) {
+            imprimir((mano.esJugable(i) ? "*[" : " [") + i + "] " + cartas.get(i));
         }
         imprimir("");
     }
@@ -275,8 +305,8 @@ public class VistaConsola implements VistaObserver {
                 imprimir("       " + titulo + ": " + mensaje);
                 imprimir("*********************************");
 
-                // Pedimos el Ranking Top 5
-                List<String> top5 = controlador.getRankingTop5();
+                // El Ranking Top 5 ya vino con el fin de partida
+                List<String> top5 = controlador.getRankingFinPartida();
                 imprimir("\n--- 🏆 TOP 5 MEJORES JUGADORES 🏆 ---");
                 for (String linea : top5) {
                     imprimir(" " + linea);
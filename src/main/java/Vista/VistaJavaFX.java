@@ -5,6 +5,7 @@ import Controlador.VistaObserver;
 import Modelo.Carta;
 import Modelo.Color;
 import Modelo.Jugador;
+import Modelo.ManoJugador;
 import Modelo.Numero;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -199,8 +200,13 @@ public class VistaJavaFX implements VistaObserver {
         }
     }
 
-    private void accionJugarCarta(int indice) {
+    private void accionJugarCarta(int indice, Carta carta) {
         try {
+            // Comodín: pedimos el color antes de tirar y mandamos todo junto (una sola llamada)
+            if (carta.getValor() == Numero.CAMBIOCOLOR || carta.getValor() == Numero.MASCUATRO) {
+                elegirColor().ifPresent(color -> controlador.jugarComodin(indice, color));
+                return;
+            }
             controlador.jugarCarta(indice);
             // No hacemos nada más, esperamos que el servidor nos mande el evento de cambio de turno
         } catch (Exception ex) {
@@ -278,8 +284,10 @@ public class VistaJavaFX implements VistaObserver {
                 btnPasar.setDisable(!esMiTurno || !yaRobe);
 
                 // 6. Dibujar la Mano del Jugador (Cartas)
+                // La mano viene con la máscara de cartas jugables calculada por el servidor.
                 contenedorMano.getChildren().clear();
-                List<Carta> misCartas = local.getCartas();
+                ManoJugador mano = controlador.getManoLocal();
+                List<Carta> misCartas = (mano != null) ? mano.getCartas() : local.getCartas();
                 for (int i = 0; i < misCartas.size(); i++) {
                     Carta c = misCartas.get(i);
                     int indexFinal = i;
@@ -287,16 +295,16 @@ public class VistaJavaFX implements VistaObserver {
                     // Usamos la fábrica para crear el nodo visual de la carta
                     Node cartaVisual = CartaVisualFactory.crearCarta(c);
 
-                    // Si es mi turno, agregamos interactividad
-                    if (esMiTurno) {
-                        cartaVisual.setOnMouseClicked(e -> accionJugarCarta(indexFinal));
+                    // Si es mi turno y la carta es legal, agregamos interactividad
+                    if (esMiTurno && mano != null && mano.esJugable(i)) {
+                        cartaVisual.setOnMouseClicked(e -> accionJugarCarta(indexFinal, c));
                         cartaVisual.setCursor(javafx.scene.Cursor.HAND);
                         // Efecto de "levantar" carta al pasar el mouse
                         cartaVisual.setOnMouseEntered(e -> cartaVisual.setTranslateY(-10));
                         cartaVisual.setOnMouseExited(e -> cartaVisual.setTranslateY(0));
                     } else {
-                        // Si no es mi turno, las cartas se ven opacas
-                        cartaVisual.setOpacity(0.7);
+                        // Si no es mi turno (o la carta no se puede tirar), las cartas se ven opacas
+                        cartaVisual.setOpacity(esMiTurno ? 0.45 : 0.7);
                     }
 
                     contenedorMano.getChildren().add(cartaVisual);
@@ -340,6 +348,7 @@ public class VistaJavaFX implements VistaObserver {
 
     /**
      * Muestra un diálogo modal obligatorio para elegir color tras jugar un comodín.
+     * (Flujo en dos pasos: el servidor quedó esperando el color).
      */
     private void pedirColor() {
         dialogAbierto = true;
@@ -359,6 +368,20 @@ public class VistaJavaFX implements VistaObserver {
         dialogAbierto = false;
     }
 
+    /**
+     * Pregunta el color ANTES de tirar el comodín (flujo atómico).
+     * Acá sí se puede cancelar: si el usuario se arrepiente, la carta no se juega.
+     */
+    private Optional<Color> elegirColor() {
+        List<Color> colores = Arrays.asList(Color.ROJO, Color.AZUL, Color.VERDE, Color.AMARILLO);
+
+        ChoiceDialog<Color> dlg = new ChoiceDialog<>(Color.ROJO, colores);
+        dlg.setTitle("UNO");
+        dlg.setHeaderText("Vas a tirar un comodín");
+        dlg.setContentText("Seleccioná el próximo color:");
+        return dlg.showAndWait();
+    }
+
     /**
      * Muestra alertas informativas (Ganador, Errores, UNO gritado) y tambien permite reiniciar la partida con los mismo jugadores
      */
@@ -368,8 +391,8 @@ public class VistaJavaFX implements VistaObserver {
             // Caso Especial: Si es el fin del juego, mostramos botones de acción
             if (titulo.equals("FIN DEL JUEGO")) {
 
-                // --- NUEVO: Pedir el ranking al controlador ---
-                List<String> top5 = controlador.getRankingTop5();
+                // --- El ranking ya vino con el evento de fin de partida ---
+                List<String> top5 = controlador.getRankingFinPartida();
                 StringBuilder sb = new StringBuilder();
 
                 // Construimos el texto completo
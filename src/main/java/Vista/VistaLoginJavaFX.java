@@ -1,6 +1,7 @@
 package Vista;
 
 import Controlador.ControladorUNO;
+import Modelo.ResultadoRegistro;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
@@ -59,10 +60,14 @@ public class VistaLoginJavaFX {
             try {
                 // Enviamos la petición de registro vía RMI.
                 // Si el servidor acepta, disparará el evento "JUGADOR_REGISTRADO".
-                controlador.registrarJugador(nombre);
+                ResultadoRegistro registro = controlador.registrarJugador(nombre);
+                if (!registro.isOk()) {
+                    lbl.setText(registro.getMensaje()); // Ej: sala llena; se queda en el ingreso
+                    return;
+                }
 
                 // 4. Transición de Pantalla.
-                // Si no hubo excepciones de red, cambiamos la escena actual por la del Lobby.
+                // Si el servidor nos aceptó, cambiamos la escena actual por la del Lobby.
                 vistaEspera.mostrar(stage);
 
             } catch (Exception ex) {